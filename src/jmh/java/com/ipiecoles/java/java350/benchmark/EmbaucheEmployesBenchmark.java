@@ -0,0 +1,90 @@
+package com.ipiecoles.java.java350.benchmark;
+
+import com.ipiecoles.java.java350.Java350Application;
+import com.ipiecoles.java.java350.exception.EmployeException;
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.NiveauEtude;
+import com.ipiecoles.java.java350.model.Poste;
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import com.ipiecoles.java.java350.service.DemandeEmbauche;
+import com.ipiecoles.java.java350.service.EmployeService;
+import com.ipiecoles.java.java350.service.MatriculeAllocator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit d'insertion (lignes/s, compteur "lignes") de l'embauche groupée sur H2 en mémoire.
+ * L'espace des matricules étant limité à 99999 numéros, la plus grosse promotion mesurée en compte 99999.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class EmbaucheEmployesBenchmark {
+
+    @Param({"10000", "99999"})
+    private int nbEmbauches;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeService employeService;
+
+    private EmployeRepository employeRepository;
+
+    private MatriculeAllocator matriculeAllocator;
+
+    private List<DemandeEmbauche> demandes;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Compteur {
+        public long lignes;
+
+        @Setup(Level.Iteration)
+        public void reinitialiser() {
+            lignes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void demarrer() {
+        context = new SpringApplicationBuilder(Java350Application.class)
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1")
+                .run();
+        employeService = context.getBean(EmployeService.class);
+        employeRepository = context.getBean(EmployeRepository.class);
+        matriculeAllocator = context.getBean(MatriculeAllocator.class);
+
+        NiveauEtude[] niveaux = NiveauEtude.values();
+        Poste[] postes = Poste.values();
+        demandes = new ArrayList<>(nbEmbauches);
+        for (int i = 0; i < nbEmbauches; i++) {
+            demandes.add(new DemandeEmbauche("Doe", "John" + i, postes[i % postes.length], niveaux[i % niveaux.length], i % 4 == 0 ? 0.5 : 1.0));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void viderTable() {
+        employeRepository.deleteAllInBatch();
+        matriculeAllocator.resynchroniser();
+    }
+
+    @Benchmark
+    public List<Employe> embaucheEmployes(Compteur compteur) throws EmployeException {
+        List<Employe> employes = employeService.embaucheEmployes(demandes);
+        compteur.lignes += employes.size();
+        return employes;
+    }
+
+    @TearDown(Level.Trial)
+    public void arreter() {
+        context.close();
+    }
+}
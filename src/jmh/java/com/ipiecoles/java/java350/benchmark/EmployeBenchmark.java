@@ -0,0 +1,66 @@
+package com.ipiecoles.java.java350.benchmark;
+
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.Entreprise;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Méthodes de calcul d'Employe et d'Entreprise, sans base de données.
+ * Avec -prof gc, la métrique gc.alloc.rate.norm donne les octets alloués par appel.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeBenchmark {
+
+    @Param({"2019", "2032"})
+    private int annee;
+
+    private LocalDate dateCalcul;
+
+    private Employe technicien;
+
+    private Employe manager;
+
+    @Setup(Level.Trial)
+    public void initialiser() {
+        dateCalcul = LocalDate.of(annee, 6, 15);
+        technicien = new Employe("Doe", "John", "T00001", LocalDate.now().minusYears(5), Entreprise.SALAIRE_BASE, 3, 0.8);
+        manager = new Employe("Doe", "Jane", "M00001", LocalDate.now().minusYears(12), Entreprise.SALAIRE_BASE, 1, 1.0);
+    }
+
+    @Benchmark
+    public Double getNbRtt() {
+        return technicien.getNbRtt(dateCalcul);
+    }
+
+    @Benchmark
+    public Double getPrimeAnnuelleTechnicien() {
+        return technicien.getPrimeAnnuelle();
+    }
+
+    @Benchmark
+    public Double getPrimeAnnuelleManager() {
+        return manager.getPrimeAnnuelle();
+    }
+
+    @Benchmark
+    public Double augmenterSalaire() {
+        //Remise au salaire de base pour ne pas mesurer uniquement le plafonnement au salaire maximum
+        technicien.setSalaire(Entreprise.SALAIRE_BASE);
+        technicien.augmenterSalaire(4.5);
+        return technicien.getSalaire();
+    }
+
+    @Benchmark
+    public List<LocalDate> joursFeries() {
+        return Entreprise.joursFeries(dateCalcul);
+    }
+}
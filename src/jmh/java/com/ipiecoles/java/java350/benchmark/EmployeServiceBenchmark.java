@@ -0,0 +1,80 @@
+package com.ipiecoles.java.java350.benchmark;
+
+import com.ipiecoles.java.java350.Java350Application;
+import com.ipiecoles.java.java350.exception.EmployeException;
+import com.ipiecoles.java.java350.model.NiveauEtude;
+import com.ipiecoles.java.java350.model.Poste;
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import com.ipiecoles.java.java350.service.AgregatPerformanceService;
+import com.ipiecoles.java.java350.service.DemandeEmbauche;
+import com.ipiecoles.java.java350.service.EmployeService;
+import com.ipiecoles.java.java350.service.MatriculeAllocator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embauche unitaire et calcul de performance d'un commercial sur H2 en mémoire, une transaction par appel.
+ * La table est vidée avant chaque itération pour rester sous la limite des 99999 matricules.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class EmployeServiceBenchmark {
+
+    private static final int NB_COMMERCIAUX = 10000;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeService employeService;
+
+    private EmployeRepository employeRepository;
+
+    private int prochainCommercial;
+
+    @Setup(Level.Trial)
+    public void demarrer() {
+        context = new SpringApplicationBuilder(Java350Application.class)
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1")
+                .run();
+        employeService = context.getBean(EmployeService.class);
+        employeRepository = context.getBean(EmployeRepository.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void embaucherCommerciaux() throws EmployeException {
+        employeRepository.deleteAllInBatch();
+        context.getBean(AgregatPerformanceService.class).reconcilier();
+        context.getBean(MatriculeAllocator.class).resynchroniser();
+        List<DemandeEmbauche> demandes = new ArrayList<>(NB_COMMERCIAUX);
+        for (int i = 0; i < NB_COMMERCIAUX; i++) {
+            demandes.add(new DemandeEmbauche("Doe", "John" + i, Poste.COMMERCIAL, NiveauEtude.LICENCE, 1.0));
+        }
+        employeService.embaucheEmployes(demandes);
+        prochainCommercial = 0;
+    }
+
+    @Benchmark
+    public void embaucheEmploye() throws EmployeException {
+        employeService.embaucheEmploye("Doe", "John", Poste.TECHNICIEN, NiveauEtude.BTS_IUT, 1.0);
+    }
+
+    @Benchmark
+    public void calculPerformanceCommercial() throws EmployeException {
+        //Commerciaux parcourus à tour de rôle, C00001 à C10000
+        prochainCommercial = prochainCommercial % NB_COMMERCIAUX + 1;
+        employeService.calculPerformanceCommercial(String.format("C%05d", prochainCommercial), 11000L + prochainCommercial % 5 * 1000L, 12000L);
+    }
+
+    @TearDown(Level.Trial)
+    public void arreter() {
+        context.close();
+    }
+}
@@ -0,0 +1,64 @@
+package com.ipiecoles.java.java350.benchmark;
+
+import com.ipiecoles.java.java350.model.ContexteCalcul;
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.Entreprise;
+import com.ipiecoles.java.java350.service.MoteurProjection;
+import com.ipiecoles.java.java350.service.ResultatProjection;
+import com.ipiecoles.java.java350.service.ScenarioProjection;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Projection Monte Carlo de tout l'effectif, sans base de données : 100000 employés sur 10 ans, 1000 tirages d'un
+ * scénario. Les règles d'augmentation et de prime sont celles d'Employe (salaireAugmente, primeAnnuelle).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class MoteurProjectionBenchmark {
+
+    @Param({"100000"})
+    private int nbEmployes;
+
+    @Param({"10"})
+    private int nbAnnees;
+
+    @Param({"1000"})
+    private int nbTirages;
+
+    private final MoteurProjection moteurProjection = new MoteurProjection();
+
+    private final ContexteCalcul contexte = ContexteCalcul.au(LocalDate.of(2019, 6, 15));
+
+    private final List<ScenarioProjection> scenarios = Collections.singletonList(new ScenarioProjection("Central", 2.0, 1.0, 0.2));
+
+    private List<Employe> employes;
+
+    @Setup(Level.Trial)
+    public void initialiser() {
+        Random random = new Random(350);
+        String[] types = {"T", "M", "C"};
+        Double[] tempsPartiels = {1.0, 0.5, 0.8};
+        employes = new ArrayList<>(nbEmployes);
+        for (int i = 0; i < nbEmployes; i++) {
+            LocalDate dateEmbauche = contexte.getDateReference().minusDays(random.nextInt(15000));
+            employes.add(new Employe("Doe", "John", types[i % 3] + String.format("%05d", i % 100000), dateEmbauche,
+                    Entreprise.SALAIRE_BASE + random.nextInt(1500), 1 + random.nextInt(8), tempsPartiels[random.nextInt(tempsPartiels.length)]));
+        }
+    }
+
+    @Benchmark
+    public List<ResultatProjection> projeter() {
+        return moteurProjection.projeter(employes, contexte, scenarios, nbAnnees, nbTirages, 350L);
+    }
+}
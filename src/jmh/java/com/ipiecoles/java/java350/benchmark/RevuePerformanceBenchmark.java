@@ -0,0 +1,82 @@
+package com.ipiecoles.java.java350.benchmark;
+
+import com.ipiecoles.java.java350.Java350Application;
+import com.ipiecoles.java.java350.exception.EmployeException;
+import com.ipiecoles.java.java350.model.NiveauEtude;
+import com.ipiecoles.java.java350.model.Poste;
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import com.ipiecoles.java.java350.service.*;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Revue annuelle des performances de tous les commerciaux : appels successifs à calculPerformanceCommercial
+ * comparés à la revue par lots de RevuePerformanceService.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class RevuePerformanceBenchmark {
+
+    @Param({"50000"})
+    private int nbCommerciaux;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeService employeService;
+
+    private RevuePerformanceService revuePerformanceService;
+
+    private List<ObjectifCommercial> objectifs;
+
+    @Setup(Level.Trial)
+    public void demarrer() {
+        context = new SpringApplicationBuilder(Java350Application.class)
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1")
+                .run();
+        employeService = context.getBean(EmployeService.class);
+        revuePerformanceService = context.getBean(RevuePerformanceService.class);
+
+        objectifs = new ArrayList<>(nbCommerciaux);
+        for (int i = 1; i <= nbCommerciaux; i++) {
+            objectifs.add(new ObjectifCommercial(String.format("C%05d", i), 7000L + (i % 7) * 1000L, 10000L));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void embaucherCommerciaux() throws EmployeException {
+        context.getBean(EmployeRepository.class).deleteAllInBatch();
+        context.getBean(AgregatPerformanceService.class).reconcilier();
+        context.getBean(MatriculeAllocator.class).resynchroniser();
+        List<DemandeEmbauche> demandes = new ArrayList<>(nbCommerciaux);
+        for (int i = 0; i < nbCommerciaux; i++) {
+            demandes.add(new DemandeEmbauche("Doe", "John" + i, Poste.COMMERCIAL, NiveauEtude.LICENCE, 1.0));
+        }
+        employeService.embaucheEmployes(demandes);
+    }
+
+    @Benchmark
+    public void calculPerformanceCommercialParAppel() throws EmployeException {
+        for (ObjectifCommercial objectif : objectifs) {
+            employeService.calculPerformanceCommercial(objectif.getMatricule(), objectif.getCaTraite(), objectif.getObjectifCa());
+        }
+    }
+
+    @Benchmark
+    public ResultatRevuePerformance revueAnnuelle() {
+        return revuePerformanceService.revueAnnuelle(objectifs.stream());
+    }
+
+    @TearDown(Level.Trial)
+    public void arreter() {
+        context.close();
+    }
+}
@@ -1,13 +1,60 @@
 package com.ipiecoles.java.java350;
 
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
 
 @SpringBootApplication
+@EnableScheduling
 public class Java350Application {
 
     public static void main(String[] args) {
         SpringApplication.run(Java350Application.class, args);
     }
 
+    /**
+     * Horloge des calculs datés (date d'embauche, ancienneté...), remplaçable dans les tests
+     */
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+
+    /**
+     * Chronométrage des méthodes annotées @Timed, dans le registre global de Micrometer quand l'actuator n'en
+     * configure pas (tests de la couche JPA seule)
+     */
+    @Bean
+    public TimedAspect timedAspect(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new TimedAspect(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    /**
+     * Configuration Ehcache du cache de second niveau Hibernate. Hibernate 5.3 attend une URI que le fournisseur
+     * JCache sait ouvrir : la ressource classpath: est donc résolue ici.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer configurationCacheSecondNiveau(@Value("${java350.cache.config:classpath:ehcache.xml}") Resource configuration) {
+        return proprietes -> {
+            try {
+                proprietes.put(ConfigSettings.CONFIG_URI, configuration.getURI().toString());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Configuration du cache introuvable : " + configuration, e);
+            }
+        };
+    }
+
 }
\ No newline at end of file
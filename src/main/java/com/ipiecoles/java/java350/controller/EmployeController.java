@@ -0,0 +1,71 @@
+package com.ipiecoles.java.java350.controller;
+
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import com.ipiecoles.java.java350.repository.EmployeResume;
+import com.ipiecoles.java.java350.service.VersionDonneesService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@RestController
+@RequestMapping("/employes")
+public class EmployeController {
+
+    static final int TAILLE_MAX = 500;
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    @Autowired
+    private VersionDonneesService versionDonneesService;
+
+    /**
+     * Liste des employés par matricule croissant, paginée par clé : la page suivante est demandée avec le dernier
+     * matricule reçu (paramètre apres), indiqué dans l'en-tête Link rel="next" tant que la page est complète.
+     *
+     * L'ETag est formé de la version des données des employés (VersionDonneesService), partagée par toutes les
+     * instances, et de la position de la page : une requête If-None-Match portant l'ETag courant reçoit une réponse
+     * 304 au prix de la lecture d'une ligne, sans lecture de la page.
+     *
+     * @param apres le dernier matricule de la page précédente, vide pour la première page
+     * @param taille le nombre d'employés par page, entre 1 et TAILLE_MAX
+     * @param request la requête, pour la vérification de l'ETag
+     * @return la page d'employés, null si le client dispose déjà de la version courante (304)
+     */
+    @GetMapping
+    public ResponseEntity<List<EmployeResume>> listerEmployes(@RequestParam(defaultValue = "") String apres,
+                                                              @RequestParam(defaultValue = "50") int taille,
+                                                              WebRequest request) {
+        if(taille < 1 || taille > TAILLE_MAX){
+            throw new IllegalArgumentException("La taille de page doit être comprise entre 1 et " + TAILLE_MAX + " : " + taille);
+        }
+        //Version lue avant les données : au pire la page sera rechargée une fois de trop
+        String etag = "\"" + versionDonneesService.version() + "-" + taille + "-" + UriUtils.encode(apres, StandardCharsets.UTF_8) + "\"";
+        if(request.checkNotModified(etag)){
+            return null;
+        }
+
+        List<EmployeResume> employes = employeRepository.findByMatriculeGreaterThanOrderByMatriculeAsc(apres, PageRequest.of(0, taille));
+        ResponseEntity.BodyBuilder reponse = ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache());
+        if(employes.size() == taille){
+            String pageSuivante = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("apres", employes.get(taille - 1).getMatricule())
+                    .replaceQueryParam("taille", taille)
+                    .encode().toUriString();
+            reponse.header(HttpHeaders.LINK, "<" + pageSuivante + ">; rel=\"next\"");
+        }
+        return reponse.body(employes);
+    }
+}
@@ -4,4 +4,19 @@ public class EmployeException extends Exception {
     public EmployeException(String s) {
         super(s);
     }
+
+    private EmployeException(String s, boolean pileAppels) {
+        super(s, null, false, pileAppels);
+    }
+
+    /**
+     * Exception sans pile d'appels, pour les erreurs de saisie : elles sont fréquentes et leur origine est connue,
+     * la capture de la pile coûterait plus que la validation elle-même
+     *
+     * @param s le message de l'erreur
+     * @return l'exception, à lever
+     */
+    public static EmployeException sansPileAppels(String s) {
+        return new EmployeException(s, false);
+    }
 }
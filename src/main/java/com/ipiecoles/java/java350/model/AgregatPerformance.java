@@ -0,0 +1,78 @@
+package com.ipiecoles.java.java350.model;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.util.Objects;
+
+/**
+ * Somme et nombre des performances des employés d'un même type (première lettre du matricule),
+ * tenus à jour à chaque écriture afin d'obtenir la performance moyenne sans parcourir les employés.
+ */
+@Entity
+public class AgregatPerformance {
+
+    @Id
+    private String typeEmploye;
+
+    private Long sommePerformance = 0L;
+
+    private Long nbEmployes = 0L;
+
+    public AgregatPerformance() {
+    }
+
+    public AgregatPerformance(String typeEmploye, Long sommePerformance, Long nbEmployes) {
+        this.typeEmploye = typeEmploye;
+        this.sommePerformance = sommePerformance;
+        this.nbEmployes = nbEmployes;
+    }
+
+    /**
+     * @return la performance moyenne des employés de ce type, null s'il n'y en a aucun
+     */
+    public Double getPerformanceMoyenne() {
+        if(nbEmployes == null || nbEmployes == 0L){
+            return null;
+        }
+        return sommePerformance.doubleValue() / nbEmployes;
+    }
+
+    public String getTypeEmploye() {
+        return typeEmploye;
+    }
+
+    public void setTypeEmploye(String typeEmploye) {
+        this.typeEmploye = typeEmploye;
+    }
+
+    public Long getSommePerformance() {
+        return sommePerformance;
+    }
+
+    public void setSommePerformance(Long sommePerformance) {
+        this.sommePerformance = sommePerformance;
+    }
+
+    public Long getNbEmployes() {
+        return nbEmployes;
+    }
+
+    public void setNbEmployes(Long nbEmployes) {
+        this.nbEmployes = nbEmployes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AgregatPerformance)) return false;
+        AgregatPerformance that = (AgregatPerformance) o;
+        return Objects.equals(typeEmploye, that.typeEmploye) &&
+                Objects.equals(sommePerformance, that.sommePerformance) &&
+                Objects.equals(nbEmployes, that.nbEmployes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(typeEmploye, sommePerformance, nbEmployes);
+    }
+}
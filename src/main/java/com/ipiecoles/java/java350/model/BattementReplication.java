@@ -0,0 +1,49 @@
+package com.ipiecoles.java.java350.model;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * Battement de la base primaire, écrit périodiquement et relu sur la base replica pour mesurer son retard de
+ * réplication (SurveillanceReplica). La table n'est utilisée que si une base replica est configurée.
+ */
+@Entity
+public class BattementReplication {
+
+    /**
+     * Identifiant de l'unique ligne du battement
+     */
+    public static final Long BATTEMENT = 1L;
+
+    @Id
+    private Long id;
+
+    /**
+     * Instant de la dernière écriture du battement sur la base primaire, en millisecondes depuis l'epoch
+     */
+    private Long horodatage;
+
+    public BattementReplication() {
+    }
+
+    public BattementReplication(Long id, Long horodatage) {
+        this.id = id;
+        this.horodatage = horodatage;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getHorodatage() {
+        return horodatage;
+    }
+
+    public void setHorodatage(Long horodatage) {
+        this.horodatage = horodatage;
+    }
+}
@@ -0,0 +1,88 @@
+package com.ipiecoles.java.java350.model;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * Éléments de paie d'un employé figés à la clôture d'une année : un seul bilan par employé et par année
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_bilan_paie_annee_employe", columnNames = {"annee", "employeId"}))
+public class BilanPaie {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bilan_paie_seq")
+    @SequenceGenerator(name = "bilan_paie_seq", sequenceName = "bilan_paie_seq", allocationSize = 50)
+    private Long id;
+
+    private Integer annee;
+
+    private Long employeId;
+
+    private String matricule;
+
+    private Double salaire;
+
+    private Double primeAnnuelle;
+
+    private Integer nbConges;
+
+    private Double nbRtt;
+
+    public BilanPaie() {
+    }
+
+    /**
+     * @param employe l'employé
+     * @param contexte le contexte de calcul, au dernier jour de l'année clôturée
+     * @return le bilan de l'employé pour l'année de la date de référence
+     */
+    public static BilanPaie de(Employe employe, ContexteCalcul contexte) {
+        BilanPaie bilan = new BilanPaie();
+        bilan.annee = contexte.getDateReference().getYear();
+        bilan.employeId = employe.getId();
+        bilan.matricule = employe.getMatricule();
+        bilan.salaire = employe.getSalaire();
+        bilan.primeAnnuelle = employe.getPrimeAnnuelle(contexte);
+        bilan.nbConges = employe.getNbConges(contexte);
+        bilan.nbRtt = employe.getNbRtt(contexte);
+        return bilan;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Integer getAnnee() {
+        return annee;
+    }
+
+    public Long getEmployeId() {
+        return employeId;
+    }
+
+    public String getMatricule() {
+        return matricule;
+    }
+
+    public Double getSalaire() {
+        return salaire;
+    }
+
+    public Double getPrimeAnnuelle() {
+        return primeAnnuelle;
+    }
+
+    public Integer getNbConges() {
+        return nbConges;
+    }
+
+    public Double getNbRtt() {
+        return nbRtt;
+    }
+}
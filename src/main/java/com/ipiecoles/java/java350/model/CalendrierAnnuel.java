@@ -0,0 +1,203 @@
+package com.ipiecoles.java.java350.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Calendrier précalculé d'une année : jours fériés, jours de week-end et jours ouvrés sous forme de bitsets de
+ * 366 bits (bit n = n-ième jour de l'année en partant de 0), ainsi que leurs décomptes. Les sommes cumulées des
+ * jours ouvrés donnent le nombre de jours ouvrés entre deux dates par une soustraction.
+ *
+ * Les calendriers sont immuables et conservés dans un cache à correspondance directe de 64 années :
+ * une année chasse celle qui occupe la même case, la lecture d'une année en cache n'alloue rien.
+ */
+public final class CalendrierAnnuel {
+
+    private static final int TAILLE_CACHE = 64;
+
+    private static final AtomicReferenceArray<CalendrierAnnuel> CACHE = new AtomicReferenceArray<>(TAILLE_CACHE);
+
+    private final int annee;
+
+    private final int nbJours;
+
+    private final long[] joursFeries = new long[6];
+
+    private final long[] joursWeekEnd = new long[6];
+
+    private final long[] joursOuvres = new long[6];
+
+    /**
+     * nbJoursOuvresCumules[n] : nombre de jours ouvrés parmi les n premiers jours de l'année
+     */
+    private final short[] nbJoursOuvresCumules;
+
+    private final int nbJoursWeekEnd;
+
+    private final int nbJoursFeriesHorsWeekEnd;
+
+    private final List<LocalDate> listeJoursFeries;
+
+    private CalendrierAnnuel(int annee) {
+        this.annee = annee;
+        this.nbJours = LocalDate.of(annee, 1, 1).lengthOfYear();
+
+        //Les jours de week-end se répètent tous les 7 jours à partir du premier samedi ou dimanche de l'année
+        int premierJour = LocalDate.of(annee, 1, 1).getDayOfWeek().getValue();
+        int weekEnds = 0;
+        for (int jour = 0; jour < nbJours; jour++) {
+            int jourSemaine = (premierJour - 1 + jour) % 7 + 1;
+            if(jourSemaine >= DayOfWeek.SATURDAY.getValue()){
+                joursWeekEnd[jour >>> 6] |= 1L << jour;
+                weekEnds++;
+            }
+        }
+        this.nbJoursWeekEnd = weekEnds;
+
+        this.listeJoursFeries = Collections.unmodifiableList(Entreprise.calculJoursFeries(annee));
+        for (LocalDate jourFerie : listeJoursFeries) {
+            int jour = jourFerie.getDayOfYear() - 1;
+            joursFeries[jour >>> 6] |= 1L << jour;
+        }
+        int feriesHorsWeekEnd = 0;
+        for (int i = 0; i < joursFeries.length; i++) {
+            feriesHorsWeekEnd += Long.bitCount(joursFeries[i] & ~joursWeekEnd[i]);
+        }
+        this.nbJoursFeriesHorsWeekEnd = feriesHorsWeekEnd;
+
+        //Jours ouvrés : ni week-end ni férié, limités aux jours de l'année
+        for (int i = 0; i < joursOuvres.length; i++) {
+            int nbBits = Math.min(64, Math.max(0, nbJours - (i << 6)));
+            long masqueAnnee = nbBits == 64 ? -1L : (1L << nbBits) - 1;
+            joursOuvres[i] = ~(joursWeekEnd[i] | joursFeries[i]) & masqueAnnee;
+        }
+        this.nbJoursOuvresCumules = new short[nbJours + 1];
+        for (int jour = 0; jour < nbJours; jour++) {
+            nbJoursOuvresCumules[jour + 1] = (short) (nbJoursOuvresCumules[jour] + ((joursOuvres[jour >>> 6] >>> jour) & 1L));
+        }
+    }
+
+    /**
+     * @param annee l'année souhaitée
+     * @return le calendrier de l'année, calculé au premier appel puis lu depuis le cache
+     */
+    public static CalendrierAnnuel de(int annee) {
+        int index = annee & (TAILLE_CACHE - 1);
+        CalendrierAnnuel calendrier = CACHE.get(index);
+        if(calendrier == null || calendrier.annee != annee){
+            calendrier = new CalendrierAnnuel(annee);
+            CACHE.set(index, calendrier);
+        }
+        return calendrier;
+    }
+
+    public int getAnnee() {
+        return annee;
+    }
+
+    /**
+     * @return 365 ou 366 selon que l'année est bissextile
+     */
+    public int getNbJours() {
+        return nbJours;
+    }
+
+    /**
+     * @return le nombre de samedis et de dimanches dans l'année
+     */
+    public int getNbJoursWeekEnd() {
+        return nbJoursWeekEnd;
+    }
+
+    /**
+     * @return le nombre de jours fériés distincts ne tombant pas un samedi ou un dimanche
+     */
+    public int getNbJoursFeriesHorsWeekEnd() {
+        return nbJoursFeriesHorsWeekEnd;
+    }
+
+    /**
+     * @return le nombre de jours ouvrés de l'année, ni samedi, ni dimanche, ni férié
+     */
+    public int getNbJoursOuvres() {
+        return nbJoursOuvresCumules[nbJours];
+    }
+
+    /**
+     * @return le nombre de jours de RTT d'un employé à temps plein au forfait jours, avant prorata du temps partiel
+     */
+    public int getNbJoursRttTempsPlein() {
+        return getNbJoursOuvres() - Entreprise.NB_JOURS_MAX_FORFAIT - Entreprise.NB_CONGES_BASE;
+    }
+
+    /**
+     * @param premierJour le premier jour dans l'année, de 1 à 366, inclus
+     * @param dernierJour le dernier jour dans l'année, de 1 à 366, inclus
+     * @return le nombre de jours ouvrés de la période, 0 si le dernier jour précède le premier
+     */
+    public int getNbJoursOuvres(int premierJour, int dernierJour) {
+        if(dernierJour < premierJour){
+            return 0;
+        }
+        return nbJoursOuvresCumules[dernierJour] - nbJoursOuvresCumules[premierJour - 1];
+    }
+
+    /**
+     * Nombre de jours ouvrés entre deux dates, par une soustraction pour chaque année de la période
+     *
+     * @param debut le premier jour, inclus
+     * @param fin le dernier jour, inclus
+     * @return le nombre de jours ouvrés de la période, 0 si la fin précède le début
+     */
+    public static int nbJoursOuvres(LocalDate debut, LocalDate fin) {
+        if(fin.isBefore(debut)){
+            return 0;
+        }
+        if(debut.getYear() == fin.getYear()){
+            return de(debut.getYear()).getNbJoursOuvres(debut.getDayOfYear(), fin.getDayOfYear());
+        }
+        CalendrierAnnuel premiereAnnee = de(debut.getYear());
+        int nbJoursOuvres = premiereAnnee.getNbJoursOuvres(debut.getDayOfYear(), premiereAnnee.getNbJours());
+        for (int annee = debut.getYear() + 1; annee < fin.getYear(); annee++) {
+            nbJoursOuvres += de(annee).getNbJoursOuvres();
+        }
+        return nbJoursOuvres + de(fin.getYear()).getNbJoursOuvres(1, fin.getDayOfYear());
+    }
+
+    /**
+     * @return les jours fériés de l'année, dans l'ordre des règles d'Entreprise, non modifiable
+     */
+    public List<LocalDate> getJoursFeries() {
+        return listeJoursFeries;
+    }
+
+    /**
+     * @param jourDeLAnnee le jour dans l'année, de 1 à 366
+     * @return true si le jour est férié
+     */
+    public boolean estFerie(int jourDeLAnnee) {
+        int jour = jourDeLAnnee - 1;
+        return (joursFeries[jour >>> 6] & (1L << jour)) != 0;
+    }
+
+    /**
+     * @param jourDeLAnnee le jour dans l'année, de 1 à 366
+     * @return true si le jour n'est ni un samedi, ni un dimanche, ni férié
+     */
+    public boolean estOuvre(int jourDeLAnnee) {
+        int jour = jourDeLAnnee - 1;
+        return (joursOuvres[jour >>> 6] & (1L << jour)) != 0;
+    }
+
+    /**
+     * @param jourDeLAnnee le jour dans l'année, de 1 à 366
+     * @return true si le jour est un samedi ou un dimanche
+     */
+    public boolean estWeekEnd(int jourDeLAnnee) {
+        int jour = jourDeLAnnee - 1;
+        return (joursWeekEnd[jour >>> 6] & (1L << jour)) != 0;
+    }
+}
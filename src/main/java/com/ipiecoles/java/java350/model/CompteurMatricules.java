@@ -0,0 +1,49 @@
+package com.ipiecoles.java.java350.model;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * Compteur des numéros de matricule partagé par toutes les instances de l'application : chacune y loue des blocs
+ * de numéros qu'elle distribue ensuite seule (MatriculeAllocator).
+ */
+@Entity
+public class CompteurMatricules {
+
+    /**
+     * Identifiant de l'unique ligne du compteur
+     */
+    public static final String MATRICULES = "MATRICULES";
+
+    @Id
+    private String nom;
+
+    /**
+     * Dernier numéro loué à une instance, les numéros suivants sont libres
+     */
+    private Integer dernierNumeroLoue;
+
+    public CompteurMatricules() {
+    }
+
+    public CompteurMatricules(String nom, Integer dernierNumeroLoue) {
+        this.nom = nom;
+        this.dernierNumeroLoue = dernierNumeroLoue;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public void setNom(String nom) {
+        this.nom = nom;
+    }
+
+    public Integer getDernierNumeroLoue() {
+        return dernierNumeroLoue;
+    }
+
+    public void setDernierNumeroLoue(Integer dernierNumeroLoue) {
+        this.dernierNumeroLoue = dernierNumeroLoue;
+    }
+}
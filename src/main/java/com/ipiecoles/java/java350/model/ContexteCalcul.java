@@ -0,0 +1,71 @@
+package com.ipiecoles.java.java350.model;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Contexte d'un calcul de paie : la date de référence, lue une seule fois.
+ *
+ * Un traitement de masse résout le contexte au début puis le passe à chaque calcul : les résultats sont
+ * reproductibles et ne dépendent pas d'un éventuel passage de minuit (ou d'année) en cours de traitement.
+ */
+public final class ContexteCalcul {
+
+    private final LocalDate dateReference;
+
+    private ContexteCalcul(LocalDate dateReference) {
+        this.dateReference = Objects.requireNonNull(dateReference, "La date de référence est obligatoire");
+    }
+
+    /**
+     * @return le contexte à la date du jour de l'horloge système
+     */
+    public static ContexteCalcul aujourdhui() {
+        return new ContexteCalcul(LocalDate.now());
+    }
+
+    /**
+     * @param horloge l'horloge à lire
+     * @return le contexte à la date courante de l'horloge
+     */
+    public static ContexteCalcul de(Clock horloge) {
+        return new ContexteCalcul(LocalDate.now(horloge));
+    }
+
+    /**
+     * @param dateReference la date de référence des calculs
+     * @return le contexte à cette date
+     */
+    public static ContexteCalcul au(LocalDate dateReference) {
+        return new ContexteCalcul(dateReference);
+    }
+
+    public LocalDate getDateReference() {
+        return dateReference;
+    }
+
+    /**
+     * @return le calendrier de l'année de la date de référence
+     */
+    public CalendrierAnnuel getCalendrier() {
+        return CalendrierAnnuel.de(dateReference.getYear());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ContexteCalcul)) return false;
+        return dateReference.equals(((ContexteCalcul) o).dateReference);
+    }
+
+    @Override
+    public int hashCode() {
+        return dateReference.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ContexteCalcul{" + dateReference + "}";
+    }
+}
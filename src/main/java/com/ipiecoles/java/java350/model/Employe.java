@@ -1,24 +1,51 @@
 package com.ipiecoles.java.java350.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
-import java.time.DayOfWeek;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Version;
 import java.time.LocalDate;
 import java.util.Objects;
 
 @Entity
+@Table(indexes = @Index(name = "idx_employe_matricule", columnList = "matricule", unique = true))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 public class Employe {
 
+    private static final double SALAIRE_MAX = Entreprise.SALAIRE_MAX;
+
+    private static final double PRIME_BASE = Entreprise.primeAnnuelleBase();
+
+    private static final double PRIME_MANAGER = PRIME_BASE * Entreprise.INDICE_PRIME_MANAGER;
+
+    private static final double PRIME_ANCIENNETE = Entreprise.PRIME_ANCIENNETE;
+
+    private static final double INDICE_PRIME_BASE = Entreprise.INDICE_PRIME_BASE;
+
+    private static final int PERFORMANCE_BASE = Entreprise.PERFORMANCE_BASE;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employe_seq")
+    @SequenceGenerator(name = "employe_seq", sequenceName = "employe_seq", allocationSize = 50)
     private Long id;
 
     private String nom;
 
     private String prenom;
 
+    @NaturalId
     private String matricule;
 
     private LocalDate dateEmbauche;
@@ -29,6 +56,13 @@ public class Employe {
 
     private Double tempsPartiel = 1.0;
 
+    /**
+     * Version de l'employé, incrémentée à chaque écriture : une écriture faite à partir d'une version périmée
+     * échoue au lieu d'écraser une modification concurrente
+     */
+    @Version
+    private Long version;
+
     public Employe() {
     }
 
@@ -48,14 +82,40 @@ public class Employe {
      * @return le nombre d'années d'ancienneté de l'employé concerné
      */
     public Integer getNombreAnneeAnciennete() {
-        if(dateEmbauche != null && dateEmbauche.isBefore(LocalDate.now())){
-            return LocalDate.now().getYear() - dateEmbauche.getYear();
+        return getNombreAnneeAnciennete(ContexteCalcul.aujourdhui());
+    }
+
+    /**
+     * Calcul le nombre d'années d'ancienneté d'un employé à la date de référence du contexte
+     *
+     * @param contexte le contexte de calcul
+     * @return le nombre d'années d'ancienneté de l'employé concerné
+     */
+    public int getNombreAnneeAnciennete(ContexteCalcul contexte) {
+        return nombreAnneeAnciennete(dateEmbauche, contexte);
+    }
+
+    /**
+     * Règle de calcul de l'ancienneté, partagée par l'employé et les calculs de masse (ColonnesEmployes)
+     *
+     * @param dateEmbauche la date d'embauche, éventuellement null
+     * @param contexte le contexte de calcul
+     * @return le nombre d'années d'ancienneté à la date de référence du contexte
+     */
+    public static int nombreAnneeAnciennete(LocalDate dateEmbauche, ContexteCalcul contexte) {
+        LocalDate dateReference = contexte.getDateReference();
+        if(dateEmbauche != null && dateEmbauche.isBefore(dateReference)){
+            return dateReference.getYear() - dateEmbauche.getYear();
         }
         return 0;
     }
 
     public Integer getNbConges() {
-        return Entreprise.NB_CONGES_BASE + this.getNombreAnneeAnciennete();
+        return getNbConges(ContexteCalcul.aujourdhui());
+    }
+
+    public Integer getNbConges(ContexteCalcul contexte) {
+        return Entreprise.NB_CONGES_BASE + this.getNombreAnneeAnciennete(contexte);
     }
 
     /**
@@ -65,41 +125,21 @@ public class Employe {
      * @return Retourne le nombre de RTT selon le temps plein
      */
     public Double getNbRtt(LocalDate dateCalcul){
-        Integer anneeBissextile = dateCalcul.isLeapYear() ? 366 : 365;
-
-        //Calcul du nombre de jours dans l'année étant compris dans un week-end afin de les enlever du calcul final
-        Integer nbJrsOfWeekEnds = 104;
-        switch (LocalDate.of(dateCalcul.getYear(),1,1).getDayOfWeek()){
-            case SATURDAY:
-                if(dateCalcul.isLeapYear()) {
-                    nbJrsOfWeekEnds += 2;
-                } else {
-                    nbJrsOfWeekEnds += 1;
-                }
-                break;
-
-            case SUNDAY:
-                nbJrsOfWeekEnds += 1;
-                break;
-
-            default:
-                    break;
-        }
-
-        //Récupère tous les jours fériés hors compris dans un week-end
-        Integer nbJoursFeriesHorsWeekEnds = Entreprise.joursFeries(dateCalcul).size();
-        Integer jourSemaine;
-        for (LocalDate jourFerie : Entreprise.joursFeries(dateCalcul)){
-            jourSemaine = jourFerie.getDayOfWeek().getValue();
-            if(jourSemaine > DayOfWeek.FRIDAY.getValue() && jourSemaine <= DayOfWeek.SUNDAY.getValue() ) {
-                nbJoursFeriesHorsWeekEnds = nbJoursFeriesHorsWeekEnds - 1;
-            }
-        }
-
-        Integer nbJrsRTT = anneeBissextile - Entreprise.NB_JOURS_MAX_FORFAIT - nbJrsOfWeekEnds - Entreprise.NB_CONGES_BASE - nbJoursFeriesHorsWeekEnds;
+        //Jours ouvrés de l'année précalculés une fois par année
+        int nbJrsRTT = CalendrierAnnuel.de(dateCalcul.getYear()).getNbJoursRttTempsPlein();
         return Math.ceil(nbJrsRTT * tempsPartiel);
     }
 
+    /**
+     * Calcul le nombre de RTT de l'employé pour l'année de la date de référence du contexte
+     *
+     * @param contexte le contexte de calcul
+     * @return Retourne le nombre de RTT selon le temps plein
+     */
+    public Double getNbRtt(ContexteCalcul contexte){
+        return getNbRtt(contexte.getDateReference());
+    }
+
     /**
      * Calcul de la prime annuelle selon la règle :
      * Pour les managers : Prime annuelle de base bonnifiée par l'indice prime manager
@@ -113,25 +153,48 @@ public class Employe {
      * @return la prime annuelle de l'employé en Euros et cents
      */
     public Double getPrimeAnnuelle(){
-        //Calcule de la prime d'ancienneté
-        Double primeAnciennete = Entreprise.PRIME_ANCIENNETE * this.getNombreAnneeAnciennete();
-        Double prime;
+        return getPrimeAnnuelle(ContexteCalcul.aujourdhui());
+    }
+
+    /**
+     * Calcul de la prime annuelle, l'ancienneté étant calculée à la date de référence du contexte
+     *
+     * @param contexte le contexte de calcul
+     * @return la prime annuelle de l'employé en Euros et cents
+     */
+    public Double getPrimeAnnuelle(ContexteCalcul contexte){
+        char type = matricule == null || matricule.isEmpty() ? ' ' : matricule.charAt(0);
+        return primeAnnuelle(type, this.performance == null ? Entreprise.PERFORMANCE_BASE : this.performance,
+                this.getNombreAnneeAnciennete(contexte), this.tempsPartiel);
+    }
+
+    /**
+     * Règle de calcul de la prime annuelle, décrite sur getPrimeAnnuelle, sur des types primitifs : partagée par
+     * l'employé et les calculs de masse (MoteurPaie, MoteurProjection, StatistiquesPoste)
+     *
+     * @param type la première lettre du matricule
+     * @param performance la performance, la performance de base si elle n'est pas renseignée
+     * @param anciennete le nombre d'années d'ancienneté
+     * @param tempsPartiel le temps partiel
+     * @return la prime annuelle en Euros et cents
+     */
+    public static double primeAnnuelle(char type, int performance, int anciennete, double tempsPartiel) {
+        double prime;
         //Prime du manager (matricule commençant par M) : Prime annuelle de base multipliée par l'indice prime manager
-        //plus la prime d'anciennté.
-        if(matricule != null && matricule.startsWith("M")) {
-            prime = Entreprise.primeAnnuelleBase() * Entreprise.INDICE_PRIME_MANAGER + primeAnciennete;
+        if(type == 'M'){
+            prime = PRIME_MANAGER;
         }
-        //Pour les autres employés en performance de base, uniquement la prime annuelle plus la prime d'ancienneté.
-        else if (this.performance == null || Entreprise.PERFORMANCE_BASE.equals(this.performance)){
-            prime = Entreprise.primeAnnuelleBase() + primeAnciennete;
+        //Pour les autres employés en performance de base, uniquement la prime annuelle.
+        else if(performance == PERFORMANCE_BASE){
+            prime = PRIME_BASE;
         }
         //Pour les employés plus performance, on bonnifie la prime de base en multipliant par la performance de l'employé
         // et l'indice de prime de base.
         else {
-            prime = Entreprise.primeAnnuelleBase() * (this.performance + Entreprise.INDICE_PRIME_BASE) + primeAnciennete;
+            prime = PRIME_BASE * (performance + INDICE_PRIME_BASE);
         }
-        //Au pro rata du temps partiel.
-        return prime * this.tempsPartiel;
+        //Plus la prime d'ancienneté, au pro rata du temps partiel.
+        return (prime + PRIME_ANCIENNETE * anciennete) * tempsPartiel;
     }
 
     /**
@@ -140,21 +203,42 @@ public class Employe {
      * @param pourcentage de l'augmentation
      */
     public void augmenterSalaire(Double pourcentage) {
-        if(pourcentage == null || pourcentage < 0.0){
-            throw new IllegalArgumentException("Le pourcentage d'augmentation du salaire est null ou négatif !");
-        }
+        verifierPourcentageAugmentation(pourcentage);
 
         if(pourcentage < 50 && pourcentage > 0.0){
-            Double augmentation = pourcentage / 100;
-            this.salaire = Double.sum(this.salaire, this.salaire * augmentation);
-            if(this.getSalaire() > Entreprise.SALAIRE_MAX) {
-                this.setSalaire(Entreprise.SALAIRE_MAX);
-            }
+            this.salaire = salaireAugmente(this.salaire, pourcentage / 100);
         }
-        else if(pourcentage >= 50){
+    }
+
+    /**
+     * Règle d'augmentation de salaire d'augmenterSalaire sur des types primitifs, partagée avec les calculs de masse
+     *
+     * @param salaire le salaire actuel
+     * @param augmentation le taux d'augmentation (0.02 pour 2%)
+     * @return le salaire augmenté, plafonné au salaire maximum
+     */
+    public static double salaireAugmente(double salaire, double augmentation) {
+        double salaireAugmente = salaire + salaire * augmentation;
+        return salaireAugmente > SALAIRE_MAX ? SALAIRE_MAX : salaireAugmente;
+    }
+
+    /**
+     * Vérifie qu'un pourcentage d'augmentation de salaire est admissible : renseigné, positif et inférieur à 50%
+     *
+     * @param pourcentage de l'augmentation
+     * @throws IllegalArgumentException si le pourcentage n'est pas admissible
+     */
+    public static void verifierPourcentageAugmentation(Double pourcentage) {
+        if(pourcentage == null || pourcentage < 0.0){
+            throw new IllegalArgumentException("Le pourcentage d'augmentation du salaire est null ou négatif !");
+        }
+        if(pourcentage >= 50){
             throw new IllegalArgumentException("L'employé ne peut pas avoir un trop gros salaire !!");
         }
+    }
 
+    public Long getVersion() {
+        return version;
     }
 
     public Long getId() {
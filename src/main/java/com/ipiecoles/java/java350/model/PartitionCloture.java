@@ -0,0 +1,97 @@
+package com.ipiecoles.java.java350.model;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Version;
+
+/**
+ * Partition de la table Employe (plage d'identifiants) traitée par la clôture d'une année, et son point de
+ * reprise : le dernier identifiant dont le bilan est enregistré, mis à jour dans la même transaction que les bilans.
+ */
+@Entity
+public class PartitionCloture {
+
+    /**
+     * Année et numéro de la partition, par exemple 2019-3
+     */
+    @Id
+    private String cle;
+
+    private Integer annee;
+
+    private Integer numero;
+
+    /**
+     * Bornes de la plage d'identifiants, incluses
+     */
+    private Long idDebut;
+
+    private Long idFin;
+
+    private Long dernierIdTraite;
+
+    private Long nbBilans;
+
+    private Boolean terminee;
+
+    @Version
+    private Long version;
+
+    public PartitionCloture() {
+    }
+
+    public PartitionCloture(Integer annee, Integer numero, Long idDebut, Long idFin) {
+        this.cle = annee + "-" + numero;
+        this.annee = annee;
+        this.numero = numero;
+        this.idDebut = idDebut;
+        this.idFin = idFin;
+        this.dernierIdTraite = idDebut - 1;
+        this.nbBilans = 0L;
+        this.terminee = false;
+    }
+
+    public String getCle() {
+        return cle;
+    }
+
+    public Integer getAnnee() {
+        return annee;
+    }
+
+    public Integer getNumero() {
+        return numero;
+    }
+
+    public Long getIdDebut() {
+        return idDebut;
+    }
+
+    public Long getIdFin() {
+        return idFin;
+    }
+
+    public Long getDernierIdTraite() {
+        return dernierIdTraite;
+    }
+
+    public void setDernierIdTraite(Long dernierIdTraite) {
+        this.dernierIdTraite = dernierIdTraite;
+    }
+
+    public Long getNbBilans() {
+        return nbBilans;
+    }
+
+    public void setNbBilans(Long nbBilans) {
+        this.nbBilans = nbBilans;
+    }
+
+    public Boolean getTerminee() {
+        return terminee;
+    }
+
+    public void setTerminee(Boolean terminee) {
+        this.terminee = terminee;
+    }
+}
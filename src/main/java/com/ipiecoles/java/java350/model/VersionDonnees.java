@@ -0,0 +1,46 @@
+package com.ipiecoles.java.java350.model;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * Version des données partagée par toutes les instances de l'application, augmentée à chaque écriture validée
+ * (VersionDonneesService) : sa lecture ne coûte que celle d'une ligne.
+ */
+@Entity
+public class VersionDonnees {
+
+    /**
+     * Identifiant de la version des données des employés
+     */
+    public static final String EMPLOYES = "EMPLOYES";
+
+    @Id
+    private String nom;
+
+    private Long version;
+
+    public VersionDonnees() {
+    }
+
+    public VersionDonnees(String nom, Long version) {
+        this.nom = nom;
+        this.version = version;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public void setNom(String nom) {
+        this.nom = nom;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,31 @@
+package com.ipiecoles.java.java350.repository;
+
+import com.ipiecoles.java.java350.model.AgregatPerformance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.List;
+
+@Repository
+public interface AgregatPerformanceRepository extends JpaRepository<AgregatPerformance, String> {
+
+    @Modifying
+    @Query("update AgregatPerformance a set a.sommePerformance = a.sommePerformance + ?2, a.nbEmployes = a.nbEmployes + ?3 where a.typeEmploye = ?1")
+    int incrementer(String typeEmploye, Long deltaSommePerformance, Long deltaNbEmployes);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from AgregatPerformance a")
+    List<AgregatPerformance> findAllPourMiseAJour();
+
+    /**
+     * Recalcule les agrégats à partir de la table Employe
+     *
+     * @return pour chaque type d'employé : le type, la somme et le nombre des performances renseignées
+     */
+    @Query("select substring(e.matricule, 1, 1), sum(e.performance), count(e.performance) from Employe e where e.matricule is not null group by substring(e.matricule, 1, 1)")
+    List<Object[]> calculerAgregatsDepuisEmployes();
+}
@@ -0,0 +1,15 @@
+package com.ipiecoles.java.java350.repository;
+
+import com.ipiecoles.java.java350.model.BilanPaie;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BilanPaieRepository extends JpaRepository<BilanPaie, Long> {
+
+    long countByAnnee(Integer annee);
+
+    List<BilanPaie> findByAnneeOrderByEmployeIdAsc(Integer annee);
+}
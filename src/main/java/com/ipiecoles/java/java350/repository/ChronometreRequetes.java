@@ -0,0 +1,41 @@
+package com.ipiecoles.java.java350.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chronométrage de chaque appel à EmployeRepository, dans la métrique java350.repository.requetes avec pour
+ * étiquettes la méthode appelée et l'exception levée (none sinon). Pour les méthodes qui renvoient un flux,
+ * seule l'ouverture du flux est chronométrée.
+ */
+@Aspect
+@Component
+public class ChronometreRequetes {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Around("execution(* com.ipiecoles.java.java350.repository.EmployeRepository+.*(..))")
+    public Object chronometrer(ProceedingJoinPoint appel) throws Throwable {
+        Timer.Sample debut = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return appel.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            debut.stop(Timer.builder("java350.repository.requetes")
+                    .description("Temps des requêtes sur les employés")
+                    .tag("repository", "EmployeRepository")
+                    .tag("methode", appel.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
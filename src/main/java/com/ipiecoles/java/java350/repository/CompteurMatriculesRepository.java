@@ -0,0 +1,133 @@
+package com.ipiecoles.java.java350.repository;
+
+import com.ipiecoles.java.java350.model.CompteurMatricules;
+import com.ipiecoles.java.java350.model.Entreprise;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Accès au compteur des matricules (CompteurMatricules) par son propre pool de connexions, distinct de celui de JPA.
+ *
+ * Une embauche loue un bloc de numéros alors que sa transaction détient déjà une connexion du pool principal : si la
+ * location en demandait une seconde au même pool, des embauches concurrentes aussi nombreuses que ses connexions
+ * l'épuiseraient en attendant la location, qui ne pourrait plus obtenir de connexion. Le compteur est donc lu et
+ * modifié par JDBC sur quelques connexions réservées (java350.matricules.taille-pool), dans des transactions
+ * indépendantes de celle de l'appelant : une embauche annulée ne rend pas un bloc déjà distribué.
+ *
+ * La table est créée avec le schéma de JPA : ce pool n'est ouvert qu'après l'EntityManagerFactory.
+ */
+@Repository
+@DependsOn("entityManagerFactory")
+public class CompteurMatriculesRepository {
+
+    private final HikariDataSource dataSource;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    public CompteurMatriculesRepository(DataSourceProperties proprietes,
+                                        @Value("${java350.matricules.taille-pool:2}") int taillePool) {
+        dataSource = proprietes.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("compteur-matricules");
+        dataSource.setMaximumPoolSize(taillePool);
+        dataSource.setMinimumIdle(1);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    /**
+     * Lit le compteur verrouillé (SELECT ... FOR UPDATE), le crée au dernier matricule présent en BDD s'il n'existe
+     * pas encore, applique la modification puis enregistre la nouvelle valeur, dans une seule transaction
+     *
+     * @param modification la modification du compteur, qui peut interroger dernierMatriculeEnBase
+     * @return le résultat de la modification
+     */
+    public <T> T modifier(Function<CompteurMatricules, T> modification) {
+        try {
+            return transactionTemplate.execute(status -> modifierVerrouille(modification));
+        } catch (DataIntegrityViolationException e) {
+            //Compteur créé au même moment par une autre instance : il existe désormais
+            logger.debug("Compteur des matricules créé par une autre instance : {}", e.getMessage());
+            return transactionTemplate.execute(status -> modifierVerrouille(modification));
+        }
+    }
+
+    private <T> T modifierVerrouille(Function<CompteurMatricules, T> modification) {
+        List<Integer> valeurs = jdbcTemplate.queryForList(
+                "select dernier_numero_loue from compteur_matricules where nom = ? for update", Integer.class, CompteurMatricules.MATRICULES);
+        CompteurMatricules compteur;
+        if(valeurs.isEmpty()){
+            compteur = new CompteurMatricules(CompteurMatricules.MATRICULES, dernierMatriculeEnBase());
+            jdbcTemplate.update("insert into compteur_matricules (nom, dernier_numero_loue) values (?, ?)",
+                    compteur.getNom(), compteur.getDernierNumeroLoue());
+        }
+        else {
+            compteur = new CompteurMatricules(CompteurMatricules.MATRICULES, valeurs.get(0));
+        }
+        Integer valeurLue = compteur.getDernierNumeroLoue();
+        T resultat = modification.apply(compteur);
+        if(!Objects.equals(valeurLue, compteur.getDernierNumeroLoue())){
+            jdbcTemplate.update("update compteur_matricules set dernier_numero_loue = ? where nom = ?",
+                    compteur.getDernierNumeroLoue(), compteur.getNom());
+        }
+        return resultat;
+    }
+
+    /**
+     * Ramène le compteur de la fin d'un bloc loué à son dernier numéro distribué, seulement si aucun bloc n'a été
+     * loué depuis
+     *
+     * @return 1 si le compteur a été ramené, 0 sinon
+     */
+    public int restituer(int finBloc, int dernierNumeroDistribue) {
+        return jdbcTemplate.update("update compteur_matricules set dernier_numero_loue = ? where nom = ? and dernier_numero_loue = ?",
+                dernierNumeroDistribue, CompteurMatricules.MATRICULES, finBloc);
+    }
+
+    /**
+     * @return la valeur du compteur, null s'il n'a pas encore été créé
+     */
+    public Integer lire() {
+        List<Integer> valeurs = jdbcTemplate.queryForList(
+                "select dernier_numero_loue from compteur_matricules where nom = ?", Integer.class, CompteurMatricules.MATRICULES);
+        return valeurs.isEmpty() ? null : valeurs.get(0);
+    }
+
+    /**
+     * Même requête qu'EmployeRepository.findLastMatricule, sur le pool du compteur
+     *
+     * @return le numéro du dernier matricule présent en BDD, celui d'Entreprise.MATRICULE_INITIAL s'il n'y a aucun employé
+     */
+    public int dernierMatriculeEnBase() {
+        String lastMatricule = jdbcTemplate.queryForObject("select max(substring(matricule, 2)) from employe", String.class);
+        if(lastMatricule == null){
+            lastMatricule = Entreprise.MATRICULE_INITIAL;
+            logger.warn("Aucun employé présent en BDD. Nous mettons le premier matricule par défaut ({})", Entreprise.MATRICULE_INITIAL);
+        }
+        return Integer.parseInt(lastMatricule);
+    }
+
+    @PreDestroy
+    public void fermer() {
+        dataSource.close();
+    }
+}
@@ -0,0 +1,81 @@
+package com.ipiecoles.java.java350.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+/**
+ * Base replica en lecture, activée par la propriété java350.replica.url. La base primaire reste configurée par
+ * spring.datasource.*, la source de données utilisée par JPA aiguille alors chaque transaction entre les deux
+ * (RoutageLectureEcriture). Sans replica, la source de données configurée par Spring Boot est utilisée telle quelle.
+ */
+@Configuration
+@ConditionalOnProperty("java350.replica.url")
+public class ConfigurationReplica {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimaire(DataSourceProperties proprietes) {
+        HikariDataSource primaire = proprietes.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primaire.setPoolName("primaire");
+        return primaire;
+    }
+
+    @Bean
+    public HikariDataSource dataSourceReplica(@Value("${java350.replica.url}") String url,
+                                              @Value("${java350.replica.username:}") String username,
+                                              @Value("${java350.replica.password:}") String password,
+                                              @Value("${java350.replica.taille-pool:10}") int taillePool) {
+        HikariDataSource replica = DataSourceBuilder.create().type(HikariDataSource.class).url(url).username(username).password(password).build();
+        replica.setPoolName("replica");
+        replica.setMaximumPoolSize(taillePool);
+        return replica;
+    }
+
+    @Bean
+    public RoutageLectureEcriture routageLectureEcriture(@Qualifier("dataSourcePrimaire") DataSource primaire,
+                                                         @Qualifier("dataSourceReplica") DataSource replica,
+                                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RoutageLectureEcriture(primaire, replica, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    /**
+     * Source de données de JPA : la connexion n'est obtenue qu'à la première requête, la transaction est alors
+     * déjà marquée en lecture seule ou non. L'aiguillage n'est résolu qu'à cette première connexion et les
+     * propriétés par défaut des connexions sont fixées : sa création n'ouvre aucune connexion, l'initialisation
+     * des sources de données par Spring Boot, qui réclame celle-ci, ne boucle donc pas sur les pools.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Lazy @Qualifier("routageLectureEcriture") DataSource routage) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(routage);
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return dataSource;
+    }
+
+    @Bean
+    public SurveillanceReplica surveillanceReplica(@Qualifier("dataSourcePrimaire") DataSource primaire,
+                                                   @Qualifier("dataSourceReplica") DataSource replica,
+                                                   RoutageLectureEcriture routage,
+                                                   @Value("${java350.replica.retard-max:5000}") long retardMax,
+                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        return new SurveillanceReplica(primaire, replica, routage, retardMax, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+}
@@ -0,0 +1,64 @@
+package com.ipiecoles.java.java350.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Projection des colonnes d'un employé lues par la revue des performances : sa performance, sa version pour
+ * détecter une modification concurrente, et les colonnes de sa contribution aux statistiques de son poste.
+ * Construite par la requête (select new), sans entité ni proxy.
+ */
+public class EmployePerformance {
+
+    private final Long id;
+
+    private final String matricule;
+
+    private final Integer performance;
+
+    private final Long version;
+
+    private final Double salaire;
+
+    private final Double tempsPartiel;
+
+    private final LocalDate dateEmbauche;
+
+    public EmployePerformance(Long id, String matricule, Integer performance, Long version, Double salaire,
+                              Double tempsPartiel, LocalDate dateEmbauche) {
+        this.id = id;
+        this.matricule = matricule;
+        this.performance = performance;
+        this.version = version;
+        this.salaire = salaire;
+        this.tempsPartiel = tempsPartiel;
+        this.dateEmbauche = dateEmbauche;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getMatricule() {
+        return matricule;
+    }
+
+    public Integer getPerformance() {
+        return performance;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Double getSalaire() {
+        return salaire;
+    }
+
+    public Double getTempsPartiel() {
+        return tempsPartiel;
+    }
+
+    public LocalDate getDateEmbauche() {
+        return dateEmbauche;
+    }
+}
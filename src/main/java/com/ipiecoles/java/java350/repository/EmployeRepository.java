@@ -1,18 +1,92 @@
 package com.ipiecoles.java.java350.repository;
 
 import com.ipiecoles.java.java350.model.Employe;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
-public interface EmployeRepository extends JpaRepository<Employe, Long> {
+public interface EmployeRepository extends JpaRepository<Employe, Long>, EmployeRepositoryCustom {
     @Query("select max(substring(matricule,2)) from Employe")
     String findLastMatricule();
 
-    Employe findByMatricule(String matricule);
+    @Query("select min(e.id) from Employe e")
+    Long findMinId();
+
+    @Query("select max(e.id) from Employe e")
+    Long findMaxId();
+
+    /**
+     * Lecture par lots d'une plage d'identifiants, à partir du dernier identifiant déjà lu. Le cache de second niveau
+     * est ignoré : un parcours de tout l'effectif n'en chasse pas les employés consultés.
+     *
+     * @param id le dernier identifiant déjà lu, exclu
+     * @param idFin la fin de la plage, incluse
+     * @param pageable la taille du lot, toujours demandée à la page 0
+     * @return les employés suivants, par identifiant croissant
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_MODE, value = "IGNORE"))
+    List<Employe> findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(Long id, Long idFin, Pageable pageable);
+
+    /**
+     * @param matricules les matricules recherchés
+     * @return ceux des matricules qui sont déjà attribués, sans charger les employés
+     */
+    @Query("select e.matricule from Employe e where e.matricule in ?1")
+    List<String> findMatriculesExistants(Collection<String> matricules);
+
+    /**
+     * @param matricules les matricules recherchés
+     * @return les colonnes des employés trouvés utiles à la revue des performances, sans charger les employés
+     */
+    @Query("select new com.ipiecoles.java.java350.repository.EmployePerformance(e.id, e.matricule, e.performance, e.version, "
+            + "e.salaire, e.tempsPartiel, e.dateEmbauche) from Employe e where e.matricule in ?1")
+    List<EmployePerformance> findPerformancesByMatriculeIn(Collection<String> matricules);
+
+    @Query("select e.matricule from Employe e")
+    List<String> findAllMatricules();
+
+    /**
+     * Parcours des colonnes de tous les employés, par identifiant croissant, sans charger les employés : ni contexte
+     * de persistance ni cache de second niveau. Le flux doit être consommé dans une transaction puis fermé.
+     *
+     * @return le flux des colonnes des employés
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.FETCH_SIZE, value = "1000"))
+    Stream<EmployeResume> findAllByOrderByIdAsc();
+
+    /**
+     * Pagination par clé : parcours de l'index sur le matricule à partir du dernier matricule déjà lu, sans OFFSET,
+     * le coût d'une page ne dépend donc pas de sa position.
+     *
+     * @param matricule le dernier matricule de la page précédente ("" pour la première page)
+     * @param pageable la taille de la page, toujours demandée à la page 0
+     * @return les employés de matricule strictement supérieur, par matricule croissant
+     */
+    List<EmployeResume> findByMatriculeGreaterThanOrderByMatriculeAsc(String matricule, Pageable pageable);
+
+    /**
+     * Moyenne des performances des employés d'un même type, le préfixe est testé par un LIKE 'X%'
+     * afin que la recherche passe par l'index unique sur le matricule.
+     *
+     * @param premiereLettreMatricule le type d'employé (T, M ou C)
+     * @return la performance moyenne, null si aucun employé ou si le type est null
+     */
+    default Double avgPerformanceWhereMatriculeStartsWith(String premiereLettreMatricule) {
+        if(premiereLettreMatricule == null){
+            return null;
+        }
+        return avgPerformanceWhereMatriculeLike(premiereLettreMatricule + "%");
+    }
 
-    @Query("select avg(performance) from Employe where SUBSTRING(matricule,0,1) = ?1 ")
-    Double avgPerformanceWhereMatriculeStartsWith(String premiereLettreMatricule);
+    @Query("select avg(performance) from Employe where matricule like ?1")
+    Double avgPerformanceWhereMatriculeLike(String motifMatricule);
 
 }
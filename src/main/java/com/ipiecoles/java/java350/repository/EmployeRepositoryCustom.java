@@ -0,0 +1,83 @@
+package com.ipiecoles.java.java350.repository;
+
+import com.ipiecoles.java.java350.model.ContexteCalcul;
+import com.ipiecoles.java.java350.model.Employe;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Opérations d'EmployeRepository qui ne peuvent pas s'exprimer par une simple requête
+ */
+public interface EmployeRepositoryCustom {
+
+    /**
+     * Recherche par matricule, identifiant naturel de l'employé : la correspondance matricule / identifiant et
+     * l'employé sont lus dans le cache de second niveau quand ils y sont, sans requête. Hors transaction, la lecture
+     * se fait sur la base primaire. Dans une transaction en lecture seule, qui peut lire sur la replica, l'employé
+     * lu n'est pas placé dans le cache.
+     *
+     * @param matricule le matricule recherché
+     * @return l'employé, null s'il n'existe pas ou si le matricule est null
+     */
+    Employe findByMatricule(String matricule);
+
+    /**
+     * Insère les employés par lots JDBC, en vidant le contexte de persistance après chaque lot
+     * afin que la mémoire consommée ne dépende pas du nombre d'employés insérés. Le cache de second niveau est ignoré
+     * jusqu'à la fin de la transaction : un import massif n'en chasse pas les employés consultés.
+     *
+     * @param employes les nouveaux employés
+     * @return les employés insérés, détachés du contexte de persistance
+     */
+    List<Employe> insererParLots(List<Employe> employes);
+
+    /**
+     * Applique une augmentation de salaire à une population d'employés par une seule requête UPDATE, sans charger
+     * les employés : nouveau salaire = salaire + salaire * augmentation, plafonné à Entreprise.SALAIRE_MAX,
+     * comme Employe.augmenterSalaire. Les employés sans salaire ne sont pas modifiés.
+     * Le contexte de persistance est synchronisé avant la requête puis vidé.
+     *
+     * @param filtre la population concernée
+     * @param augmentation le taux d'augmentation (0.02 pour 2%), strictement positif
+     * @param contexte le contexte de calcul de l'ancienneté
+     * @return le nombre d'employés augmentés
+     */
+    int augmenterSalaires(FiltreEmployes filtre, double augmentation, ContexteCalcul contexte);
+
+    /**
+     * Hausse des salaires que produirait augmenterSalaires avec les mêmes paramètres, sur les mêmes employés et avec
+     * le même plafond, calculée par une seule requête d'agrégat. Appelée dans la transaction de l'augmentation,
+     * juste avant elle.
+     *
+     * @param filtre la population concernée
+     * @param augmentation le taux d'augmentation (0.02 pour 2%), strictement positif
+     * @param contexte le contexte de calcul de l'ancienneté
+     * @return pour chaque type d'employé (T, M ou C) concerné, la hausse de la somme des salaires
+     */
+    Map<String, Double> hausseSalairesParType(FiltreEmployes filtre, double augmentation, ContexteCalcul contexte);
+
+    /**
+     * Enregistre de nouvelles performances par un lot JDBC, sans charger les employés : chaque ligne n'est modifiée
+     * que si sa version est encore celle qui a été lue, puis change de version. Les employés modifiés sont retirés
+     * du cache de second niveau, de nouveau à la fin de la transaction, comme après une requête de masse.
+     *
+     * @param employes les employés lus par findPerformancesByMatriculeIn
+     * @param performances la nouvelle performance de chaque employé, dans le même ordre
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException si l'un des employés a été modifié
+     * ou supprimé depuis sa lecture
+     */
+    void modifierPerformances(List<EmployePerformance> employes, Integer[] performances);
+
+    /**
+     * Parcours en lecture seule de tous les employés, par ordre d'identifiant, avec un curseur en avant seulement.
+     * Chaque employé est détaché du contexte de persistance dès qu'il est lu : la mémoire consommée ne dépend pas
+     * du nombre d'employés. Le flux doit être consommé dans une transaction puis fermé. Avec MySQL, la taille de fetch
+     * n'est respectée qu'avec useCursorFetch=true dans l'URL (voir application.properties).
+     *
+     * @param tailleFetch le nombre de lignes ramenées par aller-retour JDBC
+     * @return le flux des employés, détachés
+     */
+    Stream<Employe> streamerTous(int tailleFetch);
+}
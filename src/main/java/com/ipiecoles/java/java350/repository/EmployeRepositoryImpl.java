@@ -0,0 +1,231 @@
+package com.ipiecoles.java.java350.repository;
+
+import com.ipiecoles.java.java350.model.ContexteCalcul;
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.Entreprise;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class EmployeRepositoryImpl implements EmployeRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int tailleLot;
+
+    @Override
+    @Transactional
+    public Employe findByMatricule(String matricule) {
+        if(matricule == null){
+            return null;
+        }
+        Session session = entityManager.unwrap(Session.class);
+        if(!TransactionSynchronizationManager.isCurrentTransactionReadOnly()){
+            return session.bySimpleNaturalId(Employe.class).load(matricule);
+        }
+        //Transaction en lecture seule, donc peut-être sur la replica (RoutageLectureEcriture) : l'employé lu peut être
+        //en retard sur la primaire, il n'est pas placé dans le cache
+        CacheMode cacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.GET);
+        try {
+            return session.bySimpleNaturalId(Employe.class).load(matricule);
+        } finally {
+            session.setCacheMode(cacheMode);
+        }
+    }
+
+    @Override
+    @Transactional
+    public List<Employe> insererParLots(List<Employe> employes) {
+        //Les employés insérés ne sont pas placés dans le cache de second niveau. Le mode de la session est rétabli
+        //pour la suite de la transaction, puis ignoré de nouveau à sa fin : Hibernate ne met en cache les insertions
+        //qu'à ce moment, et une entrée vide empêcherait la mise en cache de l'employé à sa prochaine lecture
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode cacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.IGNORE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void beforeCompletion() {
+                session.setCacheMode(CacheMode.IGNORE);
+            }
+        });
+        try {
+            for (int i = 0; i < employes.size(); i++) {
+                entityManager.persist(employes.get(i));
+                if((i + 1) % tailleLot == 0){
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+        } finally {
+            session.setCacheMode(cacheMode);
+        }
+        return employes;
+    }
+
+    @Override
+    @Transactional
+    public int augmenterSalaires(FiltreEmployes filtre, double augmentation, ContexteCalcul contexte) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Employe> update = cb.createCriteriaUpdate(Employe.class);
+        Root<Employe> employe = update.from(Employe.class);
+
+        Path<Double> salaire = employe.get("salaire");
+        update.set(salaire, salaireAugmente(cb, salaire, augmentation));
+        //Les employés modifiés changent de version, comme pour une mise à jour par entité
+        Path<Long> version = employe.get("version");
+        update.set(version, cb.sum(cb.coalesce(version, 0L), 1L));
+        update.where(criteres(cb, employe, filtre, contexte));
+
+        entityManager.flush();
+        int nbEmployes = entityManager.createQuery(update).executeUpdate();
+        entityManager.clear();
+        return nbEmployes;
+    }
+
+    @Override
+    @Transactional
+    public Map<String, Double> hausseSalairesParType(FiltreEmployes filtre, double augmentation, ContexteCalcul contexte) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Employe> employe = query.from(Employe.class);
+
+        Path<Double> salaire = employe.get("salaire");
+        Expression<String> type = cb.substring(employe.get("matricule"), 1, 1);
+        query.multiselect(type, cb.sum(cb.diff(salaireAugmente(cb, salaire, augmentation), salaire)))
+                .where(criteres(cb, employe, filtre, contexte))
+                .groupBy(type);
+
+        entityManager.flush();
+        Map<String, Double> hausses = new HashMap<>();
+        for (Object[] ligne : entityManager.createQuery(query).getResultList()) {
+            hausses.put((String) ligne[0], ligne[1] == null ? 0d : ((Number) ligne[1]).doubleValue());
+        }
+        return hausses;
+    }
+
+    /**
+     * Salaire augmenté, plafonné à Entreprise.SALAIRE_MAX
+     */
+    private static Expression<Double> salaireAugmente(CriteriaBuilder cb, Path<Double> salaire, double augmentation) {
+        Expression<Double> salaireAugmente = cb.sum(salaire, cb.prod(salaire, augmentation));
+        return cb.<Double>selectCase()
+                .when(cb.gt(salaireAugmente, Entreprise.SALAIRE_MAX), Entreprise.SALAIRE_MAX)
+                .otherwise(salaireAugmente);
+    }
+
+    /**
+     * Employés concernés par une augmentation de masse : ceux du filtre qui ont un salaire
+     */
+    private static Predicate[] criteres(CriteriaBuilder cb, Root<Employe> employe, FiltreEmployes filtre, ContexteCalcul contexte) {
+        List<Predicate> criteres = new ArrayList<>();
+        criteres.add(cb.isNotNull(employe.get("salaire")));
+        if(filtre.getTypeEmploye() != null){
+            criteres.add(cb.like(employe.get("matricule"), filtre.getTypeEmploye() + "%"));
+        }
+        Path<Integer> performance = employe.get("performance");
+        if(filtre.getPerformanceMin() != null){
+            criteres.add(cb.greaterThanOrEqualTo(performance, filtre.getPerformanceMin()));
+        }
+        if(filtre.getPerformanceMax() != null){
+            criteres.add(cb.lessThanOrEqualTo(performance, filtre.getPerformanceMax()));
+        }
+        //Ancienneté = année de référence - année d'embauche si l'embauche précède la date de référence, 0 sinon :
+        //les bornes s'expriment en dates d'embauche pour que la requête puisse utiliser un index
+        Path<LocalDate> dateEmbauche = employe.get("dateEmbauche");
+        int anneeReference = contexte.getDateReference().getYear();
+        if(filtre.getAncienneteMin() != null && filtre.getAncienneteMin() > 0){
+            criteres.add(cb.lessThan(dateEmbauche, LocalDate.of(anneeReference - filtre.getAncienneteMin() + 1, 1, 1)));
+        }
+        if(filtre.getAncienneteMax() != null && filtre.getAncienneteMax() < 0){
+            criteres.add(cb.disjunction());
+        }
+        else if(filtre.getAncienneteMax() != null){
+            criteres.add(cb.or(cb.isNull(dateEmbauche),
+                    cb.greaterThanOrEqualTo(dateEmbauche, LocalDate.of(anneeReference - filtre.getAncienneteMax(), 1, 1))));
+        }
+        return criteres.toArray(new Predicate[0]);
+    }
+
+    @Override
+    @Transactional
+    public void modifierPerformances(List<EmployePerformance> employes, Integer[] performances) {
+        if(employes.isEmpty()){
+            return;
+        }
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        employes.forEach(employe -> cache.evict(Employe.class, employe.getId()));
+        //Une lecture commencée avant la validation peut remettre en cache l'ancienne ligne : nouvelle éviction à la fin
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                employes.forEach(employe -> cache.evict(Employe.class, employe.getId()));
+            }
+        });
+
+        entityManager.flush();
+        int[] nbLignes = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement update = connection.prepareStatement(
+                    "update employe set performance = ?, version = coalesce(version, 0) + 1 where id = ? and coalesce(version, 0) = ?")) {
+                for (int i = 0; i < employes.size(); i++) {
+                    EmployePerformance employe = employes.get(i);
+                    if(performances[i] == null){
+                        update.setNull(1, Types.INTEGER);
+                    }
+                    else {
+                        update.setInt(1, performances[i]);
+                    }
+                    update.setLong(2, employe.getId());
+                    update.setLong(3, employe.getVersion() == null ? 0L : employe.getVersion());
+                    update.addBatch();
+                }
+                return update.executeBatch();
+            }
+        });
+        for (int i = 0; i < nbLignes.length; i++) {
+            //Statement.SUCCESS_NO_INFO (-2) : le pilote ne donne pas le nombre de lignes, la ligne est réputée modifiée
+            if(nbLignes[i] == 0){
+                throw new ObjectOptimisticLockingFailureException(Employe.class, employes.get(i).getId());
+            }
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Stream<Employe> streamerTous(int tailleFetch) {
+        Stream<Employe> employes = entityManager.unwrap(Session.class)
+                .createQuery("select e from Employe e order by e.id", Employe.class)
+                .setFetchSize(tailleFetch)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .stream();
+        return employes.peek(entityManager::detach);
+    }
+}
@@ -0,0 +1,26 @@
+package com.ipiecoles.java.java350.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Projection des colonnes d'un employé, pour les listes : les employés ne sont ni chargés dans le contexte de
+ * persistance ni soumis aux calculs (congés, RTT, prime) de l'entité
+ */
+public interface EmployeResume {
+
+    Long getId();
+
+    String getMatricule();
+
+    String getNom();
+
+    String getPrenom();
+
+    LocalDate getDateEmbauche();
+
+    Double getSalaire();
+
+    Integer getPerformance();
+
+    Double getTempsPartiel();
+}
@@ -0,0 +1,74 @@
+package com.ipiecoles.java.java350.repository;
+
+/**
+ * Sélection d'une population d'employés pour les traitements ensemblistes. Les critères non renseignés
+ * ne filtrent pas, les bornes sont incluses.
+ */
+public class FiltreEmployes {
+
+    private String typeEmploye;
+
+    private Integer performanceMin;
+
+    private Integer performanceMax;
+
+    private Integer ancienneteMin;
+
+    private Integer ancienneteMax;
+
+    /**
+     * @return un filtre sélectionnant tous les employés
+     */
+    public static FiltreEmployes tous() {
+        return new FiltreEmployes();
+    }
+
+    /**
+     * @param typeEmploye le type d'employé, première lettre du matricule (T, M ou C)
+     */
+    public FiltreEmployes typeEmploye(String typeEmploye) {
+        this.typeEmploye = typeEmploye;
+        return this;
+    }
+
+    public FiltreEmployes performanceEntre(Integer performanceMin, Integer performanceMax) {
+        this.performanceMin = performanceMin;
+        this.performanceMax = performanceMax;
+        return this;
+    }
+
+    /**
+     * Nombre d'années d'ancienneté, au sens d'Employe.getNombreAnneeAnciennete
+     */
+    public FiltreEmployes ancienneteEntre(Integer ancienneteMin, Integer ancienneteMax) {
+        this.ancienneteMin = ancienneteMin;
+        this.ancienneteMax = ancienneteMax;
+        return this;
+    }
+
+    public String getTypeEmploye() {
+        return typeEmploye;
+    }
+
+    public Integer getPerformanceMin() {
+        return performanceMin;
+    }
+
+    public Integer getPerformanceMax() {
+        return performanceMax;
+    }
+
+    public Integer getAncienneteMin() {
+        return ancienneteMin;
+    }
+
+    public Integer getAncienneteMax() {
+        return ancienneteMax;
+    }
+
+    @Override
+    public String toString() {
+        return "FiltreEmployes{typeEmploye=" + typeEmploye + ", performance=[" + performanceMin + ", " + performanceMax
+                + "], anciennete=[" + ancienneteMin + ", " + ancienneteMax + "]}";
+    }
+}
@@ -0,0 +1,13 @@
+package com.ipiecoles.java.java350.repository;
+
+import com.ipiecoles.java.java350.model.PartitionCloture;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PartitionClotureRepository extends JpaRepository<PartitionCloture, String> {
+
+    List<PartitionCloture> findByAnneeOrderByNumeroAsc(Integer annee);
+}
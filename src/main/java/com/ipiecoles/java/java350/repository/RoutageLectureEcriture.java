@@ -0,0 +1,106 @@
+package com.ipiecoles.java.java350.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aiguillage des connexions entre la base primaire et la base replica : les transactions en lecture seule
+ * (@Transactional(readOnly = true), TransactionTemplate en lecture seule) lisent sur la replica, tout le reste
+ * (écritures, lectures hors transaction ou dans une transaction en écriture) passe par la primaire. Les méthodes
+ * de lecture héritées de JpaRepository (findById, findAll, count...) ouvrent une transaction en lecture seule :
+ * appelées hors transaction, elles lisent aussi sur la replica.
+ *
+ * La connexion n'est demandée qu'à la première requête de la transaction, une fois son caractère lecture seule
+ * connu : cette source doit être enveloppée d'un LazyConnectionDataSourceProxy (ConfigurationReplica).
+ *
+ * La replica n'est utilisée que lorsque SurveillanceReplica l'a déclarée disponible (retard de réplication
+ * tolérable). Si elle refuse une connexion, la transaction se replie sur la primaire et la replica reste écartée
+ * jusqu'à la vérification suivante.
+ */
+public class RoutageLectureEcriture extends AbstractRoutingDataSource {
+
+    enum Cible {
+        PRIMAIRE, REPLICA
+    }
+
+    private final DataSource primaire;
+
+    private final DataSource replica;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Écartée tant que son retard n'a pas été mesuré
+     */
+    private volatile boolean replicaDisponible = false;
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    public RoutageLectureEcriture(DataSource primaire, DataSource replica, MeterRegistry meterRegistry) {
+        this.primaire = primaire;
+        this.replica = replica;
+        this.meterRegistry = meterRegistry;
+        Map<Object, Object> cibles = new HashMap<>();
+        cibles.put(Cible.PRIMAIRE, primaire);
+        cibles.put(Cible.REPLICA, replica);
+        setTargetDataSources(cibles);
+        setDefaultTargetDataSource(primaire);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return replicaDisponible && TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Cible.REPLICA : Cible.PRIMAIRE;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connexion(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connexion(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection connexion(Ouverture ouverture) throws SQLException {
+        if(determineTargetDataSource() == replica){
+            try {
+                Connection connexion = ouverture.ouvrir(replica);
+                compter(Cible.REPLICA);
+                return connexion;
+            } catch (SQLException e) {
+                replicaDisponible = false;
+                logger.warn("Connexion à la base replica impossible, repli sur la base primaire", e);
+            }
+        }
+        Connection connexion = ouverture.ouvrir(primaire);
+        compter(Cible.PRIMAIRE);
+        return connexion;
+    }
+
+    private void compter(Cible cible) {
+        meterRegistry.counter("java350.datasource.connexions", "cible", cible.name().toLowerCase()).increment();
+    }
+
+    public boolean isReplicaDisponible() {
+        return replicaDisponible;
+    }
+
+    public void setReplicaDisponible(boolean replicaDisponible) {
+        this.replicaDisponible = replicaDisponible;
+    }
+
+    @FunctionalInterface
+    private interface Ouverture {
+        Connection ouvrir(DataSource dataSource) throws SQLException;
+    }
+}
@@ -0,0 +1,94 @@
+package com.ipiecoles.java.java350.repository;
+
+import com.ipiecoles.java.java350.model.BattementReplication;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Mesure périodique du retard de réplication : l'horodatage du battement lu sur la replica est comparé à l'heure
+ * courante, puis un nouveau battement est écrit sur la primaire. Le retard mesuré inclut donc l'intervalle entre
+ * deux vérifications, le retard toléré doit le dépasser.
+ *
+ * La replica est écartée de l'aiguillage (RoutageLectureEcriture) si son retard dépasse le retard toléré, si elle
+ * ne répond pas ou si elle n'a encore reçu aucun battement ; elle est réintégrée dès qu'une vérification la
+ * trouve à jour.
+ */
+public class SurveillanceReplica {
+
+    private final JdbcTemplate primaire;
+
+    private final JdbcTemplate replica;
+
+    private final RoutageLectureEcriture routage;
+
+    private final long retardMax;
+
+    /**
+     * Dernier retard mesuré en millisecondes, -1 si la replica n'a pas pu être lue
+     */
+    private volatile long retard = -1;
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /**
+     * @param retardMax le retard de réplication toléré, en millisecondes
+     */
+    public SurveillanceReplica(DataSource primaire, DataSource replica, RoutageLectureEcriture routage, long retardMax, MeterRegistry meterRegistry) {
+        this.primaire = new JdbcTemplate(primaire);
+        this.replica = new JdbcTemplate(replica);
+        this.routage = routage;
+        this.retardMax = retardMax;
+        Gauge.builder("java350.replica.retard", this, SurveillanceReplica::getRetard)
+                .description("Retard de réplication mesuré en millisecondes, -1 si la replica ne répond pas")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return true si la replica est utilisée pour les lectures à l'issue de la vérification
+     */
+    @Scheduled(fixedDelayString = "${java350.replica.intervalle-verification:1000}")
+    public boolean verifier() {
+        long maintenant = System.currentTimeMillis();
+        boolean disponible;
+        try {
+            List<Long> horodatages = replica.queryForList("select horodatage from battement_replication where id = ?",
+                    Long.class, BattementReplication.BATTEMENT);
+            retard = horodatages.isEmpty() ? -1 : Math.max(0, maintenant - horodatages.get(0));
+            disponible = retard >= 0 && retard <= retardMax;
+        } catch (DataAccessException e) {
+            logger.debug("Lecture du battement sur la base replica impossible", e);
+            retard = -1;
+            disponible = false;
+        }
+        try {
+            if(primaire.update("update battement_replication set horodatage = ? where id = ?", maintenant, BattementReplication.BATTEMENT) == 0){
+                primaire.update("insert into battement_replication (id, horodatage) values (?, ?)", BattementReplication.BATTEMENT, maintenant);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Écriture du battement de réplication sur la base primaire impossible", e);
+        }
+
+        if(disponible != routage.isReplicaDisponible()){
+            if(disponible){
+                logger.info("Base replica réintégrée, retard de réplication de {} ms", retard);
+            }
+            else {
+                logger.warn("Base replica écartée, lectures sur la base primaire (retard {} ms, toléré {} ms)", retard, retardMax);
+            }
+        }
+        routage.setReplicaDisponible(disponible);
+        return disponible;
+    }
+
+    public long getRetard() {
+        return retard;
+    }
+}
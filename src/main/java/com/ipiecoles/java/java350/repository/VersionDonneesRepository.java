@@ -0,0 +1,18 @@
+package com.ipiecoles.java.java350.repository;
+
+import com.ipiecoles.java.java350.model.VersionDonnees;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface VersionDonneesRepository extends JpaRepository<VersionDonnees, String> {
+
+    @Query("select v.version from VersionDonnees v where v.nom = ?1")
+    Long findVersion(String nom);
+
+    @Modifying
+    @Query("update VersionDonnees v set v.version = v.version + 1 where v.nom = ?1")
+    int incrementer(String nom);
+}
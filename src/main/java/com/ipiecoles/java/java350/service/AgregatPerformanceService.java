@@ -0,0 +1,134 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.model.AgregatPerformance;
+import com.ipiecoles.java.java350.model.Poste;
+import com.ipiecoles.java.java350.repository.AgregatPerformanceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tenue à jour des agrégats de performance par type d'employé.
+ *
+ * Les mises à jour sont faites dans la transaction de l'écriture de l'employé, la performance moyenne d'un
+ * type s'obtient donc par la lecture d'une seule ligne. Une réconciliation périodique reconstruit les agrégats
+ * depuis la table Employe et signale les écarts (écritures faites sans passer par EmployeService).
+ */
+@Service
+public class AgregatPerformanceService {
+
+    @Autowired
+    private AgregatPerformanceRepository agregatPerformanceRepository;
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /**
+     * @param typeEmploye le type d'employé (T, M ou C)
+     * @return la performance moyenne des employés de ce type, null s'il n'y en a aucun
+     */
+    @Transactional(readOnly = true)
+    public Double performanceMoyenne(String typeEmploye) {
+        return agregatPerformanceRepository.findById(typeEmploye)
+                .map(AgregatPerformance::getPerformanceMoyenne)
+                .orElse(null);
+    }
+
+    /**
+     * Répercute sur l'agrégat d'un type l'écriture d'un ou plusieurs employés
+     *
+     * @param typeEmploye le type d'employé (T, M ou C)
+     * @param deltaSommePerformance la variation de la somme des performances
+     * @param deltaNbEmployes la variation du nombre d'employés ayant une performance
+     */
+    @Transactional
+    public void mettreAJour(String typeEmploye, long deltaSommePerformance, long deltaNbEmployes) {
+        if(deltaSommePerformance == 0L && deltaNbEmployes == 0L){
+            return;
+        }
+        if(agregatPerformanceRepository.incrementer(typeEmploye, deltaSommePerformance, deltaNbEmployes) == 0){
+            //Type inconnu des agrégats : la réconciliation suivante le créera à partir de la table Employe
+            logger.warn("Aucun agrégat de performance pour le type {}", typeEmploye);
+        }
+    }
+
+    /**
+     * Répercute le changement de performance d'un employé
+     *
+     * @param typeEmploye le type d'employé (T, M ou C)
+     * @param anciennePerformance la performance avant modification, éventuellement null
+     * @param nouvellePerformance la performance après modification, éventuellement null
+     */
+    @Transactional
+    public void changerPerformance(String typeEmploye, Integer anciennePerformance, Integer nouvellePerformance) {
+        long deltaSomme = 0L;
+        long deltaNb = 0L;
+        if(anciennePerformance != null){
+            deltaSomme -= anciennePerformance;
+            deltaNb--;
+        }
+        if(nouvellePerformance != null){
+            deltaSomme += nouvellePerformance;
+            deltaNb++;
+        }
+        mettreAJour(typeEmploye, deltaSomme, deltaNb);
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    @Transactional
+    public void initialiser() {
+        reconcilier();
+    }
+
+    /**
+     * Reconstruit les agrégats depuis la table Employe. Les agrégats sont verrouillés pendant la reconstruction :
+     * les écritures concurrentes attendent la fin de la réconciliation avant de s'y répercuter.
+     *
+     * @return les types d'employés dont l'agrégat avait dérivé
+     */
+    @Scheduled(cron = "${java350.agregats.reconciliation.cron:0 0 3 * * *}")
+    @Transactional
+    public List<String> reconcilier() {
+        Map<String, AgregatPerformance> agregats = new HashMap<>();
+        for (AgregatPerformance agregat : agregatPerformanceRepository.findAllPourMiseAJour()) {
+            agregats.put(agregat.getTypeEmploye(), agregat);
+        }
+
+        Map<String, AgregatPerformance> attendus = new HashMap<>();
+        for (Poste poste : Poste.values()) {
+            String typeEmploye = poste.name().substring(0,1);
+            attendus.put(typeEmploye, new AgregatPerformance(typeEmploye, 0L, 0L));
+        }
+        for (Object[] ligne : agregatPerformanceRepository.calculerAgregatsDepuisEmployes()) {
+            String typeEmploye = (String) ligne[0];
+            Long somme = ligne[1] == null ? 0L : ((Number) ligne[1]).longValue();
+            attendus.put(typeEmploye, new AgregatPerformance(typeEmploye, somme, ((Number) ligne[2]).longValue()));
+        }
+
+        List<String> typesEnEcart = new ArrayList<>();
+        for (AgregatPerformance attendu : attendus.values()) {
+            AgregatPerformance agregat = agregats.get(attendu.getTypeEmploye());
+            if(agregat == null){
+                agregatPerformanceRepository.save(attendu);
+            }
+            else if(!agregat.equals(attendu)){
+                logger.warn("Écart sur l'agrégat de performance du type {} : somme {} / {} employés au lieu de {} / {}",
+                        attendu.getTypeEmploye(), agregat.getSommePerformance(), agregat.getNbEmployes(),
+                        attendu.getSommePerformance(), attendu.getNbEmployes());
+                typesEnEcart.add(attendu.getTypeEmploye());
+                agregat.setSommePerformance(attendu.getSommePerformance());
+                agregat.setNbEmployes(attendu.getNbEmployes());
+            }
+        }
+        return typesEnEcart;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.model.CalendrierAnnuel;
+import com.ipiecoles.java.java350.model.ContexteCalcul;
+import com.ipiecoles.java.java350.model.Employe;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+/**
+ * Décomptes de jours ouvrés (ni samedi, ni dimanche, ni férié selon les règles d'Entreprise) et prorata des congés
+ * et RTT des employés embauchés ou partis en cours d'année.
+ *
+ * Les calendriers annuels sont précalculés (voir CalendrierAnnuel) : le nombre de jours ouvrés d'une période
+ * s'obtient sans parcourir ses jours.
+ */
+@Service
+public class CalendrierService {
+
+    /**
+     * @param debut le premier jour, inclus
+     * @param fin le dernier jour, inclus
+     * @return le nombre de jours ouvrés de la période, 0 si la fin précède le début
+     */
+    public int nbJoursOuvres(LocalDate debut, LocalDate fin) {
+        return CalendrierAnnuel.nbJoursOuvres(debut, fin);
+    }
+
+    /**
+     * Part de l'année de la date de référence pendant laquelle l'employé est présent, en jours ouvrés
+     *
+     * @param employe l'employé, présent depuis le début de l'année si sa date d'embauche n'est pas renseignée
+     * @param contexte le contexte de calcul, dont la date de référence donne l'année
+     * @param dateDepart le dernier jour de présence de l'employé, null s'il reste jusqu'à la fin de l'année
+     * @return entre 0 et 1, exactement 1 pour une présence sur toute l'année
+     */
+    public double prorataPresence(Employe employe, ContexteCalcul contexte, LocalDate dateDepart) {
+        CalendrierAnnuel calendrier = contexte.getCalendrier();
+        int premierJour = 1;
+        int dernierJour = calendrier.getNbJours();
+        LocalDate dateEmbauche = employe.getDateEmbauche();
+        if(dateEmbauche != null && dateEmbauche.getYear() > calendrier.getAnnee()
+                || dateDepart != null && dateDepart.getYear() < calendrier.getAnnee()){
+            return 0d;
+        }
+        if(dateEmbauche != null && dateEmbauche.getYear() == calendrier.getAnnee()){
+            premierJour = dateEmbauche.getDayOfYear();
+        }
+        if(dateDepart != null && dateDepart.getYear() == calendrier.getAnnee()){
+            dernierJour = dateDepart.getDayOfYear();
+        }
+        return (double) calendrier.getNbJoursOuvres(premierJour, dernierJour) / calendrier.getNbJoursOuvres();
+    }
+
+    /**
+     * Congés acquis dans l'année au prorata de la présence, arrondis au jour supérieur comme les RTT
+     *
+     * @param employe l'employé
+     * @param contexte le contexte de calcul
+     * @param dateDepart le dernier jour de présence de l'employé, null s'il reste jusqu'à la fin de l'année
+     * @return le nombre de jours de congés, égal à Employe.getNbConges pour une présence sur toute l'année
+     */
+    public int nbCongesAuProrata(Employe employe, ContexteCalcul contexte, LocalDate dateDepart) {
+        return (int) Math.ceil(employe.getNbConges(contexte) * prorataPresence(employe, contexte, dateDepart));
+    }
+
+    /**
+     * RTT de l'année au prorata de la présence et du temps partiel
+     *
+     * @param employe l'employé
+     * @param contexte le contexte de calcul
+     * @param dateDepart le dernier jour de présence de l'employé, null s'il reste jusqu'à la fin de l'année
+     * @return le nombre de jours de RTT, égal à Employe.getNbRtt pour une présence sur toute l'année
+     */
+    public Double nbRttAuProrata(Employe employe, ContexteCalcul contexte, LocalDate dateDepart) {
+        int nbJrsRTT = contexte.getCalendrier().getNbJoursRttTempsPlein();
+        return Math.ceil(nbJrsRTT * employe.getTempsPartiel() * prorataPresence(employe, contexte, dateDepart));
+    }
+}
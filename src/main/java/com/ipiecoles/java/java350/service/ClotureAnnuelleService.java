@@ -0,0 +1,197 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.model.BilanPaie;
+import com.ipiecoles.java.java350.model.ContexteCalcul;
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.PartitionCloture;
+import com.ipiecoles.java.java350.repository.BilanPaieRepository;
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import com.ipiecoles.java.java350.repository.PartitionClotureRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clôture de la paie d'une année : un bilan (prime annuelle, congés, RTT) est enregistré pour chaque employé
+ * embauché au plus tard le 31 décembre.
+ *
+ * La table Employe est découpée en partitions par plage d'identifiants, traitées en parallèle sur un pool
+ * fork-join. Chaque partition est lue par lots, un lot par transaction : ses bilans sont insérés par lots JDBC et
+ * le point de reprise de la partition avancé dans la même transaction. Une clôture interrompue (arrêt, panne) se
+ * reprend donc en relançant la clôture de l'année, à partir du dernier lot enregistré de chaque partition.
+ *
+ * Les employés créés après le découpage de l'année en partitions ne sont pas clôturés. Une seule clôture d'une
+ * même année doit s'exécuter à la fois : une seconde échoue sur l'unicité des bilans.
+ */
+@Service
+public class ClotureAnnuelleService {
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    @Autowired
+    private BilanPaieRepository bilanPaieRepository;
+
+    @Autowired
+    private PartitionClotureRepository partitionClotureRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${java350.cloture.taille-partition:10000}")
+    private int taillePartition;
+
+    @Value("${java350.cloture.taille-lot:500}")
+    private int tailleLot;
+
+    @Value("${java350.cloture.parallelisme:0}")
+    private int parallelisme;
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /**
+     * Clôture l'année, ou reprend sa clôture là où elle s'est arrêtée. Une partition en échec n'interrompt pas les
+     * autres, elle est reprise par la clôture suivante de l'année.
+     *
+     * @param annee l'année à clôturer
+     * @return le bilan de cette exécution
+     */
+    public RapportCloture cloturer(int annee) {
+        ContexteCalcul contexte = ContexteCalcul.au(LocalDate.of(annee, 12, 31));
+        List<PartitionCloture> partitions = partitionner(annee);
+        List<PartitionCloture> aTraiter = new ArrayList<>();
+        for (PartitionCloture partition : partitions) {
+            if(!partition.getTerminee()){
+                aTraiter.add(partition);
+            }
+        }
+        logger.info("Clôture {} : {} partitions dont {} à traiter", annee, partitions.size(), aTraiter.size());
+
+        Counter bilansEnregistres = meterRegistry.counter("java350.cloture.bilans", "annee", String.valueOf(annee));
+        Timer lots = meterRegistry.timer("java350.cloture.lots", "annee", String.valueOf(annee));
+        AtomicInteger partitionsTerminees = new AtomicInteger(partitions.size() - aTraiter.size());
+        AtomicLong nbBilans = new AtomicLong();
+        long debut = System.nanoTime();
+
+        ForkJoinPool pool = new ForkJoinPool(parallelisme > 0 ? parallelisme : Runtime.getRuntime().availableProcessors());
+        int nbEchecs = 0;
+        try {
+            List<ForkJoinTask<?>> taches = new ArrayList<>(aTraiter.size());
+            for (PartitionCloture partition : aTraiter) {
+                taches.add(pool.submit(() -> {
+                    long nbBilansPartition = traiterPartition(partition.getCle(), contexte, bilansEnregistres, lots);
+                    long total = nbBilans.addAndGet(nbBilansPartition);
+                    double secondes = (System.nanoTime() - debut) / 1e9;
+                    logger.info("Clôture {} : partition {} terminée ({}/{}), {} bilans, {} bilans/s", annee, partition.getNumero(),
+                            partitionsTerminees.incrementAndGet(), partitions.size(), total, Math.round(total / Math.max(secondes, 1e-3)));
+                }));
+            }
+            for (int i = 0; i < taches.size(); i++) {
+                try {
+                    taches.get(i).get();
+                } catch (ExecutionException e) {
+                    nbEchecs++;
+                    logger.error("Clôture {} : échec de la partition {}, reprise à la prochaine clôture", annee, aTraiter.get(i).getNumero(), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Clôture " + annee + " interrompue, reprise à la prochaine clôture", e);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        RapportCloture rapport = new RapportCloture(annee, partitions.size(), partitions.size() - aTraiter.size(), nbEchecs, nbBilans.get());
+        logger.info("Fin de la clôture {} : {} bilans enregistrés, {} partitions en échec", annee, rapport.getNbBilans(), nbEchecs);
+        return rapport;
+    }
+
+    /**
+     * @param annee l'année
+     * @return les partitions de la clôture de l'année, par numéro, vide si elle n'a jamais été lancée
+     */
+    public List<PartitionCloture> avancement(int annee) {
+        return partitionClotureRepository.findByAnneeOrderByNumeroAsc(annee);
+    }
+
+    /**
+     * Découpe la table Employe au premier lancement de la clôture de l'année, relit le découpage ensuite
+     */
+    private List<PartitionCloture> partitionner(int annee) {
+        List<PartitionCloture> partitions = partitionClotureRepository.findByAnneeOrderByNumeroAsc(annee);
+        if(!partitions.isEmpty()){
+            return partitions;
+        }
+        Long idMin = employeRepository.findMinId();
+        Long idMax = employeRepository.findMaxId();
+        if(idMin == null){
+            return partitions;
+        }
+        List<PartitionCloture> decoupage = new ArrayList<>();
+        for (long idDebut = idMin; idDebut <= idMax; idDebut += taillePartition) {
+            decoupage.add(new PartitionCloture(annee, decoupage.size() + 1, idDebut, Math.min(idMax, idDebut + taillePartition - 1)));
+        }
+        return new TransactionTemplate(transactionManager).execute(status -> partitionClotureRepository.saveAll(decoupage));
+    }
+
+    /**
+     * @return le nombre de bilans enregistrés
+     */
+    private long traiterPartition(String cle, ContexteCalcul contexte, Counter bilansEnregistres, Timer lots) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long nbBilans = 0;
+        boolean terminee = false;
+        while (!terminee) {
+            long debutLot = System.nanoTime();
+            int[] nbBilansLot = new int[1];
+            terminee = transactionTemplate.execute(status -> {
+                PartitionCloture partition = partitionClotureRepository.findById(cle)
+                        .orElseThrow(() -> new IllegalStateException("Partition de clôture " + cle + " introuvable"));
+                if(partition.getTerminee()){
+                    return true;
+                }
+                List<Employe> employes = employeRepository.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(
+                        partition.getDernierIdTraite(), partition.getIdFin(), PageRequest.of(0, tailleLot));
+                List<BilanPaie> bilans = new ArrayList<>(employes.size());
+                for (Employe employe : employes) {
+                    if(employe.getDateEmbauche() == null || !employe.getDateEmbauche().isAfter(contexte.getDateReference())){
+                        bilans.add(BilanPaie.de(employe, contexte));
+                    }
+                }
+                bilanPaieRepository.saveAll(bilans);
+                if(!employes.isEmpty()){
+                    partition.setDernierIdTraite(employes.get(employes.size() - 1).getId());
+                }
+                partition.setNbBilans(partition.getNbBilans() + bilans.size());
+                partition.setTerminee(employes.size() < tailleLot);
+                nbBilansLot[0] = bilans.size();
+                return partition.getTerminee();
+            });
+            nbBilans += nbBilansLot[0];
+            bilansEnregistres.increment(nbBilansLot[0]);
+            lots.record(System.nanoTime() - debutLot, TimeUnit.NANOSECONDS);
+        }
+        return nbBilans;
+    }
+}
@@ -0,0 +1,129 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.model.ContexteCalcul;
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.Entreprise;
+import com.ipiecoles.java.java350.repository.EmployeResume;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Effectif chargé en colonnes de types primitifs pour les calculs de paie de masse.
+ *
+ * La ligne i de chaque colonne correspond au i-ème employé de la liste ou du flux chargé. L'ancienneté est figée à la date
+ * de référence du chargement, une performance non renseignée est stockée comme la performance de base (les
+ * règles de calcul les traitent de la même façon) et un temps partiel non renseigné comme NaN.
+ */
+public final class ColonnesEmployes {
+
+    private static final int CAPACITE_INITIALE = 1024;
+
+    final int taille;
+
+    private final ContexteCalcul contexte;
+
+    final String[] matricule;
+
+    final double[] salaire;
+
+    final int[] performance;
+
+    final double[] tempsPartiel;
+
+    /**
+     * Première lettre du matricule (T, M ou C), 0 si le matricule n'est pas renseigné
+     */
+    final byte[] type;
+
+    final int[] anciennete;
+
+    private ColonnesEmployes(int taille, ContexteCalcul contexte) {
+        this(taille, contexte, new String[taille], new double[taille], new int[taille], new double[taille], new byte[taille], new int[taille]);
+    }
+
+    private ColonnesEmployes(int taille, ContexteCalcul contexte, String[] matricule, double[] salaire, int[] performance,
+                             double[] tempsPartiel, byte[] type, int[] anciennete) {
+        this.taille = taille;
+        this.contexte = contexte;
+        this.matricule = matricule;
+        this.salaire = salaire;
+        this.performance = performance;
+        this.tempsPartiel = tempsPartiel;
+        this.type = type;
+        this.anciennete = anciennete;
+    }
+
+    /**
+     * @param employes les employés à charger
+     * @param contexte le contexte de calcul, l'ancienneté de chaque employé est calculée une fois à sa date de référence
+     * @return les colonnes de l'effectif
+     */
+    public static ColonnesEmployes charger(List<Employe> employes, ContexteCalcul contexte) {
+        ColonnesEmployes colonnes = new ColonnesEmployes(employes.size(), contexte);
+        int i = 0;
+        for (Employe employe : employes) {
+            colonnes.remplir(i++, employe.getMatricule(), employe.getSalaire(), employe.getPerformance(),
+                    employe.getTempsPartiel(), employe.getDateEmbauche());
+        }
+        return colonnes;
+    }
+
+    /**
+     * Chargement depuis les colonnes lues en base, sans entité : les colonnes sont agrandies au fil de la lecture
+     * puis ramenées au nombre d'employés lus
+     *
+     * @param employes les colonnes des employés à charger
+     * @param contexte le contexte de calcul, l'ancienneté de chaque employé est calculée une fois à sa date de référence
+     * @return les colonnes de l'effectif
+     */
+    public static ColonnesEmployes charger(Stream<EmployeResume> employes, ContexteCalcul contexte) {
+        ColonnesEmployes colonnes = new ColonnesEmployes(CAPACITE_INITIALE, contexte);
+        int i = 0;
+        for (Iterator<EmployeResume> iterateur = employes.iterator(); iterateur.hasNext(); i++) {
+            if(i == colonnes.taille){
+                colonnes = colonnes.redimensionner(2 * i);
+            }
+            EmployeResume employe = iterateur.next();
+            colonnes.remplir(i, employe.getMatricule(), employe.getSalaire(), employe.getPerformance(),
+                    employe.getTempsPartiel(), employe.getDateEmbauche());
+        }
+        return colonnes.redimensionner(i);
+    }
+
+    private void remplir(int i, String matricule, Double salaire, Integer performance, Double tempsPartiel, LocalDate dateEmbauche) {
+        this.matricule[i] = matricule;
+        this.salaire[i] = salaire == null ? Double.NaN : salaire;
+        this.performance[i] = performance == null ? Entreprise.PERFORMANCE_BASE : performance;
+        this.tempsPartiel[i] = tempsPartiel == null ? Double.NaN : tempsPartiel;
+        this.type[i] = matricule == null || matricule.isEmpty() ? 0 : (byte) matricule.charAt(0);
+        this.anciennete[i] = Employe.nombreAnneeAnciennete(dateEmbauche, contexte);
+    }
+
+    private ColonnesEmployes redimensionner(int nouvelleTaille) {
+        if(nouvelleTaille == taille){
+            return this;
+        }
+        return new ColonnesEmployes(nouvelleTaille, contexte, Arrays.copyOf(matricule, nouvelleTaille),
+                Arrays.copyOf(salaire, nouvelleTaille), Arrays.copyOf(performance, nouvelleTaille),
+                Arrays.copyOf(tempsPartiel, nouvelleTaille), Arrays.copyOf(type, nouvelleTaille), Arrays.copyOf(anciennete, nouvelleTaille));
+    }
+
+    public int getTaille() {
+        return taille;
+    }
+
+    /**
+     * @return le contexte de calcul du chargement
+     */
+    public ContexteCalcul getContexte() {
+        return contexte;
+    }
+
+    public String getMatricule(int ligne) {
+        return matricule[ligne];
+    }
+}
@@ -0,0 +1,48 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.model.NiveauEtude;
+import com.ipiecoles.java.java350.model.Poste;
+
+/**
+ * Demande d'embauche d'une personne, utilisée pour les embauches groupées
+ */
+public class DemandeEmbauche {
+
+    private final String nom;
+
+    private final String prenom;
+
+    private final Poste poste;
+
+    private final NiveauEtude niveauEtude;
+
+    private final Double tempsPartiel;
+
+    public DemandeEmbauche(String nom, String prenom, Poste poste, NiveauEtude niveauEtude, Double tempsPartiel) {
+        this.nom = nom;
+        this.prenom = prenom;
+        this.poste = poste;
+        this.niveauEtude = niveauEtude;
+        this.tempsPartiel = tempsPartiel;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public String getPrenom() {
+        return prenom;
+    }
+
+    public Poste getPoste() {
+        return poste;
+    }
+
+    public NiveauEtude getNiveauEtude() {
+        return niveauEtude;
+    }
+
+    public Double getTempsPartiel() {
+        return tempsPartiel;
+    }
+}
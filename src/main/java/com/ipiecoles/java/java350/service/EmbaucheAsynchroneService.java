@@ -0,0 +1,294 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.exception.EmployeException;
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.NiveauEtude;
+import com.ipiecoles.java.java350.model.Poste;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Embauches asynchrones : les demandes sont placées dans une file bornée, un unique rédacteur les regroupe et
+ * enregistre chaque groupe dans une seule transaction (EmployeService.embaucheEmployes). Une rafale de demandes
+ * concurrentes n'occupe ainsi qu'une connexion à la fois et ne paie qu'un commit par groupe.
+ *
+ * Quand la file est pleine, la politique de saturation (java350.embauche.saturation) s'applique :
+ * BLOQUER attend une place, REJETER fait échouer la nouvelle demande, DELESTER fait échouer la plus ancienne
+ * demande en attente pour accepter la nouvelle.
+ *
+ * Un seul verrou protège la file et l'état arrêté : une demande est soit placée en file avant l'arrêt, et alors
+ * enregistrée ou mise en échec, soit rejetée. Aucune demande ne reste sans réponse, y compris si le rédacteur
+ * s'arrête sur une erreur inattendue.
+ *
+ * Les matricules d'un groupe sont réservés avant sa transaction : si le groupe est annulé, ses demandes sont
+ * rejouées une à une sur les matricules déjà réservés, sans en réserver d'autres.
+ */
+@Service
+public class EmbaucheAsynchroneService {
+
+    public enum PolitiqueSaturation {
+        BLOQUER, REJETER, DELESTER
+    }
+
+    @Autowired
+    private EmployeService employeService;
+
+    @Autowired
+    private MatriculeAllocator matriculeAllocator;
+
+    @Value("${java350.embauche.capacite-file:10000}")
+    private int capaciteFile;
+
+    @Value("${java350.embauche.taille-groupe:500}")
+    private int tailleGroupe;
+
+    @Value("${java350.embauche.saturation:BLOQUER}")
+    private PolitiqueSaturation politiqueSaturation;
+
+    private final ReentrantLock verrou = new ReentrantLock();
+
+    private final Condition placeLibre = verrou.newCondition();
+
+    private final Condition demandeEnAttente = verrou.newCondition();
+
+    /**
+     * Demandes en attente, protégée par le verrou
+     */
+    private Deque<EmbaucheEnAttente> file;
+
+    /**
+     * Plus aucune demande acceptée, protégé par le verrou
+     */
+    private boolean arrete;
+
+    private ExecutorService redacteur;
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @PostConstruct
+    public void demarrer() {
+        file = new ArrayDeque<>(Math.min(capaciteFile, 1024));
+        redacteur = Executors.newSingleThreadExecutor(r -> new Thread(r, "embauche-employes-redacteur"));
+        redacteur.submit(this::ecrire);
+    }
+
+    /**
+     * Enregistre les demandes encore en file puis arrête le rédacteur
+     */
+    @PreDestroy
+    public void arreter() throws InterruptedException {
+        verrou.lock();
+        try {
+            if(arrete){
+                return;
+            }
+            arrete = true;
+            demandeEnAttente.signalAll();
+            placeLibre.signalAll();
+        } finally {
+            verrou.unlock();
+        }
+        redacteur.shutdown();
+        if(!redacteur.awaitTermination(30, TimeUnit.SECONDS)){
+            redacteur.shutdownNow();
+            redacteur.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        //Demandes que le rédacteur n'a pas pu enregistrer à temps
+        rejeterRestantes("Embauches arrêtées");
+    }
+
+    /**
+     * Variante asynchrone d'EmployeService.embaucheEmploye
+     *
+     * @param nom Le nom de l'employé
+     * @param prenom Le prénom de l'employé
+     * @param poste Le poste de l'employé
+     * @param niveauEtude Le niveau d'étude de l'employé
+     * @param tempsPartiel Le pourcentage d'activité en cas de temps partiel
+     * @return l'employé embauché une fois son groupe enregistré. Échoue avec une EmployeException si on arrive au
+     * bout des matricules possibles, avec une RejectedExecutionException si la demande est rejetée, délestée ou
+     * arrive après l'arrêt.
+     *
+     * @throws IllegalArgumentException si le poste ou le niveau d'étude est null
+     */
+    public CompletableFuture<Employe> embaucheEmploye(String nom, String prenom, Poste poste, NiveauEtude niveauEtude, Double tempsPartiel) {
+        if(poste == null || niveauEtude == null){
+            throw new IllegalArgumentException("Le poste et le niveau d'étude sont obligatoires !");
+        }
+        EmbaucheEnAttente embauche = new EmbaucheEnAttente(new DemandeEmbauche(nom, prenom, poste, niveauEtude, tempsPartiel));
+        EmbaucheEnAttente delestee = null;
+        verrou.lock();
+        try {
+            while (!arrete && file.size() >= capaciteFile && politiqueSaturation == PolitiqueSaturation.BLOQUER) {
+                placeLibre.await();
+            }
+            if(arrete){
+                embauche.resultat.completeExceptionally(new RejectedExecutionException("Embauches arrêtées"));
+                return embauche.resultat;
+            }
+            if(file.size() >= capaciteFile){
+                if(politiqueSaturation == PolitiqueSaturation.REJETER){
+                    embauche.resultat.completeExceptionally(new RejectedExecutionException("File des embauches pleine (" + capaciteFile + " demandes en attente)"));
+                    return embauche.resultat;
+                }
+                delestee = file.pollFirst();
+            }
+            file.addLast(embauche);
+            demandeEnAttente.signal();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            embauche.resultat.completeExceptionally(e);
+        } finally {
+            verrou.unlock();
+        }
+        //Futures complétées hors du verrou : leurs callbacks peuvent déposer de nouvelles demandes
+        if(delestee != null){
+            delestee.resultat.completeExceptionally(new RejectedExecutionException("Demande d'embauche délestée, file des embauches pleine"));
+        }
+        return embauche.resultat;
+    }
+
+    private void ecrire() {
+        try {
+            List<EmbaucheEnAttente> groupe;
+            while (!(groupe = prochainGroupe()).isEmpty()) {
+                enregistrer(groupe);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable t) {
+            logger.error("Arrêt inattendu du rédacteur des embauches", t);
+        } finally {
+            //Plus de rédacteur : les demandes en file et à venir sont mises en échec
+            verrou.lock();
+            try {
+                arrete = true;
+                placeLibre.signalAll();
+            } finally {
+                verrou.unlock();
+            }
+            rejeterRestantes("Rédacteur des embauches arrêté");
+        }
+    }
+
+    /**
+     * @return les demandes suivantes, au plus tailleGroupe, ou une liste vide quand la file est vide et arrêtée
+     */
+    private List<EmbaucheEnAttente> prochainGroupe() throws InterruptedException {
+        verrou.lockInterruptibly();
+        try {
+            while (file.isEmpty() && !arrete) {
+                demandeEnAttente.await();
+            }
+            List<EmbaucheEnAttente> groupe = new ArrayList<>(Math.min(file.size(), tailleGroupe));
+            while (!file.isEmpty() && groupe.size() < tailleGroupe) {
+                groupe.add(file.pollFirst());
+            }
+            placeLibre.signalAll();
+            return groupe;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    private void rejeterRestantes(String message) {
+        List<EmbaucheEnAttente> restantes;
+        verrou.lock();
+        try {
+            restantes = new ArrayList<>(file);
+            file.clear();
+        } finally {
+            verrou.unlock();
+        }
+        for (EmbaucheEnAttente embauche : restantes) {
+            embauche.resultat.completeExceptionally(new RejectedExecutionException(message));
+        }
+    }
+
+    private void enregistrer(List<EmbaucheEnAttente> groupe) {
+        int premierNumero;
+        try {
+            premierNumero = matriculeAllocator.reserverNumeros(groupe.size());
+        } catch (EmployeException | RuntimeException e) {
+            if(groupe.size() == 1){
+                groupe.get(0).resultat.completeExceptionally(e);
+                return;
+            }
+            //Plus assez de matricules pour tout le groupe : chaque demande tente de réserver le sien
+            logger.warn("Réservation de {} matricules impossible, embauches une à une : {}", groupe.size(), e.getMessage());
+            for (EmbaucheEnAttente embauche : groupe) {
+                enregistrer(Collections.singletonList(embauche));
+            }
+            return;
+        } catch (Throwable t) {
+            echouer(groupe, t);
+            throw t;
+        }
+        enregistrer(groupe, premierNumero);
+    }
+
+    private void enregistrer(List<EmbaucheEnAttente> groupe, int premierNumero) {
+        List<DemandeEmbauche> demandes = new ArrayList<>(groupe.size());
+        for (EmbaucheEnAttente embauche : groupe) {
+            demandes.add(embauche.demande);
+        }
+        try {
+            List<Employe> employes = employeService.embaucheEmployes(demandes, premierNumero);
+            for (int i = 0; i < groupe.size(); i++) {
+                groupe.get(i).resultat.complete(employes.get(i));
+            }
+        } catch (RuntimeException e) {
+            if(groupe.size() == 1){
+                groupe.get(0).resultat.completeExceptionally(e);
+                return;
+            }
+            //Le groupe est annulé en entier : chaque demande est rejouée seule, sur son matricule déjà réservé,
+            //pour ne faire échouer que les fautives
+            logger.warn("Échec de l'embauche groupée de {} employés, embauches une à une : {}", groupe.size(), e.getMessage());
+            for (int i = 0; i < groupe.size(); i++) {
+                enregistrer(Collections.singletonList(groupe.get(i)), premierNumero + i);
+            }
+        } catch (Throwable t) {
+            echouer(groupe, t);
+            throw t;
+        }
+    }
+
+    /**
+     * Erreur grave (mémoire...) : le groupe échoue, le rédacteur s'arrête
+     */
+    private static void echouer(List<EmbaucheEnAttente> groupe, Throwable t) {
+        for (EmbaucheEnAttente embauche : groupe) {
+            embauche.resultat.completeExceptionally(t);
+        }
+    }
+
+    private static class EmbaucheEnAttente {
+
+        private final DemandeEmbauche demande;
+
+        private final CompletableFuture<Employe> resultat = new CompletableFuture<>();
+
+        EmbaucheEnAttente(DemandeEmbauche demande) {
+            this.demande = demande;
+        }
+    }
+}
@@ -1,18 +1,30 @@
 package com.ipiecoles.java.java350.service;
 
 import com.ipiecoles.java.java350.exception.EmployeException;
+import com.ipiecoles.java.java350.model.ContexteCalcul;
 import com.ipiecoles.java.java350.model.Employe;
 import com.ipiecoles.java.java350.model.Entreprise;
 import com.ipiecoles.java.java350.model.NiveauEtude;
 import com.ipiecoles.java.java350.model.Poste;
 import com.ipiecoles.java.java350.repository.EmployeRepository;
+import com.ipiecoles.java.java350.repository.FiltreEmployes;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.helpers.MessageFormatter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.persistence.EntityExistsException;
+import java.time.Clock;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class EmployeService {
@@ -20,8 +32,39 @@ public class EmployeService {
     @Autowired
     private EmployeRepository employeRepository;
 
+    @Autowired
+    private MatriculeAllocator matriculeAllocator;
+
+    @Autowired
+    private AgregatPerformanceService agregatPerformanceService;
+
+    @Autowired
+    private ReessaiConflits reessaiConflits;
+
+    @Autowired
+    private StatistiquesService statistiquesService;
+
+    @Autowired
+    private VersionDonneesService versionDonneesService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    private Clock clock = Clock.systemDefaultZone();
+
+    /**
+     * Nombre de matricules par requête IN lors de la validation de résultats en masse
+     */
+    private static final int TAILLE_TRANCHE_MATRICULES = 1000;
+
     private Logger logger = LoggerFactory.getLogger(this.getClass());
 
+    /**
+     * Avertissements de validation limités à 10 par seconde et par raison
+     */
+    private JournalEvenements journal = new JournalEvenements(logger, 10, 1000);
+
     /**
      * Méthode enregistrant un nouvel employé dans l'entreprise
      *
@@ -32,49 +75,112 @@ public class EmployeService {
      * @param tempsPartiel Le pourcentage d'activité en cas de temps partiel
      *
      * @throws EmployeException Si on arrive au bout des matricules possibles
-     * @throws EntityExistsException Si le matricule correspond à un employé existant
      */
+    @Timed(value = "java350.employes.embauche", extraTags = {"mode", "unitaire"}, description = "Temps d'embauche d'un employé")
+    @Transactional
     public void embaucheEmploye(String nom, String prenom, Poste poste, NiveauEtude niveauEtude, Double tempsPartiel) throws EmployeException {
 
         //Récupération du type d'employé à partir du poste
         String typeEmploye = poste.name().substring(0,1);
 
-        //Récupération du dernier matricule...
-        String lastMatricule = employeRepository.findLastMatricule();
-        if(lastMatricule == null){
-            lastMatricule = Entreprise.MATRICULE_INITIAL;
-            logger.warn("Aucun employé présent en BDD. Nous mettons le premier matricule par défaut ({})", Entreprise.MATRICULE_INITIAL);
-        }
-        //... et incrémentation
-        Integer numeroMatricule = Integer.parseInt(lastMatricule) + 1;
-        if(numeroMatricule >= 100000){
-            logger.error("La limite des 100000 matricules vient d'être atteinte !");
-            throw new EmployeException("Limite des 100000 matricules atteinte !");
+        //Réservation du prochain numéro de matricule...
+        Integer numeroMatricule = matriculeAllocator.prochainNumero();
+        String matricule = formaterMatricule(typeEmploye, numeroMatricule);
+
+        //Calcul du salaire
+        Double salaire = calculSalaire(niveauEtude, tempsPartiel);
+
+        //Création et sauvegarde en BDD de l'employé.
+        Employe employe = new Employe(nom, prenom, matricule, LocalDate.now(clock), salaire, Entreprise.PERFORMANCE_BASE, tempsPartiel);
+
+        employeRepository.save(employe);
+        agregatPerformanceService.mettreAJour(typeEmploye, Entreprise.PERFORMANCE_BASE, 1L);
+        statistiquesService.ajouter(employe);
+        versionDonneesService.signalerEcriture();
+
+    }
+
+    /**
+     * Méthode enregistrant en une seule fois toute une promotion de nouveaux employés.
+     * Les matricules sont réservés en une plage contiguë et les employés insérés par lots JDBC
+     * dans une unique transaction : soit toutes les embauches sont enregistrées, soit aucune.
+     *
+     * @param demandes Les demandes d'embauche, les matricules sont attribués dans l'ordre de la liste
+     * @return Les employés embauchés
+     *
+     * @throws EmployeException Si la plage de matricules dépasse les matricules possibles
+     */
+    @Timed(value = "java350.employes.embauche", extraTags = {"mode", "groupe"}, description = "Temps d'embauche d'un employé")
+    @Transactional
+    public List<Employe> embaucheEmployes(List<DemandeEmbauche> demandes) throws EmployeException {
+        if(demandes == null || demandes.isEmpty()){
+            return new ArrayList<>();
         }
 
-        //On complète le numéro avec des 0 à gauche
-        String matricule = "00000" + numeroMatricule;
-        matricule = typeEmploye + matricule.substring(matricule.length() - 5);
+        //Réservation d'une plage de matricules pour toute la promotion
+        int premierNumero = matriculeAllocator.reserverNumeros(demandes.size());
+        return embaucheEmployes(demandes, premierNumero);
+    }
 
-        //On vérifie l'existence d'un employé avec ce matricule
-        if(employeRepository.findByMatricule(matricule) != null){
-            String errorMessage = "L'employé de matricule " + matricule + " existe déjà en BDD";
-            logger.error(errorMessage);
-            throw new EntityExistsException(errorMessage);
+    /**
+     * Variante d'embaucheEmployes dont les matricules ont déjà été réservés (MatriculeAllocator.reserverNumeros) :
+     * une promotion annulée peut être rejouée sur les mêmes matricules.
+     *
+     * @param demandes Les demandes d'embauche, les matricules sont attribués dans l'ordre de la liste
+     * @param premierNumero Le premier numéro de la plage réservée, attribué à la première demande
+     * @return Les employés embauchés
+     */
+    @Timed(value = "java350.employes.embauche", extraTags = {"mode", "groupe"}, description = "Temps d'embauche d'un employé")
+    @Transactional
+    public List<Employe> embaucheEmployes(List<DemandeEmbauche> demandes, int premierNumero) {
+        LocalDate dateEmbauche = LocalDate.now(clock);
+        List<Employe> employes = new ArrayList<>(demandes.size());
+        Map<String, Long> nbEmbauchesParType = new HashMap<>();
+        for (int i = 0; i < demandes.size(); i++) {
+            DemandeEmbauche demande = demandes.get(i);
+            String typeEmploye = demande.getPoste().name().substring(0,1);
+            String matricule = formaterMatricule(typeEmploye, premierNumero + i);
+            Double salaire = calculSalaire(demande.getNiveauEtude(), demande.getTempsPartiel());
+            employes.add(new Employe(demande.getNom(), demande.getPrenom(), matricule, dateEmbauche, salaire, Entreprise.PERFORMANCE_BASE, demande.getTempsPartiel()));
+            nbEmbauchesParType.merge(typeEmploye, 1L, Long::sum);
         }
 
-        //Calcul du salaire
+        List<Employe> embauches = employeRepository.insererParLots(employes);
+        for (Map.Entry<String, Long> embauchesDuType : nbEmbauchesParType.entrySet()) {
+            agregatPerformanceService.mettreAJour(embauchesDuType.getKey(), embauchesDuType.getValue() * Entreprise.PERFORMANCE_BASE, embauchesDuType.getValue());
+        }
+        for (Employe embauche : embauches) {
+            statistiquesService.ajouter(embauche);
+        }
+        versionDonneesService.signalerEcriture();
+        return embauches;
+    }
+
+    /**
+     * Construit le matricule en complétant le numéro avec des 0 à gauche
+     *
+     * @param typeEmploye la première lettre du poste
+     * @param numeroMatricule le numéro réservé
+     * @return le matricule, par exemple T00346
+     */
+    private String formaterMatricule(String typeEmploye, Integer numeroMatricule) {
+        String matricule = "00000" + numeroMatricule;
+        return typeEmploye + matricule.substring(matricule.length() - 5);
+    }
+
+    /**
+     * Calcul du salaire d'embauche à partir du niveau d'étude et au pro rata du temps partiel
+     *
+     * @param niveauEtude Le niveau d'étude de l'employé
+     * @param tempsPartiel Le pourcentage d'activité en cas de temps partiel
+     * @return le salaire arrondi au centime
+     */
+    static Double calculSalaire(NiveauEtude niveauEtude, Double tempsPartiel) {
         Double salaire = Entreprise.COEFF_SALAIRE_ETUDES.get(niveauEtude) * Entreprise.SALAIRE_BASE;
         if(tempsPartiel != null){
             salaire = salaire * tempsPartiel;
         }
-        salaire = Math.round(salaire*100d)/100d;
-
-        //Création et sauvegarde en BDD de l'employé.
-        Employe employe = new Employe(nom, prenom, matricule, LocalDate.now(), salaire, Entreprise.PERFORMANCE_BASE, tempsPartiel);
-
-        employeRepository.save(employe);
-
+        return Math.round(salaire*100d)/100d;
     }
 
 
@@ -94,49 +200,197 @@ public class EmployeService {
      * @param caTraite le chiffre d'affaire traité par le commercial pendant l'année
      * @param objectifCa l'object de chiffre d'affaire qui lui a été fixé
      *
+     * Le calcul est fait dans sa propre transaction, rejouée si le commercial a été modifié entre sa lecture et
+     * son enregistrement (voir ReessaiConflits).
+     *
      * @throws EmployeException Si le matricule est null ou ne commence pas par un C
      */
+    @Timed(value = "java350.employes.performance", description = "Temps de calcul de la performance d'un commercial")
     public void calculPerformanceCommercial(String matricule, Long caTraite, Long objectifCa) throws EmployeException {
 
         //Vérification des paramètres d'entrée
         verifyParameters(matricule, caTraite, objectifCa);
 
-        //Recherche de l'employé dans la base
-        Employe employe = employeRepository.findByMatricule(matricule);
-        if(employe == null){
-            String warnMessage = "Le matricule " + matricule + " n'existe pas !";
-            logger.warn(warnMessage);
-            throw new EmployeException(warnMessage);
+        reessaiConflits.executer("calculPerformanceCommercial", () -> {
+            //Recherche de l'employé dans la base
+            Employe employe = employeRepository.findByMatricule(matricule);
+            if(employe == null){
+                throw echecValidation(RaisonInvalidite.MATRICULE_INCONNU, matricule);
+            }
+
+            //Calcul de la performance moyenne et de la nouvelle performance
+            Double performanceMoyenne = agregatPerformanceService.performanceMoyenne("C");
+            Integer performance = calculPerformance(employe.getPerformance(), caTraite, objectifCa, performanceMoyenne);
+
+            //Affectation et sauvegarde, écrite tout de suite : un conflit de version est détecté avant de verrouiller
+            //la ligne de l'agrégat, qui sinon ferait attendre les transactions concurrentes pour rien
+            Integer anciennePerformance = employe.getPerformance();
+            StatistiquesPoste avant = StatistiquesPoste.de(employe);
+            employe.setPerformance(performance);
+            employeRepository.saveAndFlush(employe);
+            agregatPerformanceService.changerPerformance("C", anciennePerformance, performance);
+            statistiquesService.modifier(avant, employe);
+            versionDonneesService.signalerEcriture();
+            return null;
+        });
+    }
+
+    /**
+     * Valide en une fois les résultats de nombreux commerciaux, avant un calcul de performance en masse : les
+     * paramètres invalides sont détectés comme par calculPerformanceCommercial, les matricules inconnus par une
+     * requête par tranche de matricules. Aucune exception n'est levée et rien n'est journalisé par résultat
+     * invalide, les échecs sont seulement comptés dans la métrique java350.employes.echecs-validation.
+     *
+     * @param objectifs les résultats des commerciaux
+     * @return le rapport de validation, qui désigne les résultats invalides par leur position dans la liste
+     */
+    @Timed(value = "java350.employes.validation", description = "Temps de validation de résultats de commerciaux")
+    @Transactional(readOnly = true)
+    public RapportValidation validerObjectifs(List<ObjectifCommercial> objectifs) {
+        RapportValidation rapport = new RapportValidation(objectifs.size());
+        RaisonInvalidite[] raisons = new RaisonInvalidite[objectifs.size()];
+        Set<String> matricules = new HashSet<>();
+        for (int i = 0; i < objectifs.size(); i++) {
+            ObjectifCommercial objectif = objectifs.get(i);
+            raisons[i] = raisonInvalidite(objectif.getMatricule(), objectif.getCaTraite(), objectif.getObjectifCa());
+            if(raisons[i] == null){
+                matricules.add(objectif.getMatricule());
+            }
         }
 
-        Integer performance = Entreprise.PERFORMANCE_BASE;
+        Set<String> matriculesExistants = new HashSet<>(matricules.size());
+        List<String> tranche = new ArrayList<>(TAILLE_TRANCHE_MATRICULES);
+        for (String matricule : matricules) {
+            tranche.add(matricule);
+            if(tranche.size() == TAILLE_TRANCHE_MATRICULES){
+                matriculesExistants.addAll(employeRepository.findMatriculesExistants(tranche));
+                tranche.clear();
+            }
+        }
+        if(!tranche.isEmpty()){
+            matriculesExistants.addAll(employeRepository.findMatriculesExistants(tranche));
+        }
+
+        for (int i = 0; i < raisons.length; i++) {
+            if(raisons[i] == null && !matriculesExistants.contains(objectifs.get(i).getMatricule())){
+                raisons[i] = RaisonInvalidite.MATRICULE_INCONNU;
+            }
+            if(raisons[i] != null){
+                rapport.ajouter(i, raisons[i]);
+            }
+        }
+        for (RaisonInvalidite raison : RaisonInvalidite.values()) {
+            if(rapport.getNbInvalides(raison) > 0){
+                meterRegistry.counter("java350.employes.echecs-validation", "raison", raison.getCode()).increment(rapport.getNbInvalides(raison));
+            }
+        }
+        logger.info("Validation de {} résultats de commerciaux : {} invalides", rapport.getNbObjectifs(), rapport.getNbInvalides());
+        return rapport;
+    }
+
+    /**
+     * Augmente le salaire de tous les employés sélectionnés par le filtre, avec les règles d'Employe.augmenterSalaire
+     * (augmentation plafonnée au salaire maximum), par une seule requête en base sans charger les employés.
+     *
+     * @param filtre la population concernée
+     * @param pourcentage de l'augmentation
+     * @return le nombre d'employés augmentés
+     *
+     * @throws IllegalArgumentException si le pourcentage est null, négatif ou supérieur ou égal à 50
+     */
+    @Timed(value = "java350.employes.augmentation", description = "Temps d'une augmentation de salaire de masse")
+    @Transactional
+    public int augmenterSalaires(FiltreEmployes filtre, Double pourcentage) {
+        Employe.verifierPourcentageAugmentation(pourcentage);
+        if(!(pourcentage > 0.0)){
+            //Augmentation nulle : aucun salaire n'est modifié, comme pour Employe.augmenterSalaire
+            return 0;
+        }
+        ContexteCalcul contexte = ContexteCalcul.de(clock);
+        //Masse salariale des statistiques par poste : hausse calculée sur les seuls employés augmentés, dans la
+        //même transaction que l'augmentation
+        Map<String, Double> hausses = employeRepository.hausseSalairesParType(filtre, pourcentage / 100, contexte);
+        int nbEmployes = employeRepository.augmenterSalaires(filtre, pourcentage / 100, contexte);
+        if(nbEmployes > 0){
+            for (Map.Entry<String, Double> hausse : hausses.entrySet()) {
+                Poste poste = StatistiquesPoste.posteDe(hausse.getKey());
+                if(poste != null){
+                    statistiquesService.modifierMasseSalariale(poste, hausse.getValue());
+                }
+            }
+            versionDonneesService.signalerEcriture();
+        }
+        logger.info("Augmentation de {}% appliquée à {} employés ({})", pourcentage, nbEmployes, filtre);
+        return nbEmployes;
+    }
+
+    /**
+     * Règles de calcul de la performance d'un commercial, décrites sur calculPerformanceCommercial
+     *
+     * @param performanceActuelle la performance du commercial avant le calcul, la performance de base si elle est null
+     * @param caTraite le chiffre d'affaire traité par le commercial pendant l'année
+     * @param objectifCa l'object de chiffre d'affaire qui lui a été fixé
+     * @param performanceMoyenne la performance moyenne des commerciaux, null s'il n'y en a aucun
+     * @return la nouvelle performance du commercial
+     */
+    static Integer calculPerformance(Integer performanceActuelle, Long caTraite, Long objectifCa, Double performanceMoyenne) {
+        return nouvellePerformance(performanceActuelle == null ? Entreprise.PERFORMANCE_BASE : performanceActuelle, caTraite, objectifCa,
+                performanceMoyenne == null ? Double.NaN : performanceMoyenne);
+    }
+
+    /**
+     * Règles de calcul de la performance d'un commercial sur des types primitifs, pour les calculs de masse
+     *
+     * @param performanceMoyenne la performance moyenne des commerciaux, NaN s'il n'y en a aucun
+     */
+    static int nouvellePerformance(int performanceActuelle, long caTraite, long objectifCa, double performanceMoyenne) {
+        int performance = Entreprise.PERFORMANCE_BASE;
         //Cas 2
         if(caTraite >= objectifCa*0.8 && caTraite < objectifCa*0.95){
-            performance = Math.max(Entreprise.PERFORMANCE_BASE, employe.getPerformance() - 2);
+            performance = Math.max(Entreprise.PERFORMANCE_BASE, performanceActuelle - 2);
         }
         //Cas 3
         else if(caTraite >= objectifCa*0.95 && caTraite <= objectifCa*1.05){
-            performance = Math.max(Entreprise.PERFORMANCE_BASE, employe.getPerformance());
+            performance = Math.max(Entreprise.PERFORMANCE_BASE, performanceActuelle);
         }
         //Cas 4
         else if(caTraite <= objectifCa*1.2 && caTraite > objectifCa*1.05){
-            performance = employe.getPerformance() + 1;
+            performance = performanceActuelle + 1;
         }
         //Cas 5
         else if(caTraite > objectifCa*1.2){
-            performance = employe.getPerformance() + 4;
+            performance = performanceActuelle + 4;
         }
         //Si autre cas, on reste à la performance de base.
 
-        //Calcul de la performance moyenne
-        Double performanceMoyenne = employeRepository.avgPerformanceWhereMatriculeStartsWith("C");
-        if(performanceMoyenne != null && performance > performanceMoyenne){
+        //Comparaison toujours fausse avec NaN : pas de bonus sans moyenne
+        if(performance > performanceMoyenne){
             performance++;
         }
+        return performance;
+    }
 
-        //Affectation et sauvegarde
-        employe.setPerformance(performance);
-        employeRepository.save(employe);
+    /**
+     * @return true si les paramètres d'un calcul de performance sont valides, sans journaliser ni lever d'exception
+     */
+    static boolean parametresValides(String matricule, Long caTraite, Long objectifCa) {
+        return raisonInvalidite(matricule, caTraite, objectifCa) == null;
+    }
+
+    /**
+     * @return la raison pour laquelle les paramètres d'un calcul de performance sont invalides, null s'ils sont valides
+     */
+    static RaisonInvalidite raisonInvalidite(String matricule, Long caTraite, Long objectifCa) {
+        if(caTraite == null || caTraite < 0){
+            return RaisonInvalidite.CA_INVALIDE;
+        }
+        else if(objectifCa == null || objectifCa < 0){
+            return RaisonInvalidite.OBJECTIF_INVALIDE;
+        }
+        else if(matricule == null || !matricule.startsWith("C")){
+            return RaisonInvalidite.MATRICULE_INVALIDE;
+        }
+        return null;
     }
 
     /**
@@ -147,21 +401,22 @@ public class EmployeService {
      * @param objectifCa
      */
     private void verifyParameters(String matricule, Long caTraite, Long objectifCa) throws EmployeException{
-
-        if(caTraite == null || caTraite < 0){
-            String warnMessage = "Le chiffre d'affaire traité ne peut être négatif ou null !";
-            logger.warn(warnMessage);
-            throw new EmployeException(warnMessage);
-        }
-        else if(objectifCa == null || objectifCa < 0){
-            String warnMessage = "L'objectif de chiffre d'affaire ne peut être négatif ou null !";
-            logger.warn(warnMessage);
-            throw new EmployeException(warnMessage);
-        }
-        else if(matricule == null || !matricule.startsWith("C")){
-            String warnMessage = "Le matricule ne peut être null et doit commencer par un C !";
-            logger.warn(warnMessage);
-            throw new EmployeException(warnMessage);
+        RaisonInvalidite raison = raisonInvalidite(matricule, caTraite, objectifCa);
+        if(raison != null){
+            throw echecValidation(raison, null);
         }
     }
+
+    /**
+     * Journalise un échec de validation et le compte dans la métrique java350.employes.echecs-validation
+     *
+     * @param raison la raison de l'échec
+     * @param argument le paramètre du message de la raison, null s'il n'en a pas
+     * @return l'exception à lever, sans pile d'appels
+     */
+    private EmployeException echecValidation(RaisonInvalidite raison, Object argument) {
+        journal.avertissement(JournalEvenements.ECHEC_VALIDATION, raison.getCode(), raison.getMessage(), argument);
+        meterRegistry.counter("java350.employes.echecs-validation", "raison", raison.getCode()).increment();
+        return EmployeException.sansPileAppels(MessageFormatter.format(raison.getMessage(), argument).getMessage());
+    }
 }
@@ -0,0 +1,188 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.model.ContexteCalcul;
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Export CSV (séparateur ;) des éléments de paie de tout l'effectif.
+ *
+ * Les employés sont lus en flux et détachés au fil de l'eau, chaque ligne est encodée dans un tampon d'octets
+ * réutilisé puis écrite sur le canal : la mémoire consommée est constante quel que soit le nombre d'employés.
+ */
+@Service
+public class ExportPaieService {
+
+    static final String ENTETE = "matricule;nom;prenom;dateEmbauche;salaire;performance;tempsPartiel;anciennete;nbConges;nbRtt;primeAnnuelle";
+
+    private static final int TAILLE_TAMPON = 64 * 1024;
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    @Autowired(required = false)
+    private Clock clock = Clock.systemDefaultZone();
+
+    @Value("${java350.export.taille-fetch:1000}")
+    private int tailleFetch;
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /**
+     * @param fichier le fichier CSV à créer ou remplacer
+     * @return le nombre d'employés exportés
+     */
+    @Transactional(readOnly = true)
+    public long exporter(Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return exporter(canal);
+        }
+    }
+
+    /**
+     * Exporte tout l'effectif sur le canal, qui n'est pas fermé. Tous les calculs sont faits à la même date de référence.
+     *
+     * @param canal le canal de destination
+     * @return le nombre d'employés exportés
+     */
+    @Transactional(readOnly = true)
+    public long exporter(WritableByteChannel canal) throws IOException {
+        ContexteCalcul contexte = ContexteCalcul.de(clock);
+        CharsetEncoder encodeur = StandardCharsets.UTF_8.newEncoder();
+        ByteBuffer tampon = ByteBuffer.allocateDirect(TAILLE_TAMPON);
+        StringBuilder ligne = new StringBuilder(256);
+
+        ligne.append(ENTETE).append('\n');
+        ecrire(ligne, encodeur, tampon, canal);
+
+        long nbEmployes = 0;
+        try (Stream<Employe> employes = employeRepository.streamerTous(tailleFetch)) {
+            Iterator<Employe> iterator = employes.iterator();
+            while (iterator.hasNext()) {
+                formater(iterator.next(), contexte, ligne);
+                ecrire(ligne, encodeur, tampon, canal);
+                nbEmployes++;
+            }
+        }
+        tampon.flip();
+        while (tampon.hasRemaining()) {
+            canal.write(tampon);
+        }
+        logger.info("Export de la paie au {} : {} employés", contexte.getDateReference(), nbEmployes);
+        return nbEmployes;
+    }
+
+    static void formater(Employe employe, ContexteCalcul contexte, StringBuilder ligne) {
+        ligne.setLength(0);
+        texte(ligne, employe.getMatricule()).append(';');
+        texte(ligne, employe.getNom()).append(';');
+        texte(ligne, employe.getPrenom()).append(';');
+        if(employe.getDateEmbauche() != null){
+            ligne.append(employe.getDateEmbauche());
+        }
+        ligne.append(';');
+        montant(ligne, employe.getSalaire()).append(';');
+        if(employe.getPerformance() != null){
+            ligne.append(employe.getPerformance().intValue());
+        }
+        ligne.append(';');
+        if(employe.getTempsPartiel() != null){
+            ligne.append(employe.getTempsPartiel().doubleValue());
+            ligne.append(';').append(employe.getNombreAnneeAnciennete(contexte));
+            ligne.append(';').append(employe.getNbConges(contexte).intValue());
+            ligne.append(';').append(employe.getNbRtt(contexte).doubleValue());
+            ligne.append(';');
+            montant(ligne, employe.getPrimeAnnuelle(contexte));
+        }
+        else {
+            //Sans temps partiel, ni RTT ni prime ne peuvent être calculés
+            ligne.append(';').append(employe.getNombreAnneeAnciennete(contexte));
+            ligne.append(';').append(employe.getNbConges(contexte).intValue());
+            ligne.append(";;");
+        }
+        ligne.append('\n');
+    }
+
+    /**
+     * Montant arrondi au centime, sans passer par un formateur
+     */
+    private static StringBuilder montant(StringBuilder ligne, Double montant) {
+        if(montant == null){
+            return ligne;
+        }
+        long centimes = Math.round(montant * 100);
+        if(centimes < 0){
+            ligne.append('-');
+            centimes = -centimes;
+        }
+        long reste = centimes % 100;
+        return ligne.append(centimes / 100).append('.').append(reste < 10 ? "0" : "").append(reste);
+    }
+
+    /**
+     * Texte entre guillemets s'il contient un séparateur, un guillemet ou un retour à la ligne
+     */
+    private static StringBuilder texte(StringBuilder ligne, String texte) {
+        if(texte == null){
+            return ligne;
+        }
+        boolean aProteger = false;
+        for (int i = 0; i < texte.length() && !aProteger; i++) {
+            char c = texte.charAt(i);
+            aProteger = c == ';' || c == '"' || c == '\n' || c == '\r';
+        }
+        if(!aProteger){
+            return ligne.append(texte);
+        }
+        ligne.append('"');
+        for (int i = 0; i < texte.length(); i++) {
+            char c = texte.charAt(i);
+            if(c == '"'){
+                ligne.append('"');
+            }
+            ligne.append(c);
+        }
+        return ligne.append('"');
+    }
+
+    private static void ecrire(StringBuilder ligne, CharsetEncoder encodeur, ByteBuffer tampon, WritableByteChannel canal) throws IOException {
+        CharBuffer caracteres = CharBuffer.wrap(ligne);
+        encodeur.reset();
+        while (true) {
+            CoderResult resultat = encodeur.encode(caracteres, tampon, true);
+            if(resultat.isOverflow()){
+                tampon.flip();
+                while (tampon.hasRemaining()) {
+                    canal.write(tampon);
+                }
+                tampon.clear();
+            }
+            else if(resultat.isUnderflow()){
+                return;
+            }
+            else {
+                resultat.throwException();
+            }
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.Entreprise;
+import com.ipiecoles.java.java350.model.NiveauEtude;
+import com.ipiecoles.java.java350.model.Poste;
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Pattern;
+
+/**
+ * Import d'employés depuis un fichier CSV issu d'un ancien SIRH, en conservant leurs matricules.
+ *
+ * Format (séparateur ;, ligne d'en-tête facultative) :
+ * matricule;nom;prenom;poste;niveauEtude;tempsPartiel;dateEmbauche;salaire;performance
+ * Le salaire et la performance sont facultatifs : à défaut, salaire d'embauche selon le niveau d'étude et
+ * performance de base.
+ *
+ * Trois étapes travaillent en parallèle, reliées par des files bornées de lots d'enregistrements : lecture du
+ * fichier projeté en mémoire, validation, puis enregistrement par lots JDBC avec une transaction par lot. Un
+ * enregistrement invalide ou dont le matricule existe déjà est rejeté avec son numéro de ligne, sans interrompre
+ * l'import. Les lots enregistrés avant une éventuelle erreur technique le restent.
+ *
+ * Les numéros d'un lot sont réservés auprès du MatriculeAllocator avant son enregistrement : les embauches
+ * concurrentes ne les reçoivent plus. Les blocs déjà loués par d'autres instances ne sont pas repris : un import
+ * dont les matricules peuvent s'y trouver doit avoir lieu quand ces instances n'embauchent pas.
+ */
+@Service
+public class ImportEmployesService {
+
+    static final String ENTETE = "matricule;nom;prenom;poste;niveauEtude;tempsPartiel;dateEmbauche;salaire;performance";
+
+    private static final int NB_COLONNES = 9;
+
+    private static final int CAPACITE_FILES = 8;
+
+    private static final Pattern FORMAT_MATRICULE = Pattern.compile("[TMC][0-9]{5}");
+
+    private static final Map<String, Poste> POSTES = new HashMap<>();
+
+    private static final Map<String, NiveauEtude> NIVEAUX_ETUDE = new HashMap<>();
+
+    /**
+     * Marqueurs de fin des files entre étapes
+     */
+    private static final List<LigneCsv> FIN_LECTURE = new ArrayList<>();
+
+    private static final LotValide FIN_VALIDATION = new LotValide(0);
+
+    static {
+        for (Poste poste : Poste.values()) {
+            POSTES.put(poste.name(), poste);
+        }
+        for (NiveauEtude niveauEtude : NiveauEtude.values()) {
+            NIVEAUX_ETUDE.put(niveauEtude.name(), niveauEtude);
+        }
+    }
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    @Autowired
+    private MatriculeAllocator matriculeAllocator;
+
+    @Autowired
+    private AgregatPerformanceService agregatPerformanceService;
+
+    @Autowired
+    private StatistiquesService statistiquesService;
+
+    @Autowired
+    private VersionDonneesService versionDonneesService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${java350.import.taille-lot:1000}")
+    private int tailleLot;
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /**
+     * @param fichier le fichier CSV à importer
+     * @return le bilan de l'import, avec une erreur par enregistrement rejeté
+     * @throws IOException si le fichier ne peut pas être lu
+     */
+    public RapportImport importer(Path fichier) throws IOException {
+        logger.info("Début de l'import des employés du fichier {}", fichier);
+        BlockingQueue<List<LigneCsv>> lignesLues = new ArrayBlockingQueue<>(CAPACITE_FILES);
+        BlockingQueue<LotValide> lotsValides = new ArrayBlockingQueue<>(CAPACITE_FILES);
+        ExecutorService lecture = Executors.newSingleThreadExecutor(r -> new Thread(r, "import-employes-lecture"));
+        ExecutorService validation = Executors.newSingleThreadExecutor(r -> new Thread(r, "import-employes-validation"));
+        RapportImport rapport = new RapportImport();
+        try {
+            Future<?> resultatLecture = lecture.submit(() -> {
+                lire(fichier, lignesLues);
+                return null;
+            });
+            Future<?> resultatValidation = validation.submit(() -> {
+                valider(lignesLues, lotsValides);
+                return null;
+            });
+            enregistrer(lotsValides, rapport);
+            //La validation d'abord : si elle a échoué, la lecture peut être bloquée sur une file pleine
+            resultatValidation.get();
+            resultatLecture.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import du fichier " + fichier + " interrompu", e);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof IOException){
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("Erreur lors de l'import du fichier " + fichier, e.getCause());
+        } finally {
+            lecture.shutdownNow();
+            validation.shutdownNow();
+        }
+        rapport.trierErreurs();
+        logger.info("Fin de l'import du fichier {} : {} enregistrements lus, {} importés, {} rejetés",
+                fichier, rapport.getNbLus(), rapport.getNbImportes(), rapport.getNbRejetes());
+        return rapport;
+    }
+
+    /**
+     * Étape 1 : découpage du fichier en enregistrements, regroupés par lots
+     */
+    private void lire(Path fichier, BlockingQueue<List<LigneCsv>> sortie) throws IOException, InterruptedException {
+        try (LecteurCsv lecteur = new LecteurCsv(fichier)) {
+            List<LigneCsv> lot = new ArrayList<>(tailleLot);
+            String[] champs;
+            boolean premier = true;
+            while ((champs = lecteur.lireEnregistrement()) != null) {
+                if(premier && "matricule".equalsIgnoreCase(champs[0].trim())){
+                    premier = false;
+                    continue;
+                }
+                premier = false;
+                lot.add(new LigneCsv(lecteur.getNumeroLigne(), champs));
+                if(lot.size() == tailleLot){
+                    sortie.put(lot);
+                    lot = new ArrayList<>(tailleLot);
+                }
+            }
+            if(!lot.isEmpty()){
+                sortie.put(lot);
+            }
+        } finally {
+            sortie.put(FIN_LECTURE);
+        }
+    }
+
+    /**
+     * Étape 2 : contrôle des enregistrements et construction des employés
+     */
+    private void valider(BlockingQueue<List<LigneCsv>> entree, BlockingQueue<LotValide> sortie) throws InterruptedException {
+        Set<String> matriculesVus = new HashSet<>();
+        try {
+            List<LigneCsv> lignes;
+            while ((lignes = entree.take()) != FIN_LECTURE) {
+                LotValide lot = new LotValide(lignes.size());
+                for (LigneCsv ligne : lignes) {
+                    String erreur = valider(ligne.champs);
+                    if(erreur == null && !matriculesVus.add(ligne.champs[0])){
+                        erreur = "Matricule présent plusieurs fois dans le fichier";
+                    }
+                    if(erreur == null){
+                        lot.ajouter(ligne.numero, convertir(ligne.champs));
+                    }
+                    else {
+                        lot.erreurs.add(new RapportImport.Erreur(ligne.numero, ligne.champs[0], erreur));
+                    }
+                }
+                sortie.put(lot);
+            }
+        } finally {
+            sortie.put(FIN_VALIDATION);
+        }
+    }
+
+    /**
+     * @param champs les champs d'un enregistrement
+     * @return le motif de rejet, null si l'enregistrement est valide
+     */
+    static String valider(String[] champs) {
+        if(champs.length != NB_COLONNES){
+            return "Nombre de colonnes incorrect : " + champs.length + " au lieu de " + NB_COLONNES;
+        }
+        String matricule = champs[0];
+        if(!FORMAT_MATRICULE.matcher(matricule).matches()){
+            return "Matricule invalide : " + matricule;
+        }
+        if(champs[1].trim().isEmpty()){
+            return "Le nom est obligatoire";
+        }
+        Poste poste = POSTES.get(champs[3]);
+        if(poste == null){
+            return "Poste inconnu : " + champs[3];
+        }
+        if(matricule.charAt(0) != poste.name().charAt(0)){
+            return "Le matricule " + matricule + " ne correspond pas au poste " + poste;
+        }
+        if(!NIVEAUX_ETUDE.containsKey(champs[4])){
+            return "Niveau d'étude inconnu : " + champs[4];
+        }
+        try {
+            double tempsPartiel = Double.parseDouble(champs[5]);
+            if(!(tempsPartiel > 0.0 && tempsPartiel <= 1.0)){
+                return "Le temps partiel doit être compris entre 0 exclu et 1 : " + champs[5];
+            }
+        } catch (NumberFormatException e) {
+            return "Temps partiel invalide : " + champs[5];
+        }
+        try {
+            LocalDate.parse(champs[6]);
+        } catch (DateTimeParseException e) {
+            return "Date d'embauche invalide : " + champs[6];
+        }
+        if(!champs[7].isEmpty()){
+            try {
+                if(!(Double.parseDouble(champs[7]) > 0.0)){
+                    return "Le salaire doit être positif : " + champs[7];
+                }
+            } catch (NumberFormatException e) {
+                return "Salaire invalide : " + champs[7];
+            }
+        }
+        if(!champs[8].isEmpty()){
+            try {
+                if(Integer.parseInt(champs[8]) < Entreprise.PERFORMANCE_BASE){
+                    return "La performance doit être au moins égale à " + Entreprise.PERFORMANCE_BASE + " : " + champs[8];
+                }
+            } catch (NumberFormatException e) {
+                return "Performance invalide : " + champs[8];
+            }
+        }
+        return null;
+    }
+
+    private static Employe convertir(String[] champs) {
+        NiveauEtude niveauEtude = NIVEAUX_ETUDE.get(champs[4]);
+        Double tempsPartiel = Double.valueOf(champs[5]);
+        Double salaire = champs[7].isEmpty() ? EmployeService.calculSalaire(niveauEtude, tempsPartiel) : Double.valueOf(champs[7]);
+        Integer performance = champs[8].isEmpty() ? Entreprise.PERFORMANCE_BASE : Integer.valueOf(champs[8]);
+        return new Employe(champs[1].trim(), champs[2].trim(), champs[0], LocalDate.parse(champs[6]), salaire, performance, tempsPartiel);
+    }
+
+    /**
+     * Étape 3 : enregistrement des employés valides, une transaction par lot.
+     *
+     * Les matricules déjà attribués sont chargés une fois au début de l'import (l'espace des matricules ne compte
+     * que 3 x 100000 numéros). Si un lot se heurte malgré tout à l'index unique du matricule, par exemple à cause
+     * d'une embauche concurrente, il est rejoué en vérifiant ses matricules en base.
+     */
+    private void enregistrer(BlockingQueue<LotValide> entree, RapportImport rapport) throws InterruptedException {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        BitSet matriculesAttribues = new BitSet(3 * 100000);
+        for (String matricule : employeRepository.findAllMatricules()) {
+            int index = indexMatricule(matricule);
+            if(index >= 0){
+                matriculesAttribues.set(index);
+            }
+        }
+
+        int dernierNumeroReserve = 0;
+        LotValide lot;
+        while ((lot = entree.take()) != FIN_VALIDATION) {
+            rapport.ajouterLus((long) lot.employes.size() + lot.erreurs.size());
+            rapport.ajouterErreurs(lot.erreurs);
+            if(lot.employes.isEmpty()){
+                continue;
+            }
+            //Les matricules importés ne doivent pas être attribués par une embauche
+            int dernierNumero = 0;
+            for (Employe employe : lot.employes) {
+                dernierNumero = Math.max(dernierNumero, Integer.parseInt(employe.getMatricule().substring(1)));
+            }
+            if(dernierNumero > dernierNumeroReserve){
+                matriculeAllocator.reserverJusqua(dernierNumero);
+                dernierNumeroReserve = dernierNumero;
+            }
+            LotValide lotAEnregistrer = lot;
+            try {
+                transactionTemplate.execute(status -> {
+                    enregistrer(lotAEnregistrer, rapport, matriculesAttribues, false);
+                    return null;
+                });
+            } catch (DataIntegrityViolationException e) {
+                logger.warn("Matricule déjà attribué dans le lot commençant ligne {}, vérification en base", lot.numerosLigne.get(0));
+                for (Employe employe : lot.employes) {
+                    employe.setId(null);
+                }
+                transactionTemplate.execute(status -> {
+                    enregistrer(lotAEnregistrer, rapport, matriculesAttribues, true);
+                    return null;
+                });
+            }
+        }
+    }
+
+    private void enregistrer(LotValide lot, RapportImport rapport, BitSet matriculesAttribues, boolean verifierEnBase) {
+        Set<String> existants = Collections.emptySet();
+        if(verifierEnBase){
+            List<String> matricules = new ArrayList<>(lot.employes.size());
+            for (Employe employe : lot.employes) {
+                matricules.add(employe.getMatricule());
+            }
+            existants = new HashSet<>(employeRepository.findMatriculesExistants(matricules));
+        }
+
+        List<Employe> nouveaux = new ArrayList<>(lot.employes.size());
+        List<RapportImport.Erreur> erreurs = new ArrayList<>();
+        Map<String, long[]> agregats = new HashMap<>();
+        for (int i = 0; i < lot.employes.size(); i++) {
+            Employe employe = lot.employes.get(i);
+            if(matriculesAttribues.get(indexMatricule(employe.getMatricule())) || existants.contains(employe.getMatricule())){
+                erreurs.add(new RapportImport.Erreur(lot.numerosLigne.get(i), employe.getMatricule(), "Le matricule " + employe.getMatricule() + " existe déjà"));
+                continue;
+            }
+            nouveaux.add(employe);
+            long[] agregat = agregats.computeIfAbsent(employe.getMatricule().substring(0, 1), type -> new long[2]);
+            agregat[0] += employe.getPerformance();
+            agregat[1]++;
+        }
+
+        employeRepository.insererParLots(nouveaux);
+        for (Map.Entry<String, long[]> agregat : agregats.entrySet()) {
+            agregatPerformanceService.mettreAJour(agregat.getKey(), agregat.getValue()[0], agregat.getValue()[1]);
+        }
+        for (Employe employe : nouveaux) {
+            statistiquesService.ajouter(employe);
+        }
+        if(!nouveaux.isEmpty()){
+            versionDonneesService.signalerEcriture();
+        }
+        //Le lot n'est comptabilisé qu'une fois les insertions envoyées à la base
+        for (Employe employe : nouveaux) {
+            matriculesAttribues.set(indexMatricule(employe.getMatricule()));
+        }
+        rapport.ajouterImportes(nouveaux.size());
+        rapport.ajouterErreurs(erreurs);
+    }
+
+    /**
+     * @return la position du matricule dans l'espace des matricules (T, M puis C), -1 s'il n'a pas le format attendu
+     */
+    private static int indexMatricule(String matricule) {
+        if(matricule == null || !FORMAT_MATRICULE.matcher(matricule).matches()){
+            return -1;
+        }
+        return "TMC".indexOf(matricule.charAt(0)) * 100000 + Integer.parseInt(matricule.substring(1));
+    }
+
+    private static class LigneCsv {
+
+        private final int numero;
+
+        private final String[] champs;
+
+        LigneCsv(int numero, String[] champs) {
+            this.numero = numero;
+            this.champs = champs;
+        }
+    }
+
+    private static class LotValide {
+
+        private final List<Employe> employes;
+
+        private final List<Integer> numerosLigne;
+
+        private final List<RapportImport.Erreur> erreurs = new ArrayList<>();
+
+        LotValide(int taille) {
+            this.employes = new ArrayList<>(taille);
+            this.numerosLigne = new ArrayList<>(taille);
+        }
+
+        void ajouter(int numeroLigne, Employe employe) {
+            employes.add(employe);
+            numerosLigne.add(numeroLigne);
+        }
+    }
+}
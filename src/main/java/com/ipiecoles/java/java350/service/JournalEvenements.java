@@ -0,0 +1,88 @@
+package com.ipiecoles.java.java350.service;
+
+import org.slf4j.Logger;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Journalisation d'événements métier : chaque événement porte un marqueur (son type, repris dans le journal),
+ * son message est paramétré et n'est donc formaté que s'il est écrit, par le rédacteur asynchrone de logback.xml.
+ *
+ * Les avertissements répétés sont limités : pour une même clé, au plus maxParFenetre avertissements sont écrits
+ * par fenêtre de temps, le nombre d'avertissements supprimés est écrit à l'ouverture de la fenêtre suivante.
+ * Les clés doivent appartenir à un ensemble borné (une raison d'échec par exemple, jamais un matricule).
+ */
+public class JournalEvenements {
+
+    public static final Marker ECHEC_VALIDATION = MarkerFactory.getMarker("ECHEC_VALIDATION");
+
+    private final Logger logger;
+
+    private final int maxParFenetre;
+
+    private final long dureeFenetre;
+
+    private final LongSupplier horloge;
+
+    private final ConcurrentMap<String, Fenetre> fenetres = new ConcurrentHashMap<>();
+
+    /**
+     * @param logger le logger des événements
+     * @param maxParFenetre le nombre maximum d'avertissements écrits par clé et par fenêtre
+     * @param dureeFenetreMillis la durée d'une fenêtre en millisecondes
+     */
+    public JournalEvenements(Logger logger, int maxParFenetre, long dureeFenetreMillis) {
+        this(logger, maxParFenetre, dureeFenetreMillis, System::nanoTime);
+    }
+
+    JournalEvenements(Logger logger, int maxParFenetre, long dureeFenetreMillis, LongSupplier horloge) {
+        this.logger = logger;
+        this.maxParFenetre = maxParFenetre;
+        this.dureeFenetre = TimeUnit.MILLISECONDS.toNanos(dureeFenetreMillis);
+        this.horloge = horloge;
+    }
+
+    public void avertissement(Marker evenement, String cle, String format, Object argument) {
+        if(logger.isWarnEnabled(evenement) && autoriser(evenement, cle)){
+            logger.warn(evenement, format, argument);
+        }
+    }
+
+    public void avertissement(Marker evenement, String cle, String format, Object argument1, Object argument2) {
+        if(logger.isWarnEnabled(evenement) && autoriser(evenement, cle)){
+            logger.warn(evenement, format, argument1, argument2);
+        }
+    }
+
+    private boolean autoriser(Marker evenement, String cle) {
+        long maintenant = horloge.getAsLong();
+        Fenetre fenetre = fenetres.get(cle);
+        if(fenetre == null || maintenant - fenetre.debut >= dureeFenetre){
+            Fenetre nouvelle = new Fenetre(maintenant);
+            boolean ouverte = fenetre == null ? fenetres.putIfAbsent(cle, nouvelle) == null : fenetres.replace(cle, fenetre, nouvelle);
+            if(ouverte && fenetre != null && fenetre.nb.get() > maxParFenetre){
+                logger.warn(evenement, "{} avertissements {} supprimés", fenetre.nb.get() - maxParFenetre, cle);
+            }
+            //Fenêtre ouverte par ce thread ou par un autre au même moment
+            fenetre = fenetres.get(cle);
+        }
+        return fenetre.nb.incrementAndGet() <= maxParFenetre;
+    }
+
+    private static class Fenetre {
+
+        private final long debut;
+
+        private final AtomicInteger nb = new AtomicInteger();
+
+        Fenetre(long debut) {
+            this.debut = debut;
+        }
+    }
+}
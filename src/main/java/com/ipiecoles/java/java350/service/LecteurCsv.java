@@ -0,0 +1,151 @@
+package com.ipiecoles.java.java350.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lecture d'un fichier CSV (séparateur ;, champs éventuellement entre guillemets) projeté en mémoire par fenêtres
+ * successives. Les octets d'un enregistrement sont accumulés dans un tampon réutilisé, un enregistrement pouvant
+ * chevaucher deux fenêtres ou contenir des retours à la ligne entre guillemets.
+ */
+class LecteurCsv implements Closeable {
+
+    private static final long TAILLE_FENETRE = 64L * 1024 * 1024;
+
+    private final FileChannel canal;
+
+    private final long tailleFichier;
+
+    private long debutFenetre;
+
+    private MappedByteBuffer fenetre;
+
+    private byte[] enregistrement = new byte[1024];
+
+    private int numeroLigneSuivante = 1;
+
+    private int numeroLigne;
+
+    LecteurCsv(Path fichier) throws IOException {
+        this.canal = FileChannel.open(fichier, StandardOpenOption.READ);
+        this.tailleFichier = canal.size();
+        this.debutFenetre = 0;
+        mapperFenetre();
+        //Marque d'ordre des octets UTF-8 éventuelle
+        if(fenetre.remaining() >= 3 && fenetre.get(0) == (byte) 0xEF && fenetre.get(1) == (byte) 0xBB && fenetre.get(2) == (byte) 0xBF){
+            fenetre.position(3);
+        }
+    }
+
+    /**
+     * @return le numéro de la ligne du fichier sur laquelle commence le dernier enregistrement lu
+     */
+    int getNumeroLigne() {
+        return numeroLigne;
+    }
+
+    /**
+     * @return les champs de l'enregistrement suivant, null en fin de fichier. Les lignes vides sont ignorées.
+     */
+    String[] lireEnregistrement() throws IOException {
+        while (true) {
+            numeroLigne = numeroLigneSuivante;
+            int longueur = 0;
+            boolean entreGuillemets = false;
+            boolean finDeFichier = true;
+            while (fenetre.hasRemaining() || mapperFenetreSuivante()) {
+                byte octet = fenetre.get();
+                if(octet == '\n'){
+                    numeroLigneSuivante++;
+                    if(!entreGuillemets){
+                        finDeFichier = false;
+                        break;
+                    }
+                }
+                else if(octet == '"'){
+                    entreGuillemets = !entreGuillemets;
+                }
+                if(longueur == enregistrement.length){
+                    enregistrement = Arrays.copyOf(enregistrement, longueur * 2);
+                }
+                enregistrement[longueur++] = octet;
+            }
+            if(longueur > 0 && enregistrement[longueur - 1] == '\r'){
+                longueur--;
+            }
+            if(longueur > 0){
+                return decouper(enregistrement, longueur);
+            }
+            if(finDeFichier){
+                return null;
+            }
+        }
+    }
+
+    static String[] decouper(byte[] octets, int longueur) {
+        List<String> champs = new ArrayList<>(12);
+        int i = 0;
+        while (true) {
+            if(i < longueur && octets[i] == '"'){
+                //Champ entre guillemets, "" représente un guillemet
+                byte[] champ = new byte[longueur - i];
+                int taille = 0;
+                i++;
+                while (i < longueur) {
+                    if(octets[i] == '"'){
+                        if(i + 1 < longueur && octets[i + 1] == '"'){
+                            champ[taille++] = '"';
+                            i += 2;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    champ[taille++] = octets[i++];
+                }
+                champs.add(new String(champ, 0, taille, StandardCharsets.UTF_8));
+                while (i < longueur && octets[i] != ';') {
+                    i++;
+                }
+            }
+            else {
+                int debut = i;
+                while (i < longueur && octets[i] != ';') {
+                    i++;
+                }
+                champs.add(new String(octets, debut, i - debut, StandardCharsets.UTF_8));
+            }
+            if(i >= longueur){
+                return champs.toArray(new String[0]);
+            }
+            //Séparateur
+            i++;
+        }
+    }
+
+    private boolean mapperFenetreSuivante() throws IOException {
+        if(debutFenetre + fenetre.capacity() >= tailleFichier){
+            return false;
+        }
+        debutFenetre += fenetre.capacity();
+        mapperFenetre();
+        return true;
+    }
+
+    private void mapperFenetre() throws IOException {
+        fenetre = canal.map(FileChannel.MapMode.READ_ONLY, debutFenetre, Math.min(TAILLE_FENETRE, tailleFichier - debutFenetre));
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
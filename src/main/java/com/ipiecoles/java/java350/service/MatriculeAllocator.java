@@ -0,0 +1,234 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.exception.EmployeException;
+import com.ipiecoles.java.java350.repository.CompteurMatriculesRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+/**
+ * Distributeur des numéros de matricule.
+ *
+ * Les instances de l'application qui partagent une même base louent des blocs de numéros consécutifs
+ * (java350.matricules.taille-bloc) dans le compteur CompteurMatricules, verrouillé le temps de la location, puis
+ * distribuent les numéros de leur bloc sans accès à la base : deux embauches, sur la même instance ou non, ne
+ * peuvent jamais obtenir le même numéro. Les numéros non distribués d'un bloc sont rendus à l'arrêt de l'instance
+ * si aucun bloc n'a été loué depuis, perdus sinon.
+ *
+ * Le compteur est lu et modifié sur son propre pool de connexions (CompteurMatriculesRepository) : une embauche qui
+ * détient déjà une connexion du pool principal n'en attend jamais une seconde. Une seule location a lieu à la fois,
+ * sous le verrou location ; le bloc courant reste distribué pendant ses accès à la base, le moniteur du
+ * distributeur n'étant tenu que le temps de lire ou de remplacer le bloc.
+ */
+@Component
+public class MatriculeAllocator {
+
+    public static final int LIMITE_MATRICULES = 100000;
+
+    @Autowired
+    private CompteurMatriculesRepository compteurMatriculesRepository;
+
+    @Value("${java350.matricules.taille-bloc:100}")
+    private int tailleBloc;
+
+    /**
+     * Prochain numéro à distribuer et dernier numéro du bloc loué : le bloc est épuisé quand prochainNumero > finBloc
+     */
+    private int prochainNumero = 1;
+
+    private int finBloc = 0;
+
+    /**
+     * Verrou des accès au compteur, pris avant le moniteur du distributeur et jamais l'inverse
+     */
+    private final Object location = new Object();
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /**
+     * Crée le compteur s'il n'existe pas encore et le relève au dernier matricule présent en BDD s'il est en retard
+     * (matricules enregistrés sans passer par le distributeur, par un import par exemple). Le compteur n'est jamais
+     * abaissé : les blocs loués par les autres instances restent valables.
+     */
+    @PostConstruct
+    public void rattraperDernierMatricule() {
+        synchronized (location) {
+            int dernierEnBase = compteurMatriculesRepository.modifier(compteur -> {
+                int dernier = compteurMatriculesRepository.dernierMatriculeEnBase();
+                if(dernier > compteur.getDernierNumeroLoue()){
+                    compteur.setDernierNumeroLoue(dernier);
+                }
+                return dernier;
+            });
+            synchronized (this) {
+                if(dernierEnBase >= prochainNumero){
+                    //Le bloc loué contient des matricules déjà enregistrés
+                    abandonnerBloc();
+                }
+            }
+        }
+    }
+
+    /**
+     * Réserve des numéros imposés, ceux des matricules importés par exemple : le compteur est relevé au plus grand
+     * d'entre eux et le bloc loué n'est plus distribué qu'au-delà. Aucune location ni aucune embauche de cette
+     * instance ne reçoit ensuite l'un de ces numéros ; les blocs déjà loués par les autres instances ne sont pas
+     * repris.
+     *
+     * @param dernierNumero le plus grand des numéros imposés
+     */
+    public void reserverJusqua(int dernierNumero) {
+        synchronized (location) {
+            compteurMatriculesRepository.modifier(compteur -> {
+                if(dernierNumero > compteur.getDernierNumeroLoue()){
+                    compteur.setDernierNumeroLoue(dernierNumero);
+                }
+                return null;
+            });
+            synchronized (this) {
+                //Le reste du bloc au-delà du dernier numéro imposé reste distribuable
+                prochainNumero = Math.max(prochainNumero, dernierNumero + 1);
+            }
+        }
+    }
+
+    /**
+     * Remet le compteur au dernier matricule présent en BDD, quitte à l'abaisser, et abandonne le bloc loué.
+     * Les blocs loués par les autres instances ne sont pas connus : à n'utiliser que lorsqu'aucune autre
+     * instance n'embauche.
+     */
+    public void resynchroniser() {
+        synchronized (location) {
+            compteurMatriculesRepository.modifier(compteur -> {
+                compteur.setDernierNumeroLoue(compteurMatriculesRepository.dernierMatriculeEnBase());
+                return null;
+            });
+            synchronized (this) {
+                abandonnerBloc();
+            }
+        }
+    }
+
+    /**
+     * Rend au compteur les numéros non distribués du bloc loué, si aucun bloc n'a été loué depuis
+     */
+    @PreDestroy
+    public void restituer() {
+        synchronized (location) {
+            int premierRendu;
+            int fin;
+            synchronized (this) {
+                if(prochainNumero > finBloc){
+                    return;
+                }
+                //Le bloc n'est plus distribué pendant sa restitution
+                premierRendu = prochainNumero;
+                fin = finBloc;
+                abandonnerBloc();
+            }
+            int rendus = compteurMatriculesRepository.restituer(fin, premierRendu - 1);
+            if(rendus == 0){
+                logger.info("Numéros de matricule {} à {} perdus, d'autres blocs ont été loués depuis", premierRendu, fin);
+            }
+        }
+    }
+
+    /**
+     * Réserve le prochain numéro de matricule
+     *
+     * @return le numéro réservé, compris entre 1 et 99999
+     * @throws EmployeException Si on arrive au bout des matricules possibles
+     */
+    public int prochainNumero() throws EmployeException {
+        return reserverNumeros(1);
+    }
+
+    /**
+     * Réserve une plage contiguë de numéros de matricule. Si le bloc loué n'en contient plus assez, un nouveau
+     * bloc est loué ; le reste du bloc courant est perdu s'il n'est pas contigu au nouveau.
+     *
+     * @param nbNumeros le nombre de numéros à réserver
+     * @return le premier numéro de la plage réservée, les suivants lui succèdent sans trou
+     * @throws EmployeException Si la plage dépasse la limite des matricules possibles
+     */
+    public int reserverNumeros(int nbNumeros) throws EmployeException {
+        if(nbNumeros < 1){
+            throw new IllegalArgumentException("Le nombre de matricules à réserver doit être positif !");
+        }
+        synchronized (this) {
+            if(finBloc - prochainNumero + 1 >= nbNumeros){
+                return distribuer(nbNumeros);
+            }
+        }
+        synchronized (location) {
+            while (true) {
+                int prochain;
+                int fin;
+                synchronized (this) {
+                    //Bloc loué par un autre appel pendant l'attente de la location
+                    if(finBloc - prochainNumero + 1 >= nbNumeros){
+                        return distribuer(nbNumeros);
+                    }
+                    prochain = prochainNumero;
+                    fin = finBloc;
+                }
+                int[] bloc = louerBloc(nbNumeros, prochain, fin);
+                synchronized (this) {
+                    if(bloc[2] == 0){
+                        //Bloc non contigu au bloc courant, dont le reste est perdu
+                        prochainNumero = bloc[0];
+                    }
+                    finBloc = bloc[1];
+                    //Le bloc courant a pu être entamé pendant la location : nouvelle location s'il ne suffit plus
+                    if(finBloc - prochainNumero + 1 >= nbNumeros){
+                        return distribuer(nbNumeros);
+                    }
+                }
+            }
+        }
+    }
+
+    private int distribuer(int nbNumeros) {
+        int premier = prochainNumero;
+        prochainNumero += nbNumeros;
+        return premier;
+    }
+
+    /**
+     * Loue un bloc dans le compteur, sans tenir le moniteur du distributeur
+     *
+     * @param prochain le prochain numéro du bloc courant au moment de la location
+     * @param fin la fin du bloc courant au moment de la location
+     * @return le premier et le dernier numéro du bloc loué, puis 1 s'il prolonge le bloc courant, 0 sinon
+     */
+    private int[] louerBloc(int nbNumeros, int prochain, int fin) throws EmployeException {
+        int[] bloc = compteurMatriculesRepository.modifier(compteur -> {
+            int dernierLoue = compteur.getDernierNumeroLoue();
+            //Aucun bloc loué depuis le nôtre : le nouveau bloc le prolonge et le reste du bloc courant est conservé
+            boolean contigu = dernierLoue == fin;
+            int debut = contigu ? prochain : dernierLoue + 1;
+            if(debut + nbNumeros - 1 >= LIMITE_MATRICULES){
+                return null;
+            }
+            int finLouee = Math.min(Math.max(debut + nbNumeros - 1, dernierLoue + tailleBloc), LIMITE_MATRICULES - 1);
+            compteur.setDernierNumeroLoue(finLouee);
+            return new int[]{debut, finLouee, contigu ? 1 : 0};
+        });
+        if(bloc == null){
+            logger.error("La limite des 100000 matricules vient d'être atteinte !");
+            throw new EmployeException("Limite des 100000 matricules atteinte !");
+        }
+        logger.debug("Bloc de matricules {} à {} loué", bloc[0], bloc[1]);
+        return bloc;
+    }
+
+    private void abandonnerBloc() {
+        prochainNumero = 1;
+        finBloc = 0;
+    }
+}
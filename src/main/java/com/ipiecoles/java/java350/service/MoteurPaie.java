@@ -0,0 +1,155 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.model.CalendrierAnnuel;
+import com.ipiecoles.java.java350.model.ContexteCalcul;
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.Entreprise;
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import com.ipiecoles.java.java350.repository.EmployeResume;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Calcul de masse des primes, congés et RTT sur un effectif chargé en colonnes.
+ *
+ * Les règles sont celles des méthodes d'Employe, appliquées sur des types primitifs : les résultats sont
+ * identiques au bit près. L'effectif est découpé en blocs contigus calculés en parallèle.
+ */
+@Service
+public class MoteurPaie {
+
+    static final int TAILLE_BLOC = 4096;
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    @Autowired(required = false)
+    private Clock clock = Clock.systemDefaultZone();
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /**
+     * @return tout l'effectif en colonnes, l'ancienneté étant calculée à la date du jour
+     */
+    @Transactional(readOnly = true)
+    public ColonnesEmployes chargerEffectif() {
+        return chargerEffectif(ContexteCalcul.de(clock));
+    }
+
+    /**
+     * @param contexte le contexte de calcul de toute la paie
+     * @return tout l'effectif en colonnes, l'ancienneté étant calculée à la date de référence du contexte
+     */
+    @Transactional(readOnly = true)
+    public ColonnesEmployes chargerEffectif(ContexteCalcul contexte) {
+        //Colonnes lues sans charger les employés : ni entités gérées ni cache de second niveau
+        ColonnesEmployes colonnes;
+        try (Stream<EmployeResume> employes = employeRepository.findAllByOrderByIdAsc()) {
+            colonnes = ColonnesEmployes.charger(employes, contexte);
+        }
+        logger.info("Effectif chargé pour le calcul de la paie au {} : {} employés", contexte.getDateReference(), colonnes.getTaille());
+        return colonnes;
+    }
+
+    /**
+     * Équivalent de Employe.getPrimeAnnuelle pour tout l'effectif
+     *
+     * @param colonnes l'effectif
+     * @return la prime annuelle de chaque employé, dans l'ordre des colonnes
+     */
+    public double[] calculerPrimesAnnuelles(ColonnesEmployes colonnes) {
+        double[] primes = new double[colonnes.taille];
+        parBlocs(colonnes.taille, (debut, fin) -> {
+            byte[] type = colonnes.type;
+            int[] performance = colonnes.performance;
+            int[] anciennete = colonnes.anciennete;
+            double[] tempsPartiel = colonnes.tempsPartiel;
+            for (int i = debut; i < fin; i++) {
+                primes[i] = primeAnnuelle(type[i], performance[i], anciennete[i], tempsPartiel[i]);
+            }
+        });
+        return primes;
+    }
+
+    /**
+     * Règle de Employe.getPrimeAnnuelle (Employe.primeAnnuelle) sur l'effectif en colonnes
+     *
+     * @param type la première lettre du matricule
+     * @param performance la performance, la performance de base si elle n'est pas renseignée
+     * @param anciennete le nombre d'années d'ancienneté
+     * @param tempsPartiel le temps partiel
+     * @return la prime annuelle
+     */
+    static double primeAnnuelle(byte type, int performance, int anciennete, double tempsPartiel) {
+        return Employe.primeAnnuelle((char) type, performance, anciennete, tempsPartiel);
+    }
+
+    /**
+     * Équivalent de Employe.getNbConges pour tout l'effectif
+     *
+     * @param colonnes l'effectif
+     * @return le nombre de congés de chaque employé, dans l'ordre des colonnes
+     */
+    public int[] calculerNbConges(ColonnesEmployes colonnes) {
+        int[] nbConges = new int[colonnes.taille];
+        final int nbCongesBase = Entreprise.NB_CONGES_BASE;
+        parBlocs(colonnes.taille, (debut, fin) -> {
+            int[] anciennete = colonnes.anciennete;
+            for (int i = debut; i < fin; i++) {
+                nbConges[i] = nbCongesBase + anciennete[i];
+            }
+        });
+        return nbConges;
+    }
+
+    /**
+     * @param colonnes l'effectif
+     * @return le nombre de RTT de chaque employé pour l'année de la date de référence du chargement
+     */
+    public double[] calculerNbRtt(ColonnesEmployes colonnes) {
+        return calculerNbRtt(colonnes, colonnes.getContexte().getDateReference());
+    }
+
+    /**
+     * Équivalent de Employe.getNbRtt pour tout l'effectif, le nombre de jours de RTT à temps plein
+     * n'étant calculé qu'une fois pour l'année
+     *
+     * @param colonnes l'effectif
+     * @param dateCalcul date du calcul du nombre de RTT
+     * @return le nombre de RTT de chaque employé, dans l'ordre des colonnes
+     */
+    public double[] calculerNbRtt(ColonnesEmployes colonnes, LocalDate dateCalcul) {
+        final int nbJrsRTT = CalendrierAnnuel.de(dateCalcul.getYear()).getNbJoursRttTempsPlein();
+        double[] nbRtt = new double[colonnes.taille];
+        parBlocs(colonnes.taille, (debut, fin) -> {
+            double[] tempsPartiel = colonnes.tempsPartiel;
+            for (int i = debut; i < fin; i++) {
+                nbRtt[i] = Math.ceil(nbJrsRTT * tempsPartiel[i]);
+            }
+        });
+        return nbRtt;
+    }
+
+    private static void parBlocs(int taille, CalculBloc calcul) {
+        int nbBlocs = (taille + TAILLE_BLOC - 1) / TAILLE_BLOC;
+        if(nbBlocs <= 1){
+            calcul.calculer(0, taille);
+            return;
+        }
+        IntStream.range(0, nbBlocs).parallel()
+                .forEach(bloc -> calcul.calculer(bloc * TAILLE_BLOC, Math.min(taille, (bloc + 1) * TAILLE_BLOC)));
+    }
+
+    @FunctionalInterface
+    private interface CalculBloc {
+        void calculer(int debut, int fin);
+    }
+}
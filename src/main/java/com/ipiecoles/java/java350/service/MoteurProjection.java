@@ -0,0 +1,181 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.model.ContexteCalcul;
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Projection Monte Carlo de la masse salariale et du budget des primes de tout l'effectif sur plusieurs années.
+ *
+ * Chaque année projetée : augmentation générale des salaires (règles d'Employe.augmenterSalaire, plafond
+ * Entreprise.SALAIRE_MAX), revue des performances des commerciaux à partir de résultats tirés au hasard (règles
+ * d'EmployeService.nouvellePerformance, performance moyenne figée au début de l'année comme pour la revue annuelle),
+ * puis primes annuelles (règles d'Employe.getPrimeAnnuelle, ancienneté à la même date de l'année projetée).
+ *
+ * L'effectif est chargé une fois en colonnes, chaque tirage travaille sur sa propre copie des salaires et des
+ * performances. Les tirages de tous les scénarios sont exécutés en parallèle. Le tirage n de chaque scénario
+ * utilise la même suite aléatoire, dérivée de la graine : les résultats sont reproductibles et les écarts entre
+ * scénarios ne doivent rien au hasard des tirages.
+ */
+@Service
+public class MoteurProjection {
+
+    /**
+     * Objectif de chiffre d'affaire des commerciaux : seul le ratio résultat / objectif compte pour les règles
+     */
+    static final long OBJECTIF_CA = 100000L;
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    @Value("${java350.projection.taille-fetch:1000}")
+    private int tailleFetch;
+
+    @Autowired(required = false)
+    private Clock clock = Clock.systemDefaultZone();
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /**
+     * Projection de tout l'effectif à partir de la date du jour
+     *
+     * @see #projeter(List, ContexteCalcul, List, int, int, long)
+     */
+    @Transactional(readOnly = true)
+    public List<ResultatProjection> projeter(List<ScenarioProjection> scenarios, int nbAnnees, int nbTirages, long graine) {
+        //Lecture sans passer par le cache de second niveau : l'effectif entier n'en chasse pas les employés consultés
+        List<Employe> employes;
+        try (Stream<Employe> flux = employeRepository.streamerTous(tailleFetch)) {
+            employes = flux.collect(Collectors.toList());
+        }
+        return projeter(employes, ContexteCalcul.de(clock), scenarios, nbAnnees, nbTirages, graine);
+    }
+
+    /**
+     * @param employes l'effectif à projeter
+     * @param contexte le contexte de calcul, dont la date de référence précède la première année projetée
+     * @param scenarios les scénarios
+     * @param nbAnnees le nombre d'années projetées
+     * @param nbTirages le nombre de tirages de chaque scénario
+     * @param graine la graine des tirages
+     * @return le résultat de chaque scénario, dans l'ordre des scénarios
+     */
+    public List<ResultatProjection> projeter(List<Employe> employes, ContexteCalcul contexte, List<ScenarioProjection> scenarios,
+                                             int nbAnnees, int nbTirages, long graine) {
+        if(nbAnnees < 1 || nbTirages < 1){
+            throw new IllegalArgumentException("Il faut projeter au moins une année et un tirage !");
+        }
+        long debut = System.nanoTime();
+        ColonnesEmployes colonnes = ColonnesEmployes.charger(employes, contexte);
+        int[][] anciennetes = new int[nbAnnees][];
+        for (int k = 0; k < nbAnnees; k++) {
+            anciennetes[k] = ColonnesEmployes.charger(employes, ContexteCalcul.au(contexte.getDateReference().plusYears(k + 1L))).anciennete;
+        }
+        SplittableRandom racine = new SplittableRandom(graine);
+        long[] graines = new long[nbTirages];
+        for (int t = 0; t < nbTirages; t++) {
+            graines[t] = racine.nextLong();
+        }
+
+        double[][][] masses = new double[scenarios.size()][nbAnnees][nbTirages];
+        double[][][] budgets = new double[scenarios.size()][nbAnnees][nbTirages];
+        IntStream.range(0, scenarios.size() * nbTirages).parallel().forEach(j -> {
+            int s = j / nbTirages;
+            int t = j % nbTirages;
+            simuler(colonnes, anciennetes, scenarios.get(s), new SplittableRandom(graines[t]), t, masses[s], budgets[s]);
+        });
+
+        List<ResultatProjection> resultats = new ArrayList<>(scenarios.size());
+        for (int s = 0; s < scenarios.size(); s++) {
+            resultats.add(new ResultatProjection(scenarios.get(s), contexte.getDateReference().getYear(), masses[s], budgets[s]));
+        }
+        logger.info("Projection de {} employés sur {} ans : {} scénarios x {} tirages en {} ms", colonnes.getTaille(), nbAnnees,
+                scenarios.size(), nbTirages, (System.nanoTime() - debut) / 1000000);
+        return resultats;
+    }
+
+    /**
+     * Un tirage d'un scénario : masse salariale et budget des primes de chaque année, écrits à l'indice du tirage
+     */
+    private static void simuler(ColonnesEmployes colonnes, int[][] anciennetes, ScenarioProjection scenario, SplittableRandom aleas,
+                                int tirage, double[][] masses, double[][] budgets) {
+        final int taille = colonnes.taille;
+        final byte[] type = colonnes.type;
+        final double[] tempsPartiel = colonnes.tempsPartiel;
+        final double[] salaire = colonnes.salaire.clone();
+        final int[] performance = colonnes.performance.clone();
+        final double augmentation = scenario.getPourcentageAugmentation() / 100;
+        final boolean augmenter = scenario.getPourcentageAugmentation() > 0.0;
+
+        double performanceMoyenne = performanceMoyenneCommerciaux(type, performance);
+        for (int k = 0; k < anciennetes.length; k++) {
+            final int[] anciennete = anciennetes[k];
+            double masse = 0;
+            double primes = 0;
+            long sommePerformances = 0;
+            int nbCommerciaux = 0;
+            for (int i = 0; i < taille; i++) {
+                double s = salaire[i];
+                if(augmenter){
+                    s = Employe.salaireAugmente(s, augmentation);
+                    salaire[i] = s;
+                }
+                if(type[i] == 'C'){
+                    int p = EmployeService.nouvellePerformance(performance[i], chiffreAffaire(scenario, aleas), OBJECTIF_CA, performanceMoyenne);
+                    performance[i] = p;
+                    sommePerformances += p;
+                    nbCommerciaux++;
+                }
+                if(!Double.isNaN(s)){
+                    masse += s;
+                }
+                double prime = MoteurPaie.primeAnnuelle(type[i], performance[i], anciennete[i], tempsPartiel[i]);
+                if(!Double.isNaN(prime)){
+                    primes += prime;
+                }
+            }
+            masses[k][tirage] = masse;
+            budgets[k][tirage] = primes;
+            performanceMoyenne = nbCommerciaux == 0 ? Double.NaN : (double) sommePerformances / nbCommerciaux;
+        }
+    }
+
+    private static double performanceMoyenneCommerciaux(byte[] type, int[] performance) {
+        long somme = 0;
+        int nb = 0;
+        for (int i = 0; i < type.length; i++) {
+            if(type[i] == 'C'){
+                somme += performance[i];
+                nb++;
+            }
+        }
+        return nb == 0 ? Double.NaN : (double) somme / nb;
+    }
+
+    /**
+     * Chiffre d'affaire d'un commercial : ratio tiré selon une loi normale (Box-Muller), jamais négatif
+     */
+    private static long chiffreAffaire(ScenarioProjection scenario, SplittableRandom aleas) {
+        double ratio = scenario.getRatioCaMoyen();
+        if(scenario.getEcartTypeRatioCa() > 0){
+            double u1 = 1.0 - aleas.nextDouble();
+            double u2 = aleas.nextDouble();
+            ratio += scenario.getEcartTypeRatioCa() * Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+        }
+        return Math.max(0L, Math.round(ratio * OBJECTIF_CA));
+    }
+}
@@ -0,0 +1,31 @@
+package com.ipiecoles.java.java350.service;
+
+/**
+ * Chiffre d'affaire traité et objectif d'un commercial pour la revue annuelle des performances
+ */
+public class ObjectifCommercial {
+
+    private final String matricule;
+
+    private final Long caTraite;
+
+    private final Long objectifCa;
+
+    public ObjectifCommercial(String matricule, Long caTraite, Long objectifCa) {
+        this.matricule = matricule;
+        this.caTraite = caTraite;
+        this.objectifCa = objectifCa;
+    }
+
+    public String getMatricule() {
+        return matricule;
+    }
+
+    public Long getCaTraite() {
+        return caTraite;
+    }
+
+    public Long getObjectifCa() {
+        return objectifCa;
+    }
+}
@@ -0,0 +1,35 @@
+package com.ipiecoles.java.java350.service;
+
+import java.util.Locale;
+
+/**
+ * Raisons pour lesquelles les résultats d'un commercial (matricule, CA traité, objectif de CA) ne peuvent pas
+ * servir au calcul de sa performance
+ */
+public enum RaisonInvalidite {
+
+    CA_INVALIDE("Le chiffre d'affaire traité ne peut être négatif ou null !"),
+    OBJECTIF_INVALIDE("L'objectif de chiffre d'affaire ne peut être négatif ou null !"),
+    MATRICULE_INVALIDE("Le matricule ne peut être null et doit commencer par un C !"),
+    MATRICULE_INCONNU("Le matricule {} n'existe pas !");
+
+    private final String message;
+
+    RaisonInvalidite(String message) {
+        this.message = message;
+    }
+
+    /**
+     * @return le message de l'erreur, paramétré par le matricule pour MATRICULE_INCONNU
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return le code de la raison, étiquette de la métrique java350.employes.echecs-validation
+     */
+    public String getCode() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
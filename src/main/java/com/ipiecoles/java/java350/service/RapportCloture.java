@@ -0,0 +1,61 @@
+package com.ipiecoles.java.java350.service;
+
+/**
+ * Bilan d'une exécution de la clôture d'une année
+ */
+public class RapportCloture {
+
+    private final int annee;
+
+    private final int nbPartitions;
+
+    private final int nbPartitionsDejaTerminees;
+
+    private final int nbPartitionsEnEchec;
+
+    private final long nbBilans;
+
+    RapportCloture(int annee, int nbPartitions, int nbPartitionsDejaTerminees, int nbPartitionsEnEchec, long nbBilans) {
+        this.annee = annee;
+        this.nbPartitions = nbPartitions;
+        this.nbPartitionsDejaTerminees = nbPartitionsDejaTerminees;
+        this.nbPartitionsEnEchec = nbPartitionsEnEchec;
+        this.nbBilans = nbBilans;
+    }
+
+    public int getAnnee() {
+        return annee;
+    }
+
+    public int getNbPartitions() {
+        return nbPartitions;
+    }
+
+    /**
+     * @return le nombre de partitions terminées par une exécution précédente, ignorées par celle-ci
+     */
+    public int getNbPartitionsDejaTerminees() {
+        return nbPartitionsDejaTerminees;
+    }
+
+    /**
+     * @return le nombre de partitions interrompues par une erreur, à reprendre par une nouvelle exécution
+     */
+    public int getNbPartitionsEnEchec() {
+        return nbPartitionsEnEchec;
+    }
+
+    /**
+     * @return le nombre de bilans enregistrés par cette exécution
+     */
+    public long getNbBilans() {
+        return nbBilans;
+    }
+
+    /**
+     * @return true si toutes les partitions de l'année sont terminées
+     */
+    public boolean isTerminee() {
+        return nbPartitionsEnEchec == 0;
+    }
+}
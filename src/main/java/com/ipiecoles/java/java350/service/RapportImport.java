@@ -0,0 +1,94 @@
+package com.ipiecoles.java.java350.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Bilan d'un import d'employés : nombre d'enregistrements lus et importés, et une erreur par enregistrement rejeté
+ */
+public class RapportImport {
+
+    private long nbLus;
+
+    private long nbImportes;
+
+    private final List<Erreur> erreurs = new ArrayList<>();
+
+    RapportImport() {
+    }
+
+    void ajouterLus(long nbLus) {
+        this.nbLus += nbLus;
+    }
+
+    void ajouterImportes(long nbImportes) {
+        this.nbImportes += nbImportes;
+    }
+
+    void ajouterErreurs(List<Erreur> erreurs) {
+        this.erreurs.addAll(erreurs);
+    }
+
+    void trierErreurs() {
+        erreurs.sort(Comparator.comparingInt(Erreur::getNumeroLigne));
+    }
+
+    public long getNbLus() {
+        return nbLus;
+    }
+
+    public long getNbImportes() {
+        return nbImportes;
+    }
+
+    public long getNbRejetes() {
+        return erreurs.size();
+    }
+
+    /**
+     * @return les enregistrements rejetés, par numéro de ligne
+     */
+    public List<Erreur> getErreurs() {
+        return Collections.unmodifiableList(erreurs);
+    }
+
+    /**
+     * Rejet d'un enregistrement du fichier importé
+     */
+    public static class Erreur {
+
+        private final int numeroLigne;
+
+        private final String matricule;
+
+        private final String message;
+
+        Erreur(int numeroLigne, String matricule, String message) {
+            this.numeroLigne = numeroLigne;
+            this.matricule = matricule;
+            this.message = message;
+        }
+
+        /**
+         * @return le numéro de la ligne du fichier où commence l'enregistrement
+         */
+        public int getNumeroLigne() {
+            return numeroLigne;
+        }
+
+        public String getMatricule() {
+            return matricule;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "Ligne " + numeroLigne + " (" + matricule + ") : " + message;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.ipiecoles.java.java350.service;
+
+import java.util.Arrays;
+
+/**
+ * Résultat de la validation d'une liste de résultats de commerciaux (EmployeService.validerObjectifs).
+ *
+ * Seuls les résultats invalides sont conservés, sous forme compacte : leur position dans la liste validée et
+ * leur raison, par position croissante, ainsi que le nombre de résultats invalides par raison.
+ */
+public class RapportValidation {
+
+    private static final RaisonInvalidite[] RAISONS = RaisonInvalidite.values();
+
+    private final int nbObjectifs;
+
+    private int[] indices = new int[16];
+
+    private byte[] raisons = new byte[16];
+
+    private int nbInvalides;
+
+    private final int[] nbParRaison = new int[RAISONS.length];
+
+    RapportValidation(int nbObjectifs) {
+        this.nbObjectifs = nbObjectifs;
+    }
+
+    /**
+     * Les résultats invalides doivent être ajoutés par position croissante
+     */
+    void ajouter(int indice, RaisonInvalidite raison) {
+        if(nbInvalides == indices.length){
+            indices = Arrays.copyOf(indices, nbInvalides * 2);
+            raisons = Arrays.copyOf(raisons, nbInvalides * 2);
+        }
+        indices[nbInvalides] = indice;
+        raisons[nbInvalides] = (byte) raison.ordinal();
+        nbInvalides++;
+        nbParRaison[raison.ordinal()]++;
+    }
+
+    /**
+     * @return le nombre de résultats validés
+     */
+    public int getNbObjectifs() {
+        return nbObjectifs;
+    }
+
+    public int getNbValides() {
+        return nbObjectifs - nbInvalides;
+    }
+
+    public int getNbInvalides() {
+        return nbInvalides;
+    }
+
+    /**
+     * @param raison la raison d'invalidité
+     * @return le nombre de résultats invalides pour cette raison
+     */
+    public int getNbInvalides(RaisonInvalidite raison) {
+        return nbParRaison[raison.ordinal()];
+    }
+
+    /**
+     * @param indice la position d'un résultat dans la liste validée
+     * @return la raison pour laquelle ce résultat est invalide, null s'il est valide
+     */
+    public RaisonInvalidite getRaison(int indice) {
+        int position = Arrays.binarySearch(indices, 0, nbInvalides, indice);
+        return position < 0 ? null : RAISONS[raisons[position]];
+    }
+
+    /**
+     * @return les positions des résultats invalides dans la liste validée, par ordre croissant
+     */
+    public int[] getIndicesInvalides() {
+        return Arrays.copyOf(indices, nbInvalides);
+    }
+}
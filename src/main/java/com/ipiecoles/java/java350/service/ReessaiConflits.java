@@ -0,0 +1,129 @@
+package com.ipiecoles.java.java350.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exécution d'une lecture-modification-écriture d'employés dans sa propre transaction, rejouée si elle entre en
+ * conflit avec une écriture concurrente : version de l'employé modifiée entre la lecture et l'écriture
+ * (verrouillage optimiste, Employe.version), verrou non obtenu ou interblocage.
+ *
+ * Les tentatives sont bornées (java350.reessai.nb-tentatives) et espacées d'un délai aléatoire tiré entre 0 et un
+ * plafond qui double à chaque tentative, afin que les transactions en conflit ne se retrouvent pas ensemble.
+ * Les conflits sont comptés par opération dans la métrique java350.conflits, avec pour issue reessai ou abandon.
+ */
+@Component
+public class ReessaiConflits {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${java350.reessai.nb-tentatives:10}")
+    private int nbTentatives;
+
+    @Value("${java350.reessai.delai-initial-ms:10}")
+    private long delaiInitial;
+
+    @Value("${java350.reessai.delai-max-ms:500}")
+    private long delaiMax;
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /**
+     * Opération exécutée dans une transaction, éventuellement plusieurs fois : elle doit relire les données
+     * qu'elle modifie et ne produire d'effet en dehors de la base qu'une fois exécutée avec succès
+     */
+    @FunctionalInterface
+    public interface OperationTransactionnelle<T, E extends Exception> {
+        T executer() throws E;
+    }
+
+    /**
+     * Exécute l'opération dans une nouvelle transaction, rejouée en cas de conflit. Si une transaction est déjà en
+     * cours, l'opération y participe sans être rejouée : le conflit ne peut alors être traité que par l'appelant.
+     *
+     * @param nomOperation le nom de l'opération, pour les métriques et le journal
+     * @param operation l'opération
+     * @return le résultat de l'opération
+     * @throws E l'exception levée par l'opération, qui annule la transaction
+     * @throws ConcurrencyFailureException si le conflit persiste après la dernière tentative
+     */
+    public <T, E extends Exception> T executer(String nomOperation, OperationTransactionnelle<T, E> operation) throws E {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        if(TransactionSynchronizationManager.isActualTransactionActive()){
+            return executerUneFois(transactionTemplate, operation);
+        }
+        for (int tentative = 1; ; tentative++) {
+            try {
+                return executerUneFois(transactionTemplate, operation);
+            } catch (ConcurrencyFailureException e) {
+                if(tentative >= nbTentatives){
+                    compteur(nomOperation, "abandon").increment();
+                    logger.error("Conflit d'écriture persistant sur {} après {} tentatives", nomOperation, tentative);
+                    throw e;
+                }
+                compteur(nomOperation, "reessai").increment();
+                logger.debug("Conflit d'écriture sur {} (tentative {}) : {}", nomOperation, tentative, e.getMessage());
+                attendre(tentative);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T, E extends Exception> T executerUneFois(TransactionTemplate transactionTemplate, OperationTransactionnelle<T, E> operation) throws E {
+        try {
+            return transactionTemplate.execute(status -> {
+                try {
+                    return operation.executer();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    //Exception contrôlée de l'opération : la transaction est annulée, l'exception rendue à l'appelant
+                    throw new ExceptionOperation(e);
+                }
+            });
+        } catch (ExceptionOperation e) {
+            throw (E) e.getCause();
+        }
+    }
+
+    private void attendre(int tentative) {
+        long plafond = Math.min(delaiMax, delaiInitial << Math.min(tentative - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(plafond + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Attente interrompue avant une nouvelle tentative", e);
+        }
+    }
+
+    private Counter compteur(String nomOperation, String issue) {
+        return meterRegistry.counter("java350.conflits", "operation", nomOperation, "issue", issue);
+    }
+
+    private static class ExceptionOperation extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Simple enveloppe de l'exception métier, déballée par executerUneFois : ni message ni pile d'appels à remplir
+         */
+        ExceptionOperation(Exception cause) {
+            super(null, cause, false, false);
+        }
+    }
+}
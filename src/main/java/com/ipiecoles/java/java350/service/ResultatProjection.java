@@ -0,0 +1,81 @@
+package com.ipiecoles.java.java350.service;
+
+import java.util.Arrays;
+
+/**
+ * Distribution, pour chaque année projetée, de la masse salariale et du budget des primes annuelles sur les
+ * tirages d'un scénario
+ */
+public class ResultatProjection {
+
+    private final ScenarioProjection scenario;
+
+    private final int anneeReference;
+
+    /**
+     * masseSalariale[k] : masse salariale de l'année projetée k de chaque tirage, triée
+     */
+    private final double[][] masseSalariale;
+
+    private final double[][] budgetPrimes;
+
+    ResultatProjection(ScenarioProjection scenario, int anneeReference, double[][] masseSalariale, double[][] budgetPrimes) {
+        this.scenario = scenario;
+        this.anneeReference = anneeReference;
+        this.masseSalariale = masseSalariale;
+        this.budgetPrimes = budgetPrimes;
+        for (int k = 0; k < masseSalariale.length; k++) {
+            Arrays.sort(masseSalariale[k]);
+            Arrays.sort(budgetPrimes[k]);
+        }
+    }
+
+    public ScenarioProjection getScenario() {
+        return scenario;
+    }
+
+    public int getNbAnnees() {
+        return masseSalariale.length;
+    }
+
+    public int getNbTirages() {
+        return masseSalariale[0].length;
+    }
+
+    /**
+     * @param indiceAnnee l'indice de l'année projetée, à partir de 0
+     * @return l'année, la première année projetée suit l'année de référence
+     */
+    public int getAnnee(int indiceAnnee) {
+        return anneeReference + indiceAnnee + 1;
+    }
+
+    /**
+     * @param indiceAnnee l'indice de l'année projetée, à partir de 0
+     * @param centile le centile, de 0 (exclu) à 100
+     * @return la masse salariale mensuelle de l'année non dépassée par ce centile des tirages
+     */
+    public double getMasseSalariale(int indiceAnnee, double centile) {
+        return centile(masseSalariale[indiceAnnee], centile);
+    }
+
+    /**
+     * @param indiceAnnee l'indice de l'année projetée, à partir de 0
+     * @param centile le centile, de 0 (exclu) à 100
+     * @return le budget des primes annuelles de l'année non dépassé par ce centile des tirages
+     */
+    public double getBudgetPrimes(int indiceAnnee, double centile) {
+        return centile(budgetPrimes[indiceAnnee], centile);
+    }
+
+    /**
+     * Centile par la méthode du rang le plus proche
+     */
+    private static double centile(double[] valeursTriees, double centile) {
+        if(!(centile > 0 && centile <= 100)){
+            throw new IllegalArgumentException("Le centile doit être compris entre 0 exclu et 100 !");
+        }
+        int rang = (int) Math.ceil(centile / 100 * valeursTriees.length);
+        return valeursTriees[Math.max(rang, 1) - 1];
+    }
+}
@@ -0,0 +1,63 @@
+package com.ipiecoles.java.java350.service;
+
+/**
+ * Bilan d'une revue annuelle des performances des commerciaux
+ */
+public class ResultatRevuePerformance {
+
+    private final Double performanceMoyenne;
+
+    private long nbMisesAJour;
+
+    private long nbIntrouvables;
+
+    private long nbInvalides;
+
+    private long nbDoublons;
+
+    ResultatRevuePerformance(Double performanceMoyenne) {
+        this.performanceMoyenne = performanceMoyenne;
+    }
+
+    /**
+     * @return la performance moyenne des commerciaux utilisée pour toute la revue
+     */
+    public Double getPerformanceMoyenne() {
+        return performanceMoyenne;
+    }
+
+    /**
+     * @return le nombre de commerciaux dont la performance a été recalculée
+     */
+    public long getNbMisesAJour() {
+        return nbMisesAJour;
+    }
+
+    /**
+     * @return le nombre d'objectifs dont le matricule n'existe pas
+     */
+    public long getNbIntrouvables() {
+        return nbIntrouvables;
+    }
+
+    /**
+     * @return le nombre d'objectifs aux paramètres invalides (CA ou objectif négatif ou null, matricule hors commercial)
+     */
+    public long getNbInvalides() {
+        return nbInvalides;
+    }
+
+    /**
+     * @return le nombre d'objectifs ignorés car leur matricule était déjà présent plus tôt dans la revue
+     */
+    public long getNbDoublons() {
+        return nbDoublons;
+    }
+
+    void ajouter(long misesAJour, long introuvables, long invalides, long doublons) {
+        this.nbMisesAJour += misesAJour;
+        this.nbIntrouvables += introuvables;
+        this.nbInvalides += invalides;
+        this.nbDoublons += doublons;
+    }
+}
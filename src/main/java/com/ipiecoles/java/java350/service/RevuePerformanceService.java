@@ -0,0 +1,130 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.repository.EmployePerformance;
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Revue annuelle des performances de tous les commerciaux.
+ *
+ * Contrairement à des appels successifs à EmployeService.calculPerformanceCommercial, la performance moyenne
+ * des commerciaux est lue une seule fois au début de la revue : le résultat ne dépend donc pas de l'ordre
+ * des objectifs. Les colonnes utiles des commerciaux sont lues par lots, sans charger d'entité, leurs performances
+ * calculées en parallèle puis enregistrées par un lot JDBC, un lot par transaction. Plusieurs revues peuvent
+ * s'exécuter en parallèle : un lot dont un commercial a changé de version entre-temps est rejoué.
+ */
+@Service
+public class RevuePerformanceService {
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    @Autowired
+    private AgregatPerformanceService agregatPerformanceService;
+
+    @Autowired
+    private ReessaiConflits reessaiConflits;
+
+    @Autowired
+    private StatistiquesService statistiquesService;
+
+    @Autowired
+    private VersionDonneesService versionDonneesService;
+
+    @Value("${java350.revue.taille-lot:1000}")
+    private int tailleLot;
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /**
+     * Recalcule et enregistre la performance de chaque commercial à partir de ses résultats annuels.
+     * Les objectifs invalides ou portant sur un matricule déjà vu dans la revue sont ignorés et comptabilisés.
+     *
+     * @param objectifs les résultats annuels des commerciaux, parcourus une seule fois
+     * @return le bilan de la revue
+     */
+    public ResultatRevuePerformance revueAnnuelle(Stream<ObjectifCommercial> objectifs) {
+        ResultatRevuePerformance resultat = new ResultatRevuePerformance(agregatPerformanceService.performanceMoyenne("C"));
+        logger.info("Début de la revue annuelle des performances, performance moyenne des commerciaux : {}", resultat.getPerformanceMoyenne());
+
+        Set<String> matriculesVus = new HashSet<>();
+        List<ObjectifCommercial> lot = new ArrayList<>(tailleLot);
+        Iterator<ObjectifCommercial> iterator = objectifs.iterator();
+        while (iterator.hasNext()) {
+            ObjectifCommercial objectif = iterator.next();
+            if(!EmployeService.parametresValides(objectif.getMatricule(), objectif.getCaTraite(), objectif.getObjectifCa())){
+                resultat.ajouter(0, 0, 1, 0);
+            }
+            else if(!matriculesVus.add(objectif.getMatricule())){
+                resultat.ajouter(0, 0, 0, 1);
+            }
+            else {
+                lot.add(objectif);
+                if(lot.size() == tailleLot){
+                    traiterLot(lot, resultat);
+                    lot = new ArrayList<>(tailleLot);
+                }
+            }
+        }
+        if(!lot.isEmpty()){
+            traiterLot(lot, resultat);
+        }
+
+        logger.info("Fin de la revue annuelle des performances : {} mises à jour, {} introuvables, {} invalides, {} doublons",
+                resultat.getNbMisesAJour(), resultat.getNbIntrouvables(), resultat.getNbInvalides(), resultat.getNbDoublons());
+        return resultat;
+    }
+
+    /**
+     * Un lot par transaction, rejouée en entier si l'un des commerciaux a été modifié pendant son traitement
+     */
+    private void traiterLot(List<ObjectifCommercial> lot, ResultatRevuePerformance resultat) {
+        Map<String, ObjectifCommercial> objectifsParMatricule = lot.stream()
+                .collect(Collectors.toMap(ObjectifCommercial::getMatricule, objectif -> objectif));
+        Double performanceMoyenne = resultat.getPerformanceMoyenne();
+
+        int nbMisesAJour = reessaiConflits.executer("revuePerformance", () -> {
+            List<EmployePerformance> employes = employeRepository.findPerformancesByMatriculeIn(objectifsParMatricule.keySet());
+
+            //Calcul en parallèle, chaque commercial ne dépend que de ses résultats et de la moyenne figée
+            Integer[] performances = new Integer[employes.size()];
+            IntStream.range(0, employes.size()).parallel().forEach(i -> {
+                EmployePerformance employe = employes.get(i);
+                ObjectifCommercial objectif = objectifsParMatricule.get(employe.getMatricule());
+                performances[i] = EmployeService.calculPerformance(employe.getPerformance(), objectif.getCaTraite(), objectif.getObjectifCa(), performanceMoyenne);
+            });
+
+            employeRepository.modifierPerformances(employes, performances);
+
+            long deltaSommePerformance = 0L;
+            long deltaNbEmployes = 0L;
+            for (int i = 0; i < employes.size(); i++) {
+                EmployePerformance employe = employes.get(i);
+                if(employe.getPerformance() != null){
+                    deltaSommePerformance -= employe.getPerformance();
+                    deltaNbEmployes--;
+                }
+                deltaSommePerformance += performances[i];
+                deltaNbEmployes++;
+                statistiquesService.modifier(
+                        StatistiquesPoste.de(employe.getMatricule(), employe.getPerformance(), employe.getSalaire(), employe.getTempsPartiel(), employe.getDateEmbauche()),
+                        StatistiquesPoste.de(employe.getMatricule(), performances[i], employe.getSalaire(), employe.getTempsPartiel(), employe.getDateEmbauche()));
+            }
+            agregatPerformanceService.mettreAJour("C", deltaSommePerformance, deltaNbEmployes);
+            if(!employes.isEmpty()){
+                versionDonneesService.signalerEcriture();
+            }
+            return employes.size();
+        });
+        resultat.ajouter(nbMisesAJour, (long) lot.size() - nbMisesAJour, 0, 0);
+    }
+}
@@ -0,0 +1,57 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.model.Employe;
+
+/**
+ * Hypothèses d'une projection de l'effectif sur plusieurs années : augmentation générale annuelle des salaires et
+ * résultats des commerciaux, tirés chaque année selon une loi normale du ratio chiffre d'affaire / objectif.
+ */
+public class ScenarioProjection {
+
+    private final String nom;
+
+    private final double pourcentageAugmentation;
+
+    private final double ratioCaMoyen;
+
+    private final double ecartTypeRatioCa;
+
+    /**
+     * @param nom le nom du scénario
+     * @param pourcentageAugmentation l'augmentation de tous les salaires chaque année, règles d'Employe.augmenterSalaire
+     * @param ratioCaMoyen la moyenne du ratio chiffre d'affaire / objectif des commerciaux, 1.0 pour l'objectif atteint
+     * @param ecartTypeRatioCa l'écart type du ratio, 0 pour des résultats égaux à la moyenne sans tirage
+     * @throws IllegalArgumentException si le pourcentage n'est pas admissible, si le ratio ou l'écart type est négatif
+     */
+    public ScenarioProjection(String nom, double pourcentageAugmentation, double ratioCaMoyen, double ecartTypeRatioCa) {
+        Employe.verifierPourcentageAugmentation(pourcentageAugmentation);
+        if(ratioCaMoyen < 0 || ecartTypeRatioCa < 0){
+            throw new IllegalArgumentException("Le ratio de chiffre d'affaire et son écart type doivent être positifs !");
+        }
+        this.nom = nom;
+        this.pourcentageAugmentation = pourcentageAugmentation;
+        this.ratioCaMoyen = ratioCaMoyen;
+        this.ecartTypeRatioCa = ecartTypeRatioCa;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public double getPourcentageAugmentation() {
+        return pourcentageAugmentation;
+    }
+
+    public double getRatioCaMoyen() {
+        return ratioCaMoyen;
+    }
+
+    public double getEcartTypeRatioCa() {
+        return ecartTypeRatioCa;
+    }
+
+    @Override
+    public String toString() {
+        return nom;
+    }
+}
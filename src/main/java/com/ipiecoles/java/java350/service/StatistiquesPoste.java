@@ -0,0 +1,191 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.Entreprise;
+import com.ipiecoles.java.java350.model.Poste;
+
+import java.time.LocalDate;
+
+/**
+ * Statistiques des employés d'un poste (première lettre du matricule) : effectif, masse salariale, performance
+ * et budget des primes annuelles.
+ *
+ * Les statistiques sont des sommes : celles d'un poste s'obtiennent en additionnant les contributions de ses
+ * employés (de), une modification d'employé se répercute par la différence de ses contributions avant et après.
+ * La prime annuelle étant linéaire en l'année de référence (prime d'ancienneté), son budget se déduit pour
+ * n'importe quelle année des sommes tenues à jour, sans parcourir les employés.
+ */
+public final class StatistiquesPoste {
+
+    private final Poste poste;
+
+    private final long nbEmployes;
+
+    private final double masseSalariale;
+
+    private final long nbPerformances;
+
+    private final long sommePerformances;
+
+    /**
+     * Somme des primes sans la prime d'ancienneté, au prorata du temps partiel
+     */
+    private final double primesHorsAnciennete;
+
+    /**
+     * Sommes des temps partiels et des temps partiels multipliés par l'année d'embauche, des employés dont la date
+     * d'embauche est renseignée
+     */
+    private final double tempsPartiels;
+
+    private final double tempsPartielsAnneeEmbauche;
+
+    private StatistiquesPoste(Poste poste, long nbEmployes, double masseSalariale, long nbPerformances, long sommePerformances,
+                              double primesHorsAnciennete, double tempsPartiels, double tempsPartielsAnneeEmbauche) {
+        this.poste = poste;
+        this.nbEmployes = nbEmployes;
+        this.masseSalariale = masseSalariale;
+        this.nbPerformances = nbPerformances;
+        this.sommePerformances = sommePerformances;
+        this.primesHorsAnciennete = primesHorsAnciennete;
+        this.tempsPartiels = tempsPartiels;
+        this.tempsPartielsAnneeEmbauche = tempsPartielsAnneeEmbauche;
+    }
+
+    /**
+     * @param poste le poste
+     * @return les statistiques d'un poste sans employé
+     */
+    public static StatistiquesPoste vide(Poste poste) {
+        return new StatistiquesPoste(poste, 0L, 0d, 0L, 0L, 0d, 0d, 0d);
+    }
+
+    /**
+     * Contribution d'un employé aux statistiques de son poste, dans son état actuel
+     *
+     * @param employe l'employé
+     * @return la contribution, null si le matricule ne désigne aucun poste
+     */
+    public static StatistiquesPoste de(Employe employe) {
+        return de(employe.getMatricule(), employe.getPerformance(), employe.getSalaire(), employe.getTempsPartiel(),
+                employe.getDateEmbauche());
+    }
+
+    /**
+     * Contribution d'un employé dont seules les colonnes utiles sont lues (projection)
+     *
+     * @return la contribution, null si le matricule ne désigne aucun poste
+     */
+    public static StatistiquesPoste de(String matricule, Integer performance, Double salaire, Double tempsPartiel,
+                                       LocalDate dateEmbauche) {
+        Poste poste = posteDe(matricule);
+        if(poste == null){
+            return null;
+        }
+        double partiel = tempsPartiel == null ? 0d : tempsPartiel;
+        //Règle d'Employe.getPrimeAnnuelle, hors prime d'ancienneté
+        double prime = Employe.primeAnnuelle(matricule.charAt(0),
+                performance == null ? Entreprise.PERFORMANCE_BASE : performance, 0, partiel);
+        return new StatistiquesPoste(poste, 1L,
+                salaire == null ? 0d : salaire,
+                performance == null ? 0L : 1L,
+                performance == null ? 0L : performance,
+                prime,
+                dateEmbauche != null ? partiel : 0d,
+                dateEmbauche != null ? partiel * dateEmbauche.getYear() : 0d);
+    }
+
+    /**
+     * @param matricule un matricule ou un type d'employé (T, M ou C)
+     * @return le poste désigné par la première lettre, null s'il n'y en a pas
+     */
+    static Poste posteDe(String matricule) {
+        if(matricule == null || matricule.isEmpty()){
+            return null;
+        }
+        for (Poste poste : Poste.values()) {
+            if(poste.name().charAt(0) == matricule.charAt(0)){
+                return poste;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param poste le poste
+     * @param variation la variation de la masse salariale
+     * @return la différence de statistiques d'une mise à jour des salaires, sans changement d'effectif
+     */
+    static StatistiquesPoste variationMasseSalariale(Poste poste, double variation) {
+        return new StatistiquesPoste(poste, 0L, variation, 0L, 0L, 0d, 0d, 0d);
+    }
+
+    public StatistiquesPoste plus(StatistiquesPoste autres) {
+        return new StatistiquesPoste(poste, nbEmployes + autres.nbEmployes, masseSalariale + autres.masseSalariale,
+                nbPerformances + autres.nbPerformances, sommePerformances + autres.sommePerformances,
+                primesHorsAnciennete + autres.primesHorsAnciennete, tempsPartiels + autres.tempsPartiels,
+                tempsPartielsAnneeEmbauche + autres.tempsPartielsAnneeEmbauche);
+    }
+
+    public StatistiquesPoste moins(StatistiquesPoste autres) {
+        return new StatistiquesPoste(poste, nbEmployes - autres.nbEmployes, masseSalariale - autres.masseSalariale,
+                nbPerformances - autres.nbPerformances, sommePerformances - autres.sommePerformances,
+                primesHorsAnciennete - autres.primesHorsAnciennete, tempsPartiels - autres.tempsPartiels,
+                tempsPartielsAnneeEmbauche - autres.tempsPartielsAnneeEmbauche);
+    }
+
+    /**
+     * @param autres d'autres statistiques du même poste
+     * @return true si les effectifs sont égaux et les montants égaux au centime près
+     */
+    public boolean egales(StatistiquesPoste autres) {
+        return nbEmployes == autres.nbEmployes && nbPerformances == autres.nbPerformances
+                && sommePerformances == autres.sommePerformances
+                && Math.abs(masseSalariale - autres.masseSalariale) < 0.01
+                && Math.abs(primesHorsAnciennete - autres.primesHorsAnciennete) < 0.01
+                && Math.abs(tempsPartiels - autres.tempsPartiels) < 1e-6
+                && Math.abs(tempsPartielsAnneeEmbauche - autres.tempsPartielsAnneeEmbauche) < 1e-3;
+    }
+
+    public Poste getPoste() {
+        return poste;
+    }
+
+    public long getNbEmployes() {
+        return nbEmployes;
+    }
+
+    public double getMasseSalariale() {
+        return masseSalariale;
+    }
+
+    /**
+     * @return le salaire moyen, null si le poste n'a aucun employé
+     */
+    public Double getSalaireMoyen() {
+        return nbEmployes == 0L ? null : masseSalariale / nbEmployes;
+    }
+
+    /**
+     * @return la performance moyenne des employés dont la performance est renseignée, null s'il n'y en a aucun
+     */
+    public Double getPerformanceMoyenne() {
+        return nbPerformances == 0L ? null : (double) sommePerformances / nbPerformances;
+    }
+
+    /**
+     * Somme des primes annuelles (Employe.getPrimeAnnuelle) des employés du poste pour une année. Les employés
+     * embauchés après l'année demandée y sont comptés avec une ancienneté négative.
+     *
+     * @param annee l'année de référence de l'ancienneté
+     * @return le budget des primes annuelles
+     */
+    public double getBudgetPrimes(int annee) {
+        return primesHorsAnciennete + Entreprise.PRIME_ANCIENNETE * (annee * tempsPartiels - tempsPartielsAnneeEmbauche);
+    }
+
+    @Override
+    public String toString() {
+        return poste + " : " + nbEmployes + " employés, masse salariale " + masseSalariale;
+    }
+}
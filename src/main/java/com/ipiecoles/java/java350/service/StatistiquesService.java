@@ -0,0 +1,289 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.Poste;
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Stream;
+
+/**
+ * Statistiques par poste (effectif, masse salariale, salaire et performance moyens, budget des primes) tenues en
+ * mémoire : leur lecture ne coûte aucune requête.
+ *
+ * EmployeService signale chaque écriture d'employé, sa différence est appliquée aux statistiques une fois la
+ * transaction validée, jamais si elle est annulée. Une vérification périodique recalcule les statistiques depuis la
+ * table Employe et corrige les écarts (écritures faites sans passer par EmployeService, ou par une autre instance
+ * de l'application : les statistiques sont propres à chaque instance).
+ */
+@Service
+public class StatistiquesService {
+
+    /**
+     * Nombre maximum de recalculs lors d'une vérification, chacun étant abandonné si des écritures ont été
+     * appliquées pendant sa lecture de la table Employe
+     */
+    private static final int NB_TENTATIVES_RECALCUL = 3;
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    private Clock clock = Clock.systemDefaultZone();
+
+    @Value("${java350.statistiques.taille-fetch:1000}")
+    private int tailleFetch;
+
+    private final AtomicReferenceArray<StatistiquesPoste> statistiques = new AtomicReferenceArray<>(Poste.values().length);
+
+    /**
+     * Nombre de différences appliquées, pour détecter les écritures concurrentes d'un recalcul
+     */
+    private final AtomicLong nbApplications = new AtomicLong();
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    public StatistiquesService() {
+        for (Poste poste : Poste.values()) {
+            statistiques.set(poste.ordinal(), StatistiquesPoste.vide(poste));
+        }
+    }
+
+    @PostConstruct
+    public void enregistrerJauges() {
+        if(meterRegistry == null){
+            return;
+        }
+        for (Poste poste : Poste.values()) {
+            Gauge.builder("java350.statistiques.effectif", this, service -> service.statistiques(poste).getNbEmployes())
+                    .tag("poste", poste.name().toLowerCase()).register(meterRegistry);
+            Gauge.builder("java350.statistiques.masse-salariale", this, service -> service.statistiques(poste).getMasseSalariale())
+                    .tag("poste", poste.name().toLowerCase()).baseUnit("euros").register(meterRegistry);
+            Gauge.builder("java350.statistiques.budget-primes", this, service -> service.statistiques(poste).getBudgetPrimes(LocalDate.now(clock).getYear()))
+                    .tag("poste", poste.name().toLowerCase()).baseUnit("euros").register(meterRegistry);
+        }
+    }
+
+    /**
+     * @param poste le poste
+     * @return les statistiques du poste à la dernière transaction validée
+     */
+    public StatistiquesPoste statistiques(Poste poste) {
+        return statistiques.get(poste.ordinal());
+    }
+
+    /**
+     * @return les statistiques de chaque poste, dans l'ordre de Poste
+     */
+    public List<StatistiquesPoste> statistiques() {
+        List<StatistiquesPoste> liste = new ArrayList<>(statistiques.length());
+        for (int i = 0; i < statistiques.length(); i++) {
+            liste.add(statistiques.get(i));
+        }
+        return liste;
+    }
+
+    /**
+     * Signale l'enregistrement d'un nouvel employé
+     *
+     * @param employe l'employé enregistré
+     */
+    public void ajouter(Employe employe) {
+        modifier(null, employe);
+    }
+
+    /**
+     * Signale la modification d'un employé
+     *
+     * @param avant la contribution de l'employé avant modification (StatistiquesPoste.de), null pour une embauche
+     * @param employe l'employé modifié
+     */
+    public void modifier(StatistiquesPoste avant, Employe employe) {
+        modifier(avant, StatistiquesPoste.de(employe));
+    }
+
+    /**
+     * Signale la modification d'un employé qui n'a pas été chargé comme entité
+     *
+     * @param avant la contribution de l'employé avant modification, null pour une embauche
+     * @param apres sa contribution après modification
+     */
+    public void modifier(StatistiquesPoste avant, StatistiquesPoste apres) {
+        StatistiquesPoste[] differences = differencesEnCours();
+        if(avant != null){
+            cumuler(differences, avant.getPoste(), StatistiquesPoste.vide(avant.getPoste()).moins(avant));
+        }
+        if(apres != null){
+            cumuler(differences, apres.getPoste(), apres);
+        }
+        appliquerSiHorsTransaction(differences);
+    }
+
+    /**
+     * Signale une variation de la masse salariale d'un poste, après une mise à jour de masse des salaires
+     *
+     * @param poste le poste
+     * @param variation la variation de la somme des salaires
+     */
+    public void modifierMasseSalariale(Poste poste, double variation) {
+        StatistiquesPoste[] differences = differencesEnCours();
+        cumuler(differences, poste, StatistiquesPoste.variationMasseSalariale(poste, variation));
+        appliquerSiHorsTransaction(differences);
+    }
+
+    private static void cumuler(StatistiquesPoste[] differences, Poste poste, StatistiquesPoste difference) {
+        int i = poste.ordinal();
+        differences[i] = differences[i] == null ? difference : differences[i].plus(difference);
+    }
+
+    /**
+     * @return les différences cumulées de la transaction en cours, appliquées à sa validation, ou de nouvelles
+     * différences à appliquer tout de suite s'il n'y a pas de transaction
+     */
+    private StatistiquesPoste[] differencesEnCours() {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            return new StatistiquesPoste[Poste.values().length];
+        }
+        DifferencesTransaction differences = (DifferencesTransaction) TransactionSynchronizationManager.getResource(this);
+        if(differences == null){
+            differences = new DifferencesTransaction();
+            TransactionSynchronizationManager.bindResource(this, differences);
+            TransactionSynchronizationManager.registerSynchronization(differences);
+        }
+        return differences.parPoste;
+    }
+
+    private void appliquerSiHorsTransaction(StatistiquesPoste[] differences) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            appliquer(differences);
+        }
+    }
+
+    private void appliquer(StatistiquesPoste[] differences) {
+        for (int i = 0; i < differences.length; i++) {
+            StatistiquesPoste difference = differences[i];
+            if(difference != null){
+                statistiques.accumulateAndGet(i, difference, StatistiquesPoste::plus);
+            }
+        }
+        nbApplications.incrementAndGet();
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void initialiser() {
+        verifier();
+    }
+
+    /**
+     * Recalcule les statistiques depuis la table Employe et remplace celles qui ont dérivé. Un recalcul pendant
+     * lequel des écritures ont été appliquées est recommencé : ces écritures peuvent avoir été lues ou non.
+     *
+     * @return les postes dont les statistiques avaient dérivé
+     */
+    @Scheduled(cron = "${java350.statistiques.verification.cron:0 30 3 * * *}")
+    public List<Poste> verifier() {
+        for (int tentative = 1; tentative <= NB_TENTATIVES_RECALCUL; tentative++) {
+            long nbApplicationsAvant = nbApplications.get();
+            StatistiquesPoste[] recalculees = recalculer();
+            if(nbApplications.get() == nbApplicationsAvant){
+                return remplacer(recalculees);
+            }
+            logger.debug("Écritures pendant le recalcul des statistiques (tentative {}), recalcul recommencé", tentative);
+        }
+        logger.warn("Statistiques par poste non vérifiées : écritures continues pendant {} recalculs", NB_TENTATIVES_RECALCUL);
+        return new ArrayList<>();
+    }
+
+    /**
+     * Un poste dont une différence est appliquée pendant le remplacement n'est pas remplacé : la différence
+     * serait perdue. Le décalage résiduel (différence validée pendant le recalcul mais appliquée après le
+     * remplacement) est corrigé par la vérification suivante.
+     */
+    private List<Poste> remplacer(StatistiquesPoste[] recalculees) {
+        List<Poste> postesEnEcart = new ArrayList<>();
+        for (Poste poste : Poste.values()) {
+            StatistiquesPoste recalcul = recalculees[poste.ordinal()];
+            StatistiquesPoste actuelles = statistiques.get(poste.ordinal());
+            if(statistiques.compareAndSet(poste.ordinal(), actuelles, recalcul) && !actuelles.egales(recalcul)){
+                logger.warn("Écart sur les statistiques du poste {} : {} au lieu de {}", poste, actuelles, recalcul);
+                postesEnEcart.add(poste);
+            }
+            else if(statistiques.get(poste.ordinal()) != recalcul){
+                //Écriture concurrente : la vérification suivante reprendra ce poste
+                logger.debug("Écriture concurrente pendant la vérification du poste {}", poste);
+            }
+        }
+        return postesEnEcart;
+    }
+
+    private StatistiquesPoste[] recalculer() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        //Pas en lecture seule : le recalcul doit lire la base primaire, jamais une replica en retard
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transactionTemplate.execute(status -> {
+            StatistiquesPoste[] recalculees = new StatistiquesPoste[Poste.values().length];
+            for (Poste poste : Poste.values()) {
+                recalculees[poste.ordinal()] = StatistiquesPoste.vide(poste);
+            }
+            try (Stream<Employe> employes = employeRepository.streamerTous(tailleFetch)) {
+                Iterator<Employe> iterator = employes.iterator();
+                while (iterator.hasNext()) {
+                    StatistiquesPoste contribution = StatistiquesPoste.de(iterator.next());
+                    if(contribution != null){
+                        int i = contribution.getPoste().ordinal();
+                        recalculees[i] = recalculees[i].plus(contribution);
+                    }
+                }
+            }
+            logger.debug("Statistiques par poste recalculées : {}", Arrays.asList(recalculees));
+            return recalculees;
+        });
+    }
+
+    /**
+     * Différences d'une transaction, appliquées à sa validation
+     */
+    private class DifferencesTransaction extends TransactionSynchronizationAdapter {
+
+        private final StatistiquesPoste[] parPoste = new StatistiquesPoste[Poste.values().length];
+
+        @Override
+        public void afterCommit() {
+            appliquer(parPoste);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(StatistiquesService.this);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.model.VersionDonnees;
+import com.ipiecoles.java.java350.repository.VersionDonneesRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Version des données des employés (VersionDonnees), qui sert d'ETag à la liste des employés : sa lecture ne
+ * parcourt pas la table Employe.
+ *
+ * Chaque service qui écrit des employés le signale (signalerEcriture). La version est augmentée une fois par
+ * transaction, juste avant sa validation : elle ne change pas si la transaction est annulée, et sa ligne n'est
+ * verrouillée que le temps de la validation. Les écritures faites sans passer par les services ne la changent pas.
+ */
+@Service
+public class VersionDonneesService {
+
+    @Autowired
+    private VersionDonneesRepository versionDonneesRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /**
+     * @return la version des données des employés, 0 si aucune écriture n'a encore été signalée
+     */
+    public long version() {
+        Long version = versionDonneesRepository.findVersion(VersionDonnees.EMPLOYES);
+        return version == null ? 0L : version;
+    }
+
+    /**
+     * Signale une écriture d'employés : la version est augmentée à la validation de la transaction en cours, tout
+     * de suite s'il n'y en a pas
+     */
+    public void signalerEcriture() {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            new TransactionTemplate(transactionManager).execute(status -> {
+                incrementer();
+                return null;
+            });
+            return;
+        }
+        if(TransactionSynchronizationManager.hasResource(this)){
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                incrementer();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(VersionDonneesService.this);
+            }
+        });
+    }
+
+    private void incrementer() {
+        if(versionDonneesRepository.incrementer(VersionDonnees.EMPLOYES) == 0){
+            versionDonneesRepository.save(new VersionDonnees(VersionDonnees.EMPLOYES, 1L));
+        }
+    }
+
+    /**
+     * Crée la version au démarrage, pour qu'elle le soit avant la première écriture
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void initialiser() {
+        try {
+            new TransactionTemplate(transactionManager).execute(status -> {
+                if(!versionDonneesRepository.existsById(VersionDonnees.EMPLOYES)){
+                    versionDonneesRepository.save(new VersionDonnees(VersionDonnees.EMPLOYES, 0L));
+                }
+                return null;
+            });
+        } catch (DataIntegrityViolationException e) {
+            //Créée au même moment par une autre instance
+            logger.debug("Version des données créée par une autre instance : {}", e.getMessage());
+        }
+    }
+}
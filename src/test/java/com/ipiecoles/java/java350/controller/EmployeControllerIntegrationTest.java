@@ -0,0 +1,136 @@
+package com.ipiecoles.java.java350.controller;
+
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.Entreprise;
+import com.ipiecoles.java.java350.model.NiveauEtude;
+import com.ipiecoles.java.java350.model.Poste;
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import com.ipiecoles.java.java350.service.EmployeService;
+import com.ipiecoles.java.java350.service.MatriculeAllocator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class EmployeControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    @Autowired
+    private EmployeService employeService;
+
+    @Autowired
+    private MatriculeAllocator matriculeAllocator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setup() {
+        employeRepository.deleteAll();
+        for (int i = 1; i <= 5; i++) {
+            employeRepository.save(new Employe("Doe", "John" + i, "T0000" + i, LocalDate.of(2015, 6, 1), Entreprise.SALAIRE_BASE, 1, 1.0));
+        }
+        matriculeAllocator.rattraperDernierMatricule();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        employeRepository.deleteAll();
+    }
+
+    @Test
+    public void integrationListerEmployesPagination() throws Exception {
+        //Given - When - Then
+        mockMvc.perform(get("/employes").param("taille", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].matricule").value("T00001"))
+                .andExpect(jsonPath("$[0].dateEmbauche").value("2015-06-01"))
+                .andExpect(header().string(HttpHeaders.LINK, "<http://localhost/employes?apres=T00002&taille=2>; rel=\"next\""));
+        mockMvc.perform(get("/employes").param("apres", "T00004").param("taille", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].matricule").value("T00005"))
+                .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    public void integrationListerEmployesNonModifies() throws Exception {
+        //Given
+        String etag = mockMvc.perform(get("/employes"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //When - Then
+        mockMvc.perform(get("/employes").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        //Une embauche change la version
+        employeService.embaucheEmploye("Martin", "Léa", Poste.TECHNICIEN, NiveauEtude.BAC, 1.0);
+        mockMvc.perform(get("/employes").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(6)))
+                .andExpect(jsonPath("$[5].nom").value("Martin"));
+    }
+
+    @Test
+    public void integrationListerEmployesEtagParPage() throws Exception {
+        //Given
+        String etag = mockMvc.perform(get("/employes").param("taille", "2"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //When - Then : l'ETag d'une page ne vaut pas pour la suivante ni pour une autre taille
+        mockMvc.perform(get("/employes").param("taille", "2").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/employes").param("apres", "T00002").param("taille", "2").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].matricule").value("T00003"));
+        mockMvc.perform(get("/employes").param("taille", "3").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void integrationListerEmployesEcrituresAutreInstance() throws Exception {
+        //Given
+        String etag = mockMvc.perform(get("/employes"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //When : écriture validée par une autre instance de l'application, qui augmente la version partagée
+        jdbcTemplate.update("update employe set nom = 'Martin' where matricule = 'T00003'");
+        jdbcTemplate.update("update version_donnees set version = version + 1 where nom = 'EMPLOYES'");
+
+        //Then
+        mockMvc.perform(get("/employes").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[2].nom").value("Martin"));
+    }
+
+    @Test
+    public void integrationListerEmployesTailleInvalide() throws Exception {
+        //Given - When - Then
+        mockMvc.perform(get("/employes").param("taille", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/employes").param("taille", String.valueOf(EmployeController.TAILLE_MAX + 1)))
+                .andExpect(status().isBadRequest());
+    }
+}
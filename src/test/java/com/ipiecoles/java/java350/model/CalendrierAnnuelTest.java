@@ -0,0 +1,158 @@
+package com.ipiecoles.java.java350.model;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class CalendrierAnnuelTest {
+
+    @ParameterizedTest(name = "Pâques {0} : {1}")
+    @CsvSource({
+            "1961, 1961-04-02",
+            "2008, 2008-03-23",
+            "2019, 2019-04-21",
+            "2024, 2024-03-31",
+            "2035, 2035-03-25",
+            "2038, 2038-04-25",
+            "2040, 2040-04-01",
+            "2041, 2041-04-21",
+            "2100, 2100-03-28"
+    })
+    public void testDatePaque(Integer annee, String datePaque){
+        //Given - When
+        LocalDate paque = Entreprise.datePaque(annee);
+
+        //Then
+        Assertions.assertThat(paque).isEqualTo(LocalDate.parse(datePaque));
+    }
+
+    /**
+     * 2019 : commence un mardi, 104 jours de week-end, seul le 14 juillet tombe un dimanche : 10 fériés en semaine
+     * 2022 : commence un samedi, 105 jours de week-end
+     * 2028 : bissextile commençant un samedi, 106 jours de week-end
+     */
+    @ParameterizedTest(name = "Calendrier {0}")
+    @CsvSource({
+            "2019, 365, 104, 10",
+            "2022, 365, 105, 7",
+            "2028, 366, 106, 9",
+            "2050, 365, 105, 7"
+    })
+    public void testDecomptes(Integer annee, Integer nbJours, Integer nbJoursWeekEnd, Integer nbJoursFeriesHorsWeekEnd){
+        //Given - When
+        CalendrierAnnuel calendrier = CalendrierAnnuel.de(annee);
+
+        //Then
+        Assertions.assertThat(calendrier.getAnnee()).isEqualTo(annee);
+        Assertions.assertThat(calendrier.getNbJours()).isEqualTo(nbJours);
+        Assertions.assertThat(calendrier.getNbJoursWeekEnd()).isEqualTo(nbJoursWeekEnd);
+        Assertions.assertThat(calendrier.getNbJoursFeriesHorsWeekEnd()).isEqualTo(nbJoursFeriesHorsWeekEnd);
+    }
+
+    @Test
+    public void testEstFerieEtWeekEnd(){
+        //Given
+        CalendrierAnnuel calendrier = CalendrierAnnuel.de(2019);
+
+        //When - Then
+        //Lundi 1er janvier
+        Assertions.assertThat(calendrier.estFerie(1)).isTrue();
+        Assertions.assertThat(calendrier.estWeekEnd(1)).isFalse();
+        //Samedi 5 janvier
+        Assertions.assertThat(calendrier.estWeekEnd(5)).isTrue();
+        Assertions.assertThat(calendrier.estFerie(5)).isFalse();
+        //Lundi de Pâques 22 avril
+        Assertions.assertThat(calendrier.estFerie(LocalDate.of(2019, 4, 22).getDayOfYear())).isTrue();
+        //Mardi 31 décembre
+        Assertions.assertThat(calendrier.estWeekEnd(365)).isFalse();
+        Assertions.assertThat(calendrier.estFerie(365)).isFalse();
+    }
+
+    @ParameterizedTest(name = "Jours ouvrés {0} : {1}")
+    @CsvSource({
+            "2019, 251",
+            "2022, 253",
+            "2028, 251"
+    })
+    public void testNbJoursOuvresAnnee(Integer annee, Integer nbJoursOuvres){
+        //Given - When
+        CalendrierAnnuel calendrier = CalendrierAnnuel.de(annee);
+
+        //Then
+        Assertions.assertThat(calendrier.getNbJoursOuvres()).isEqualTo(nbJoursOuvres)
+                .isEqualTo(calendrier.getNbJours() - calendrier.getNbJoursWeekEnd() - calendrier.getNbJoursFeriesHorsWeekEnd());
+        Assertions.assertThat(calendrier.getNbJoursOuvres(1, calendrier.getNbJours())).isEqualTo(nbJoursOuvres);
+    }
+
+    @ParameterizedTest(name = "Jours ouvrés du {0} au {1}")
+    @CsvSource({
+            "2019-01-01, 2019-01-01",
+            "2019-01-02, 2019-01-06",
+            "2019-04-20, 2019-05-08",
+            "2019-12-31, 2019-12-31",
+            "2019-07-15, 2019-07-14",
+            "2019-11-15, 2020-02-29",
+            "2027-12-25, 2031-01-05"
+    })
+    public void testNbJoursOuvresPeriode(String debut, String fin){
+        //Given
+        LocalDate dateDebut = LocalDate.parse(debut);
+        LocalDate dateFin = LocalDate.parse(fin);
+        int attendu = 0;
+        for (LocalDate jour = dateDebut; !jour.isAfter(dateFin); jour = jour.plusDays(1)) {
+            CalendrierAnnuel calendrier = CalendrierAnnuel.de(jour.getYear());
+            if(!calendrier.estWeekEnd(jour.getDayOfYear()) && !calendrier.estFerie(jour.getDayOfYear())){
+                attendu++;
+            }
+        }
+
+        //When
+        int nbJoursOuvres = CalendrierAnnuel.nbJoursOuvres(dateDebut, dateFin);
+
+        //Then
+        Assertions.assertThat(nbJoursOuvres).isEqualTo(attendu);
+    }
+
+    @Test
+    public void testEstOuvre(){
+        //Given
+        CalendrierAnnuel calendrier = CalendrierAnnuel.de(2028);
+
+        //When - Then
+        Assertions.assertThat(calendrier.estOuvre(1)).isFalse();
+        Assertions.assertThat(calendrier.estOuvre(3)).isTrue();
+        //Dimanche 31 décembre 2028
+        Assertions.assertThat(calendrier.estOuvre(366)).isFalse();
+        //Vendredi 29 décembre 2028
+        Assertions.assertThat(calendrier.estOuvre(364)).isTrue();
+    }
+
+    @Test
+    public void testCache(){
+        //Given
+        CalendrierAnnuel calendrier = CalendrierAnnuel.de(2030);
+
+        //When
+        CalendrierAnnuel calendrierMemeCase = CalendrierAnnuel.de(2030 + 64);
+
+        //Then
+        Assertions.assertThat(CalendrierAnnuel.de(2030 + 64)).isSameAs(calendrierMemeCase);
+        Assertions.assertThat(calendrierMemeCase.getAnnee()).isEqualTo(2094);
+        Assertions.assertThat(CalendrierAnnuel.de(2030)).isNotSameAs(calendrier).isEqualToComparingFieldByField(calendrier);
+    }
+
+    @Test
+    public void testJoursFeriesNonModifiables(){
+        //Given
+        List<LocalDate> joursFeries = Entreprise.joursFeries(LocalDate.of(2045, 6, 1));
+
+        //When - Then
+        Assertions.assertThat(joursFeries).hasSize(11).contains(LocalDate.of(2045, 4, 10), LocalDate.of(2045, 12, 25));
+        Assertions.assertThatThrownBy(() -> joursFeries.set(0, LocalDate.of(2045, 1, 2)))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+}
@@ -200,4 +200,54 @@ public class EmployeTest {
         Assertions.assertThat(prime).isEqualTo(primeAnnuelle);
     }
 
+    @ParameterizedTest()
+    @CsvSource({
+            "'M', 1, 1, 1.0, 1800.0",
+            "'T', 1, 2, 0.5, 600.0",
+            "'C', 2, 3, 1.0, 2600.0"
+    })
+    public void testPrimeAnnuelleRegle(char type, int performance, int anciennete, double tpsPartiel, double primeAnnuelle){
+        //Given
+        Employe e = new Employe("Doe", "John", type + "12345", LocalDate.now().minusYears(anciennete), Entreprise.SALAIRE_BASE, performance, tpsPartiel);
+
+        //When
+        double prime = Employe.primeAnnuelle(type, performance, anciennete, tpsPartiel);
+
+        //Then : même résultat que l'employé, au bit près
+        Assertions.assertThat(prime).isEqualTo(primeAnnuelle);
+        Assertions.assertThat(prime).isEqualTo(e.getPrimeAnnuelle());
+    }
+
+    @ParameterizedTest()
+    @CsvSource({
+            "1700.0, 0.5, 2550.0",
+            "2300.0, 0.4, 3000.0",
+            "3100.0, 0.01, 3000.0"
+    })
+    public void testSalaireAugmente(double salaire, double augmentation, double salaireAugmente){
+        //Given - When - Then
+        Assertions.assertThat(Employe.salaireAugmente(salaire, augmentation)).isEqualTo(salaireAugmente);
+    }
+
+    /**
+     * Employé embauché le 01/06/2015 : l'ancienneté change au passage du 31/12/2019 au 01/01/2020
+     */
+    @ParameterizedTest(name = "Calcul au {0}")
+    @CsvSource({
+            "2019-12-31, 4, 29, 2700.0",
+            "2020-01-01, 5, 30, 2800.0"
+    })
+    public void testCalculsAvecContexte(String dateReference, Integer anciennete, Integer nbConges, Double primeAnnuelle){
+        //Given
+        Employe e = new Employe("Doe", "John", "C12345", LocalDate.of(2015, 6, 1), Entreprise.SALAIRE_BASE, 2, 1.0);
+        ContexteCalcul contexte = ContexteCalcul.au(LocalDate.parse(dateReference));
+
+        //When - Then
+        Assertions.assertThat(e.getNombreAnneeAnciennete(contexte)).isEqualTo(anciennete);
+        Assertions.assertThat(e.getNbConges(contexte)).isEqualTo(nbConges);
+        //1000 * (2 + 0.3) + anciennete * 100
+        Assertions.assertThat(e.getPrimeAnnuelle(contexte)).isEqualTo(primeAnnuelle);
+        Assertions.assertThat(e.getNbRtt(contexte)).isEqualTo(e.getNbRtt(LocalDate.parse(dateReference)));
+    }
+
 }
\ No newline at end of file
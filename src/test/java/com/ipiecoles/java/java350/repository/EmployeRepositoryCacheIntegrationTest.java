@@ -0,0 +1,214 @@
+package com.ipiecoles.java.java350.repository;
+
+import com.ipiecoles.java.java350.exception.EmployeException;
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.service.AgregatPerformanceService;
+import com.ipiecoles.java.java350.service.EmployeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.ehcache.config.CacheRuntimeConfiguration;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Le cache de second niveau ne doit jamais servir un employé périmé après une écriture faite par la même instance.
+ * Les écritures des autres instances ne sont vues qu'à l'expiration des entrées (voir ehcache.xml).
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+public class EmployeRepositoryCacheIntegrationTest {
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    @Autowired
+    private EmployeService employeService;
+
+    @Autowired
+    private AgregatPerformanceService agregatPerformanceService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        employeRepository.deleteAll();
+        employeRepository.save(new Employe("Doe", "John", "C00001", LocalDate.of(2015, 6, 1), 2000.0, 2, 1.0));
+        agregatPerformanceService.reconcilier();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        employeRepository.deleteAll();
+        agregatPerformanceService.reconcilier();
+    }
+
+    @Test
+    public void integrationFindByMatriculeDepuisLeCache() {
+        //Given
+        employeRepository.findByMatricule("C00001");
+        long nbRequetes = statistics.getPrepareStatementCount();
+        long nbSuccesMatricule = statistics.getNaturalIdCacheHitCount();
+        long nbSuccesEmploye = statistics.getSecondLevelCacheHitCount();
+
+        //When
+        Employe employe = employeRepository.findByMatricule("C00001");
+
+        //Then
+        Assertions.assertEquals("John", employe.getPrenom());
+        Assertions.assertEquals(nbRequetes, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(nbSuccesMatricule + 1, statistics.getNaturalIdCacheHitCount());
+        Assertions.assertEquals(nbSuccesEmploye + 1, statistics.getSecondLevelCacheHitCount());
+        Assertions.assertTrue(meterRegistry.get("hibernate.second.level.cache.requests")
+                .tag("result", "hit").functionCounter().count() >= 1);
+        Assertions.assertNull(employeRepository.findByMatricule("C99999"));
+        Assertions.assertNull(employeRepository.findByMatricule(null));
+    }
+
+    @Test
+    public void integrationFindByMatriculeApresCalculPerformance() throws EmployeException {
+        //Given
+        employeRepository.findByMatricule("C00001");
+
+        //When
+        employeService.calculPerformanceCommercial("C00001", 1300L, 1000L);
+
+        //Then
+        Assertions.assertEquals(7, employeRepository.findByMatricule("C00001").getPerformance().intValue());
+    }
+
+    @Test
+    public void integrationFindByMatriculeApresModifierPerformances() {
+        //Given
+        employeRepository.findByMatricule("C00001");
+        List<EmployePerformance> employes = employeRepository.findPerformancesByMatriculeIn(Collections.singletonList("C00001"));
+
+        //When
+        new TransactionTemplate(transactionManager).execute(status -> {
+            employeRepository.modifierPerformances(employes, new Integer[]{5});
+            return null;
+        });
+
+        //Then
+        Assertions.assertEquals(5, employeRepository.findByMatricule("C00001").getPerformance().intValue());
+    }
+
+    @Test
+    public void integrationFindByMatriculeApresSave() {
+        //Given
+        Employe employe = employeRepository.findByMatricule("C00001");
+
+        //When
+        employe.setSalaire(2500.0);
+        employeRepository.save(employe);
+
+        //Then
+        Assertions.assertEquals(2500.0, employeRepository.findByMatricule("C00001").getSalaire().doubleValue());
+    }
+
+    @Test
+    public void integrationFindByMatriculeApresAugmentationDeMasse() {
+        //Given
+        employeRepository.findByMatricule("C00001");
+
+        //When
+        employeService.augmenterSalaires(FiltreEmployes.tous(), 10.0);
+
+        //Then
+        Assertions.assertEquals(2200.0, employeRepository.findByMatricule("C00001").getSalaire().doubleValue());
+    }
+
+    @Test
+    public void integrationFindByMatriculeApresSuppression() {
+        //Given
+        Employe employe = employeRepository.findByMatricule("C00001");
+
+        //When
+        employeRepository.delete(employe);
+
+        //Then
+        Assertions.assertNull(employeRepository.findByMatricule("C00001"));
+    }
+
+    @Test
+    public void integrationFindByMatriculeApresInsertionParLots() {
+        //Given
+        CacheMode cacheMode = new TransactionTemplate(transactionManager).execute(status -> {
+            employeRepository.insererParLots(Collections.singletonList(
+                    new Employe("Doe", "Jane", "C00002", LocalDate.of(2016, 1, 4), 2100.0, 1, 1.0)));
+            return entityManager.unwrap(Session.class).getCacheMode();
+        });
+        employeRepository.findByMatricule("C00002");
+        long nbRequetes = statistics.getPrepareStatementCount();
+
+        //When
+        Employe employe = employeRepository.findByMatricule("C00002");
+
+        //Then : le mode de cache est rétabli après l'insertion, l'employé inséré est mis en cache à sa première lecture
+        Assertions.assertEquals(CacheMode.NORMAL, cacheMode);
+        Assertions.assertEquals("Jane", employe.getPrenom());
+        Assertions.assertEquals(nbRequetes, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void integrationConfigurationPlusieursInstances() throws IOException {
+        //Given
+        URI configuration = new ClassPathResource("ehcache-instances-multiples.xml").getURI();
+
+        //When
+        try (CacheManager cacheManager = Caching.getCachingProvider(EhcacheCachingProvider.class.getName())
+                .getCacheManager(configuration, getClass().getClassLoader())) {
+            Cache<Object, Object> employes = cacheManager.getCache(Employe.class.getName());
+            Cache<Object, Object> matricules = cacheManager.getCache(Employe.class.getName() + "##NaturalId");
+
+            //Then : une écriture faite par une autre instance est vue au plus tard 5 secondes après
+            for (Cache<Object, Object> cache : Arrays.asList(employes, matricules)) {
+                @SuppressWarnings("unchecked")
+                CacheRuntimeConfiguration<Object, Object> regles = (CacheRuntimeConfiguration<Object, Object>) cache
+                        .getConfiguration(Eh107Configuration.class).unwrap(CacheRuntimeConfiguration.class);
+                Assertions.assertEquals(Duration.ofSeconds(5), regles.getExpiryPolicy().getExpiryForCreation(1L, "employe"));
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.ipiecoles.java.java350.repository;
+
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.Entreprise;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * Parcours en flux des employés : le résultat JDBC doit être lu en avant seulement, par paquets de la taille de
+ * fetch demandée, pour ne jamais être chargé en entier (MySQL : voir useCursorFetch dans application.properties).
+ * Les résultats des requêtes sont interceptés sur la source de données de JPA.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@Import(EmployeRepositoryCurseurIntegrationTest.Interception.class)
+public class EmployeRepositoryCurseurIntegrationTest {
+
+    private static final List<ResultSet> RESULTATS = new CopyOnWriteArrayList<>();
+
+    /**
+     * Sans annotation, pour que le scan des composants ne l'applique pas aux contextes des autres tests
+     */
+    static class Interception {
+
+        @Bean
+        public static BeanPostProcessor interceptionResultats() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String nom) {
+                    return bean instanceof DataSource ? intercepter(bean, DataSource.class) : bean;
+                }
+            };
+        }
+
+        /**
+         * Enveloppe les connexions et les requêtes de la source de données pour conserver chaque ResultSet lu
+         */
+        private static Object intercepter(Object cible, Class<?> type) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, methode, arguments) -> {
+                Object resultat;
+                try {
+                    resultat = methode.invoke(cible, arguments);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if(resultat instanceof Connection && methode.getReturnType() == Connection.class){
+                    return intercepter(resultat, Connection.class);
+                }
+                if(resultat instanceof PreparedStatement && methode.getReturnType() == PreparedStatement.class){
+                    return intercepter(resultat, PreparedStatement.class);
+                }
+                if(resultat instanceof ResultSet && "executeQuery".equals(methode.getName())){
+                    RESULTATS.add((ResultSet) resultat);
+                }
+                return resultat;
+            });
+        }
+    }
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    @AfterEach
+    public void setup(){
+        employeRepository.deleteAll();
+        RESULTATS.clear();
+    }
+
+    @Test
+    public void integrationStreamerTousCurseurEnAvantSeulement() {
+        //Given
+        for (int i = 1; i <= 5; i++) {
+            employeRepository.save(new Employe("Doe", "John", "T0000" + i, LocalDate.now(), Entreprise.SALAIRE_BASE, 1, 1.0));
+        }
+        RESULTATS.clear();
+
+        //When
+        new TransactionTemplate(transactionManager).execute(status -> {
+            try (Stream<Employe> employes = employeRepository.streamerTous(2)) {
+                Iterator<Employe> iterator = employes.iterator();
+                Assertions.assertEquals("T00001", iterator.next().getMatricule());
+
+                //Then : un seul résultat, en avant seulement, en lecture seule, lu par paquets de 2 lignes
+                Assertions.assertEquals(1, RESULTATS.size());
+                ResultSet resultat = RESULTATS.get(0);
+                Assertions.assertEquals(ResultSet.TYPE_FORWARD_ONLY, resultat.getType());
+                Assertions.assertEquals(ResultSet.CONCUR_READ_ONLY, resultat.getConcurrency());
+                Assertions.assertEquals(2, resultat.getStatement().getFetchSize());
+                Assertions.assertFalse(resultat.isClosed());
+                int nbEmployes = 1;
+                while (iterator.hasNext()) {
+                    iterator.next();
+                    nbEmployes++;
+                }
+                Assertions.assertEquals(5, nbEmployes);
+                return null;
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Assertions.assertTrue(RESULTATS.stream().allMatch(EmployeRepositoryCurseurIntegrationTest::ferme));
+    }
+
+    private static boolean ferme(ResultSet resultat) {
+        try {
+            return resultat.isClosed();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -9,9 +9,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
 
@@ -22,6 +31,12 @@ public class EmployeRepositoryIntegrationTest {
     @Autowired
     EmployeRepository employeRepository;
 
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
     @BeforeEach
     @AfterEach
     public void setup(){
@@ -61,4 +76,61 @@ public class EmployeRepositoryIntegrationTest {
         Assertions.assertEquals(2.0, avgPerformanceManager.doubleValue());
         Assertions.assertEquals(0.0, avgPerformanceTechnicien.doubleValue());
     }
+
+    @Test
+    public void integrationFindAllByOrderByIdAscSansCache() {
+        //Given
+        Employe technicien = employeRepository.save(new Employe("Doe", "John", "T12345", LocalDate.now(), Entreprise.SALAIRE_BASE, 1, 1.0));
+        Employe commercial = employeRepository.save(new Employe("Doe", "Jane", "C12345", LocalDate.now(), 2000.0, 3, 0.5));
+        entityManagerFactory.getCache().evict(Employe.class);
+
+        //When
+        List<String> matricules = new TransactionTemplate(transactionManager).execute(status -> {
+            try (Stream<EmployeResume> employes = employeRepository.findAllByOrderByIdAsc()) {
+                return employes.map(EmployeResume::getMatricule).collect(Collectors.toList());
+            }
+        });
+
+        //Then : les employés lus ne sont pas placés dans le cache de second niveau
+        Assertions.assertEquals(Arrays.asList("T12345", "C12345"), matricules);
+        Assertions.assertFalse(entityManagerFactory.getCache().contains(Employe.class, technicien.getId()));
+        Assertions.assertFalse(entityManagerFactory.getCache().contains(Employe.class, commercial.getId()));
+    }
+
+    @Test
+    public void integrationModifierPerformances() {
+        //Given
+        Employe commercial = employeRepository.save(new Employe("Doe", "John", "C12345", LocalDate.now(), Entreprise.SALAIRE_BASE, 1, 1.0));
+        List<EmployePerformance> employes = employeRepository.findPerformancesByMatriculeIn(Collections.singletonList("C12345"));
+
+        //When
+        new TransactionTemplate(transactionManager).execute(status -> {
+            employeRepository.modifierPerformances(employes, new Integer[]{4});
+            return null;
+        });
+
+        //Then
+        Employe employe = employeRepository.findByMatricule("C12345");
+        Assertions.assertEquals(4, employe.getPerformance().intValue());
+        Assertions.assertEquals(commercial.getVersion() + 1, employe.getVersion().longValue());
+    }
+
+    @Test
+    public void integrationModifierPerformancesVersionPerimee() {
+        //Given
+        Employe commercial = employeRepository.save(new Employe("Doe", "John", "C12345", LocalDate.now(), Entreprise.SALAIRE_BASE, 1, 1.0));
+        List<EmployePerformance> employes = employeRepository.findPerformancesByMatriculeIn(Collections.singletonList("C12345"));
+        commercial.setSalaire(2000.0);
+        employeRepository.save(commercial);
+
+        //When
+        Assertions.assertThrows(ObjectOptimisticLockingFailureException.class, () ->
+                new TransactionTemplate(transactionManager).execute(status -> {
+                    employeRepository.modifierPerformances(employes, new Integer[]{4});
+                    return null;
+                }));
+
+        //Then
+        Assertions.assertEquals(1, employeRepository.findByMatricule("C12345").getPerformance().intValue());
+    }
 }
@@ -0,0 +1,82 @@
+package com.ipiecoles.java.java350.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Vérifie que les requêtes sur le matricule sont servies par l'index idx_employe_matricule.
+ *
+ * La vérification MySQL n'est lancée que si la base est fournie, sur un schéma créé par l'application :
+ * mvn test -Dmysql.url=jdbc:mysql://localhost/java350 -Dmysql.user=... -Dmysql.password=...
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+public class EmployeRepositoryPlanExecutionTest {
+
+    private static final String INDEX_MATRICULE = "idx_employe_matricule";
+
+    private static final String FIND_BY_MATRICULE = "select * from employe where matricule = 'C00001'";
+
+    private static final String AVG_PERFORMANCE_PREFIXE = "select avg(performance) from employe where matricule like 'C%'";
+
+    private static final String PAGE_APRES_MATRICULE = "select * from employe where matricule > 'C00001' order by matricule limit 50";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void planH2FindByMatricule() {
+        //Given - When
+        String plan = jdbcTemplate.queryForObject("explain " + FIND_BY_MATRICULE, String.class);
+
+        //Then
+        Assertions.assertTrue(plan.toLowerCase().contains(INDEX_MATRICULE), plan);
+    }
+
+    @Test
+    public void planH2AvgPerformanceWhereMatriculeStartsWith() {
+        //Given - When
+        String plan = jdbcTemplate.queryForObject("explain " + AVG_PERFORMANCE_PREFIXE, String.class);
+
+        //Then
+        Assertions.assertTrue(plan.toLowerCase().contains(INDEX_MATRICULE), plan);
+    }
+
+    @Test
+    public void planH2FindByMatriculeGreaterThan() {
+        //Given - When
+        String plan = jdbcTemplate.queryForObject("explain " + PAGE_APRES_MATRICULE, String.class);
+
+        //Then
+        Assertions.assertTrue(plan.toLowerCase().contains(INDEX_MATRICULE), plan);
+        //Parcours dans l'ordre de l'index, sans tri
+        Assertions.assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "mysql.url", matches = ".+")
+    public void planMySqlRequetesMatricule() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(System.getProperty("mysql.url"),
+                System.getProperty("mysql.user"), System.getProperty("mysql.password"));
+             Statement statement = connection.createStatement()) {
+            for (String requete : new String[]{FIND_BY_MATRICULE, AVG_PERFORMANCE_PREFIXE, PAGE_APRES_MATRICULE}) {
+                try (ResultSet plan = statement.executeQuery("explain " + requete)) {
+                    Assertions.assertTrue(plan.next());
+                    Assertions.assertEquals(INDEX_MATRICULE, plan.getString("key"), requete);
+                }
+            }
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.ipiecoles.java.java350.repository;
 
+import com.ipiecoles.java.java350.model.ContexteCalcul;
 import com.ipiecoles.java.java350.model.Employe;
 import com.ipiecoles.java.java350.model.Entreprise;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
 
 
 @DataJpaTest
@@ -55,4 +59,97 @@ public class EmployeRepositoryTest {
         //Then
         Assertions.assertEquals("40325", lastMatricule);
     }
+
+    @Test
+    public void testMatriculeUnique(){
+        //Given
+        employeRepository.saveAndFlush(new Employe("Doe", "John", "T12345", LocalDate.now(), Entreprise.SALAIRE_BASE, 1, 1.0));
+
+        //When - Then
+        Assertions.assertThrows(DataIntegrityViolationException.class, () ->
+                employeRepository.saveAndFlush(new Employe("Doe", "Jane", "T12345", LocalDate.now(), Entreprise.SALAIRE_BASE, 1, 1.0)));
+    }
+
+    @Test
+    public void testAugmenterSalairesIdentiqueAAugmenterSalaire(){
+        //Given
+        Employe[] employes = {
+                new Employe("Doe", "John", "T00001", LocalDate.of(2010, 3, 1), 1700.0, 1, 1.0),
+                new Employe("Doe", "Jane", "C00002", LocalDate.of(2018, 3, 1), 1521.22, 3, 1.0),
+                new Employe("Doe", "Jim", "C00003", LocalDate.of(2018, 3, 1), 2900.0, 2, 1.0),
+                new Employe("Doe", "Joe", "M00004", LocalDate.of(2001, 3, 1), 3200.0, 1, 1.0)};
+        for (Employe employe : employes) {
+            employeRepository.save(employe);
+        }
+
+        //When
+        int nbEmployes = employeRepository.augmenterSalaires(FiltreEmployes.tous(), 4.1 / 100, ContexteCalcul.au(LocalDate.of(2019, 6, 1)));
+
+        //Then
+        Assertions.assertEquals(4, nbEmployes);
+        for (Employe employe : employes) {
+            Employe attendu = new Employe(employe.getNom(), employe.getPrenom(), employe.getMatricule(), employe.getDateEmbauche(), employe.getSalaire(), employe.getPerformance(), employe.getTempsPartiel());
+            attendu.augmenterSalaire(4.1);
+            Assertions.assertEquals(attendu.getSalaire(), employeRepository.findByMatricule(employe.getMatricule()).getSalaire(), employe.getMatricule());
+        }
+    }
+
+    @Test
+    public void testAugmenterSalairesFiltre(){
+        //Given
+        //Ancienneté au 01/06/2019 : 9, 1, 0 (embauche à venir), 18 et 1 ans
+        employeRepository.save(new Employe("Doe", "John", "C00001", LocalDate.of(2010, 3, 1), 2000.0, 3, 1.0));
+        employeRepository.save(new Employe("Doe", "Jane", "C00002", LocalDate.of(2018, 12, 31), 2000.0, 3, 1.0));
+        employeRepository.save(new Employe("Doe", "Jim", "C00003", LocalDate.of(2019, 9, 1), 2000.0, 3, 1.0));
+        employeRepository.save(new Employe("Doe", "Joe", "C00004", LocalDate.of(2001, 3, 1), 2000.0, 6, 1.0));
+        employeRepository.save(new Employe("Doe", "Jack", "T00005", LocalDate.of(2018, 1, 1), 2000.0, 3, 1.0));
+        ContexteCalcul contexte = ContexteCalcul.au(LocalDate.of(2019, 6, 1));
+
+        //When
+        int nbEmployes = employeRepository.augmenterSalaires(FiltreEmployes.tous().typeEmploye("C").performanceEntre(2, 5).ancienneteEntre(1, 9), 0.1, contexte);
+
+        //Then
+        Assertions.assertEquals(2, nbEmployes);
+        Assertions.assertEquals(2200.0, employeRepository.findByMatricule("C00001").getSalaire().doubleValue());
+        Assertions.assertEquals(2200.0, employeRepository.findByMatricule("C00002").getSalaire().doubleValue());
+        Assertions.assertEquals(2000.0, employeRepository.findByMatricule("C00003").getSalaire().doubleValue());
+        Assertions.assertEquals(2000.0, employeRepository.findByMatricule("C00004").getSalaire().doubleValue());
+        Assertions.assertEquals(2000.0, employeRepository.findByMatricule("T00005").getSalaire().doubleValue());
+        Assertions.assertEquals(1, employeRepository.augmenterSalaires(FiltreEmployes.tous().ancienneteEntre(0, 0), 0.1, contexte));
+    }
+
+    @Test
+    public void testHausseSalairesParType(){
+        //Given
+        employeRepository.save(new Employe("Doe", "John", "C00001", LocalDate.of(2010, 3, 1), 2000.0, 3, 1.0));
+        employeRepository.save(new Employe("Doe", "Jane", "C00002", LocalDate.of(2010, 3, 1), Entreprise.SALAIRE_MAX - 100, 3, 1.0));
+        employeRepository.save(new Employe("Doe", "Joe", "C00003", LocalDate.of(2010, 3, 1), 2000.0, 6, 1.0));
+        employeRepository.save(new Employe("Doe", "Jack", "T00004", LocalDate.of(2010, 3, 1), 2000.0, 3, 1.0));
+        FiltreEmployes filtre = FiltreEmployes.tous().typeEmploye("C").performanceEntre(1, 5);
+        ContexteCalcul contexte = ContexteCalcul.au(LocalDate.of(2019, 6, 1));
+
+        //When
+        Map<String, Double> hausses = employeRepository.hausseSalairesParType(filtre, 0.1, contexte);
+
+        //Then : hausse plafonnée au salaire maximum, égale à celle appliquée par augmenterSalaires
+        Assertions.assertEquals(Collections.singleton("C"), hausses.keySet());
+        Assertions.assertEquals(300.0, hausses.get("C"), 0.001);
+        employeRepository.augmenterSalaires(filtre, 0.1, contexte);
+        Assertions.assertEquals(2200.0, employeRepository.findByMatricule("C00001").getSalaire().doubleValue());
+        Assertions.assertEquals(Entreprise.SALAIRE_MAX.doubleValue(), employeRepository.findByMatricule("C00002").getSalaire().doubleValue());
+    }
+
+    @Test
+    public void testAugmenterSalairesIncrementeVersion(){
+        //Given
+        Long versionAugmente = employeRepository.save(new Employe("Doe", "John", "C00001", LocalDate.of(2010, 3, 1), 2000.0, 3, 1.0)).getVersion();
+        Long versionInchange = employeRepository.save(new Employe("Doe", "Jack", "T00002", LocalDate.of(2010, 3, 1), 2000.0, 3, 1.0)).getVersion();
+
+        //When
+        employeRepository.augmenterSalaires(FiltreEmployes.tous().typeEmploye("C"), 0.1, ContexteCalcul.au(LocalDate.of(2019, 6, 1)));
+
+        //Then
+        Assertions.assertEquals(versionAugmente + 1, employeRepository.findByMatricule("C00001").getVersion().longValue());
+        Assertions.assertEquals(versionInchange, employeRepository.findByMatricule("T00002").getVersion());
+    }
 }
@@ -0,0 +1,150 @@
+package com.ipiecoles.java.java350.repository;
+
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.service.AgregatPerformanceService;
+import com.ipiecoles.java.java350.service.EmployeService;
+import com.ipiecoles.java.java350.service.MatriculeAllocator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+
+/**
+ * Deux bases H2 en mémoire tiennent lieu de primaire et de replica, la réplication est simulée en recopiant le
+ * script de la primaire sur la replica
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:primaire;DB_CLOSE_DELAY=-1",
+        "java350.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1", "java350.replica.username=sa", "java350.replica.password=sa",
+        "java350.replica.intervalle-verification=3600000"})
+public class RoutageLectureEcritureIntegrationTest {
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    @Autowired
+    private AgregatPerformanceService agregatPerformanceService;
+
+    @Autowired
+    private MatriculeAllocator matriculeAllocator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SurveillanceReplica surveillanceReplica;
+
+    @Autowired
+    private EmployeService employeService;
+
+    @Autowired
+    @Qualifier("dataSourcePrimaire")
+    private DataSource primaire;
+
+    @Autowired
+    @Qualifier("dataSourceReplica")
+    private DataSource replica;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup(){
+        employeRepository.deleteAll();
+        agregatPerformanceService.reconcilier();
+        matriculeAllocator.resynchroniser();
+        surveillanceReplica.verifier();
+        repliquer();
+        Assertions.assertTrue(surveillanceReplica.verifier());
+    }
+
+    @AfterEach
+    public void tearDown(){
+        employeRepository.deleteAll();
+    }
+
+    private void repliquer() {
+        JdbcTemplate jdbcReplica = new JdbcTemplate(replica);
+        jdbcReplica.execute("drop all objects");
+        for (String instruction : new JdbcTemplate(primaire).queryForList("script", String.class)) {
+            jdbcReplica.execute(instruction);
+        }
+    }
+
+    private long compterEmployes(boolean lectureSeule) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(lectureSeule);
+        return transactionTemplate.execute(status -> employeRepository.count());
+    }
+
+    private void embaucher() {
+        employeRepository.save(new Employe("Doe", "John", "T12345", LocalDate.now(), 1500d, 1, 1.0));
+    }
+
+    @Test
+    public void testLecturesSeulesSurReplica() {
+        //Given
+        double connexionsReplica = meterRegistry.counter("java350.datasource.connexions", "cible", "replica").count();
+        embaucher();
+
+        //When
+        long lectureSeule = compterEmployes(true);
+        long lectureEcriture = compterEmployes(false);
+        repliquer();
+        long lectureSeuleApresReplication = compterEmployes(true);
+
+        //Then
+        Assertions.assertEquals(0L, lectureSeule);
+        Assertions.assertEquals(1L, lectureEcriture);
+        Assertions.assertEquals(1L, lectureSeuleApresReplication);
+        Assertions.assertEquals(connexionsReplica + 2, meterRegistry.counter("java350.datasource.connexions", "cible", "replica").count());
+    }
+
+    @Test
+    public void testFindByMatriculeReplicaEnRetardHorsCache() {
+        //Given : la replica n'a pas reçu l'augmentation
+        embaucher();
+        repliquer();
+        employeService.augmenterSalaires(FiltreEmployes.tous(), 10.0);
+        TransactionTemplate lectureSeule = new TransactionTemplate(transactionManager);
+        lectureSeule.setReadOnly(true);
+
+        //When
+        Double salaireReplica = lectureSeule.execute(status -> employeRepository.findByMatricule("T12345").getSalaire());
+        Double salaire = employeRepository.findByMatricule("T12345").getSalaire();
+
+        //Then : le salaire périmé lu sur la replica n'a pas été mis en cache
+        Assertions.assertEquals(1500d, salaireReplica.doubleValue());
+        Assertions.assertEquals(1650d, salaire.doubleValue());
+        Assertions.assertEquals(1650d, lectureSeule.execute(status -> employeRepository.findByMatricule("T12345").getSalaire()).doubleValue());
+    }
+
+    @Test
+    public void testRetardTropImportant() {
+        //Given : dernier battement reçu par la replica il y a une minute
+        new JdbcTemplate(replica).update("update battement_replication set horodatage = horodatage - 60000");
+        embaucher();
+
+        //When
+        boolean disponible = surveillanceReplica.verifier();
+
+        //Then
+        Assertions.assertFalse(disponible);
+        Assertions.assertTrue(surveillanceReplica.getRetard() >= 60000L);
+        Assertions.assertEquals(1L, compterEmployes(true));
+        repliquer();
+        Assertions.assertTrue(surveillanceReplica.verifier());
+    }
+}
@@ -0,0 +1,88 @@
+package com.ipiecoles.java.java350.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+@ExtendWith(MockitoExtension.class)
+public class RoutageLectureEcritureTest {
+
+    @Mock
+    private DataSource primaire;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection connexionPrimaire;
+
+    @Mock
+    private Connection connexionReplica;
+
+    private RoutageLectureEcriture routage;
+
+    @BeforeEach
+    public void setup(){
+        routage = new RoutageLectureEcriture(primaire, replica, new SimpleMeterRegistry());
+        routage.afterPropertiesSet();
+    }
+
+    @AfterEach
+    public void tearDown(){
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void testLectureSeuleSurReplica() throws SQLException {
+        //Given
+        Mockito.when(replica.getConnection()).thenReturn(connexionReplica);
+        routage.setReplicaDisponible(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        //When - Then
+        Assertions.assertSame(connexionReplica, routage.getConnection());
+    }
+
+    @Test
+    public void testEcritureOuReplicaEcarteeSurPrimaire() throws SQLException {
+        //Given
+        Mockito.when(primaire.getConnection()).thenReturn(connexionPrimaire);
+
+        //When - Then : replica pas encore vérifiée, puis transaction en écriture
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Assertions.assertSame(connexionPrimaire, routage.getConnection());
+        routage.setReplicaDisponible(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        Assertions.assertSame(connexionPrimaire, routage.getConnection());
+        Mockito.verify(replica, Mockito.never()).getConnection();
+    }
+
+    @Test
+    public void testRepliSurPrimaireSiReplicaInjoignable() throws SQLException {
+        //Given
+        Mockito.when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        Mockito.when(primaire.getConnection()).thenReturn(connexionPrimaire);
+        routage.setReplicaDisponible(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        //When
+        Connection connexion = routage.getConnection();
+
+        //Then : la replica reste écartée jusqu'à la prochaine vérification
+        Assertions.assertSame(connexionPrimaire, connexion);
+        Assertions.assertFalse(routage.isReplicaDisponible());
+        Assertions.assertSame(connexionPrimaire, routage.getConnection());
+        Mockito.verify(replica, Mockito.times(1)).getConnection();
+    }
+}
@@ -0,0 +1,76 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.exception.EmployeException;
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.Entreprise;
+import com.ipiecoles.java.java350.model.NiveauEtude;
+import com.ipiecoles.java.java350.model.Poste;
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+public class AgregatPerformanceServiceIntegrationTest {
+
+    @Autowired
+    private AgregatPerformanceService agregatPerformanceService;
+
+    @Autowired
+    private EmployeService employeService;
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    @Autowired
+    private MatriculeAllocator matriculeAllocator;
+
+    @BeforeEach
+    @AfterEach
+    public void setup(){
+        employeRepository.deleteAll();
+        agregatPerformanceService.reconcilier();
+        matriculeAllocator.resynchroniser();
+    }
+
+    @Test
+    public void integrationAgregatsTenusAJourParEmployeService() throws EmployeException {
+        //Given
+        employeService.embaucheEmploye("Doe", "John", Poste.COMMERCIAL, NiveauEtude.BAC, 1.0);
+        employeService.embaucheEmploye("Doe", "Jane", Poste.COMMERCIAL, NiveauEtude.BAC, 1.0);
+
+        //When : CA supérieur de plus de 20% à l'objectif, 1 + 4 puis + 1 car au-dessus de la moyenne
+        employeService.calculPerformanceCommercial("C00001", 20000L, 10000L);
+
+        //Then
+        Assertions.assertEquals(6, employeRepository.findByMatricule("C00001").getPerformance().intValue());
+        Assertions.assertEquals(employeRepository.avgPerformanceWhereMatriculeStartsWith("C"), agregatPerformanceService.performanceMoyenne("C"));
+        Assertions.assertEquals(3.5, agregatPerformanceService.performanceMoyenne("C").doubleValue());
+        Assertions.assertNull(agregatPerformanceService.performanceMoyenne("T"));
+        Assertions.assertTrue(agregatPerformanceService.reconcilier().isEmpty());
+    }
+
+    @Test
+    public void integrationReconciliationSignaleLesEcarts() {
+        //Given : écriture directe sans passer par EmployeService
+        employeRepository.save(new Employe("Doe", "John", "M00001", LocalDate.now(), Entreprise.SALAIRE_BASE, 3, 1.0));
+
+        //When
+        List<String> typesEnEcart = agregatPerformanceService.reconcilier();
+
+        //Then
+        Assertions.assertEquals(Collections.singletonList("M"), typesEnEcart);
+        Assertions.assertEquals(3.0, agregatPerformanceService.performanceMoyenne("M").doubleValue());
+        Assertions.assertTrue(agregatPerformanceService.reconcilier().isEmpty());
+    }
+}
@@ -0,0 +1,77 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.model.ContexteCalcul;
+import com.ipiecoles.java.java350.model.Employe;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.time.LocalDate;
+
+public class CalendrierServiceTest {
+
+    private final CalendrierService calendrierService = new CalendrierService();
+
+    private final ContexteCalcul contexte = ContexteCalcul.au(LocalDate.of(2019, 12, 31));
+
+    @ParameterizedTest(name = "Embauche {0}, temps partiel {1}")
+    @CsvSource({
+            "2012-03-01, 1.0",
+            "2018-12-31, 0.5",
+            "2019-01-01, 0.8",
+            ", 1.0"
+    })
+    public void testAnneeCompleteIdentiqueAuCalculAnnuel(String dateEmbauche, Double tempsPartiel) {
+        //Given
+        Employe employe = new Employe("Doe", "John", "T00001", dateEmbauche == null ? null : LocalDate.parse(dateEmbauche), 1600d, 1, tempsPartiel);
+
+        //When
+        Double nbRtt = calendrierService.nbRttAuProrata(employe, contexte, null);
+        int nbConges = calendrierService.nbCongesAuProrata(employe, contexte, LocalDate.of(2020, 6, 30));
+
+        //Then
+        Assertions.assertEquals(1d, calendrierService.prorataPresence(employe, contexte, null));
+        Assertions.assertEquals(employe.getNbRtt(contexte), nbRtt);
+        Assertions.assertEquals(employe.getNbConges(contexte).intValue(), nbConges);
+    }
+
+    @Test
+    public void testEmbaucheEnCoursDAnnee() {
+        //Given : embauche le lundi 1er juillet 2019, 128 jours ouvrés jusqu'au 31 décembre sur 251
+        Employe employe = new Employe("Doe", "John", "T00001", LocalDate.of(2019, 7, 1), 1600d, 1, 1.0);
+
+        //When
+        double prorata = calendrierService.prorataPresence(employe, contexte, null);
+
+        //Then
+        Assertions.assertEquals(128d / 251, prorata, 1e-12);
+        Assertions.assertEquals(Math.ceil(8 * 128d / 251), calendrierService.nbRttAuProrata(employe, contexte, null).doubleValue());
+        Assertions.assertEquals((int) Math.ceil(25 * 128d / 251), calendrierService.nbCongesAuProrata(employe, contexte, null));
+    }
+
+    @Test
+    public void testDepartEnCoursDAnnee() {
+        //Given : départ le vendredi 31 mai 2019
+        Employe employe = new Employe("Doe", "John", "T00001", LocalDate.of(2015, 9, 1), 1600d, 1, 0.5);
+        LocalDate dateDepart = LocalDate.of(2019, 5, 31);
+
+        //When
+        double prorata = calendrierService.prorataPresence(employe, contexte, dateDepart);
+
+        //Then
+        Assertions.assertEquals(calendrierService.nbJoursOuvres(LocalDate.of(2019, 1, 1), dateDepart) / 251d, prorata, 1e-12);
+    }
+
+    @Test
+    public void testAbsentDeLAnnee() {
+        //Given
+        Employe embaucheApres = new Employe("Doe", "John", "T00001", LocalDate.of(2020, 1, 6), 1600d, 1, 1.0);
+        Employe partiAvant = new Employe("Doe", "Jane", "T00002", LocalDate.of(2010, 1, 4), 1600d, 1, 1.0);
+
+        //When - Then
+        Assertions.assertEquals(0d, calendrierService.prorataPresence(embaucheApres, contexte, null));
+        Assertions.assertEquals(0d, calendrierService.prorataPresence(partiAvant, contexte, LocalDate.of(2018, 12, 31)));
+        Assertions.assertEquals(0, calendrierService.nbCongesAuProrata(partiAvant, contexte, LocalDate.of(2018, 12, 31)));
+    }
+}
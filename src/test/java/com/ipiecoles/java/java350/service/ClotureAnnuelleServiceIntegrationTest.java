@@ -0,0 +1,166 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.model.BilanPaie;
+import com.ipiecoles.java.java350.model.ContexteCalcul;
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.PartitionCloture;
+import com.ipiecoles.java.java350.repository.BilanPaieRepository;
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import com.ipiecoles.java.java350.repository.PartitionClotureRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = {"java350.cloture.taille-partition=20", "java350.cloture.taille-lot=7", "java350.cloture.parallelisme=3"})
+public class ClotureAnnuelleServiceIntegrationTest {
+
+    @Autowired
+    private ClotureAnnuelleService clotureAnnuelleService;
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    @Autowired
+    private BilanPaieRepository bilanPaieRepository;
+
+    @Autowired
+    private PartitionClotureRepository partitionClotureRepository;
+
+    @Autowired
+    private AgregatPerformanceService agregatPerformanceService;
+
+    @Autowired
+    private MatriculeAllocator matriculeAllocator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    @AfterEach
+    public void setup(){
+        bilanPaieRepository.deleteAll();
+        partitionClotureRepository.deleteAll();
+        employeRepository.deleteAll();
+        agregatPerformanceService.reconcilier();
+        matriculeAllocator.resynchroniser();
+    }
+
+    private List<Employe> embaucher(int nbEmployes) {
+        List<Employe> employes = new ArrayList<>();
+        for (int i = 1; i <= nbEmployes; i++) {
+            String matricule = (i % 5 == 0 ? "M" : i % 2 == 0 ? "C" : "T") + String.format("%05d", i);
+            employes.add(new Employe("Doe", "John" + i, matricule, LocalDate.of(2005 + i % 15, 1 + i % 12, 1), 1500d + i, 1 + i % 4, i % 3 == 0 ? 0.5 : 1.0));
+        }
+        //Embauché après la fin de l'année clôturée
+        employes.add(new Employe("Doe", "Jane", "T99999", LocalDate.of(2020, 1, 6), 1600d, 1, 1.0));
+        List<Employe> enregistres = employeRepository.saveAll(employes);
+        agregatPerformanceService.reconcilier();
+        matriculeAllocator.resynchroniser();
+        return enregistres;
+    }
+
+    @Test
+    public void integrationCloture() {
+        //Given
+        List<Employe> employes = embaucher(60);
+        ContexteCalcul contexte = ContexteCalcul.au(LocalDate.of(2019, 12, 31));
+
+        //When
+        RapportCloture rapport = clotureAnnuelleService.cloturer(2019);
+
+        //Then
+        Assertions.assertTrue(rapport.isTerminee());
+        Assertions.assertEquals(60, rapport.getNbBilans());
+        long nbIdentifiants = employes.get(employes.size() - 1).getId() - employes.get(0).getId() + 1;
+        Assertions.assertEquals((nbIdentifiants + 19) / 20, rapport.getNbPartitions());
+        List<BilanPaie> bilans = bilanPaieRepository.findByAnneeOrderByEmployeIdAsc(2019);
+        Assertions.assertEquals(60, bilans.size());
+        for (int i = 0; i < bilans.size(); i++) {
+            Employe employe = employes.get(i);
+            BilanPaie bilan = bilans.get(i);
+            Assertions.assertEquals(employe.getId(), bilan.getEmployeId());
+            Assertions.assertEquals(employe.getPrimeAnnuelle(contexte), bilan.getPrimeAnnuelle());
+            Assertions.assertEquals(employe.getNbConges(contexte), bilan.getNbConges());
+            Assertions.assertEquals(employe.getNbRtt(contexte), bilan.getNbRtt());
+        }
+        Assertions.assertTrue(clotureAnnuelleService.avancement(2019).stream().allMatch(PartitionCloture::getTerminee));
+        Assertions.assertEquals(60, clotureAnnuelleService.avancement(2019).stream().mapToLong(PartitionCloture::getNbBilans).sum());
+        Assertions.assertTrue(meterRegistry.get("java350.cloture.bilans").tag("annee", "2019").counter().count() >= 60);
+    }
+
+    @Test
+    public void integrationClotureSansCacheDeSecondNiveau() {
+        //Given
+        List<Employe> employes = embaucher(30);
+        entityManagerFactory.getCache().evict(Employe.class);
+
+        //When
+        clotureAnnuelleService.cloturer(2019);
+
+        //Then : les employés parcourus ne sont pas placés dans le cache
+        for (Employe employe : employes) {
+            Assertions.assertFalse(entityManagerFactory.getCache().contains(Employe.class, employe.getId()));
+        }
+    }
+
+    @Test
+    public void integrationClotureTermineeNonRejouee() {
+        //Given
+        embaucher(30);
+        clotureAnnuelleService.cloturer(2019);
+
+        //When
+        RapportCloture rapport = clotureAnnuelleService.cloturer(2019);
+
+        //Then
+        Assertions.assertEquals(0, rapport.getNbBilans());
+        Assertions.assertEquals(rapport.getNbPartitions(), rapport.getNbPartitionsDejaTerminees());
+        Assertions.assertEquals(30, bilanPaieRepository.countByAnnee(2019));
+    }
+
+    @Test
+    public void integrationRepriseApresInterruption() {
+        //Given : clôture interrompue au milieu de la partition 2, après le lot de ses 7 premiers employés
+        List<Employe> employes = embaucher(60);
+        clotureAnnuelleService.cloturer(2019);
+        PartitionCloture partition = clotureAnnuelleService.avancement(2019).get(1);
+        List<Long> idsPartition = employes.stream().map(Employe::getId)
+                .filter(id -> id >= partition.getIdDebut() && id <= partition.getIdFin())
+                .collect(Collectors.toList());
+        Long pointReprise = idsPartition.get(6);
+        List<BilanPaie> bilansPerdus = bilanPaieRepository.findByAnneeOrderByEmployeIdAsc(2019).stream()
+                .filter(bilan -> bilan.getEmployeId() > pointReprise && bilan.getEmployeId() <= partition.getIdFin())
+                .collect(Collectors.toList());
+        bilanPaieRepository.deleteAll(bilansPerdus);
+        partition.setDernierIdTraite(pointReprise);
+        partition.setNbBilans(7L);
+        partition.setTerminee(false);
+        partitionClotureRepository.save(partition);
+
+        //When
+        RapportCloture rapport = clotureAnnuelleService.cloturer(2019);
+
+        //Then
+        Assertions.assertTrue(rapport.isTerminee());
+        Assertions.assertEquals(3, rapport.getNbPartitionsDejaTerminees());
+        Assertions.assertEquals(bilansPerdus.size(), rapport.getNbBilans());
+        Assertions.assertEquals(60, bilanPaieRepository.countByAnnee(2019));
+        Assertions.assertEquals((long) idsPartition.size(), clotureAnnuelleService.avancement(2019).get(1).getNbBilans().longValue());
+    }
+}
@@ -0,0 +1,82 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.NiveauEtude;
+import com.ipiecoles.java.java350.model.Poste;
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+public class EmbaucheAsynchroneServiceIntegrationTest {
+
+    @Autowired
+    private EmbaucheAsynchroneService embaucheAsynchroneService;
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    @Autowired
+    private AgregatPerformanceService agregatPerformanceService;
+
+    @Autowired
+    private MatriculeAllocator matriculeAllocator;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    @AfterEach
+    public void setup() {
+        employeRepository.deleteAllInBatch();
+        agregatPerformanceService.reconcilier();
+        matriculeAllocator.resynchroniser();
+    }
+
+    @Test
+    public void integrationEmbaucheEmployeRafale() throws Exception {
+        //Given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long nbTransactions = statistics.getTransactionCount();
+        ExecutorService demandeurs = Executors.newFixedThreadPool(64);
+
+        //When
+        List<Future<CompletableFuture<Employe>>> demandes = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            Poste poste = Poste.values()[i % Poste.values().length];
+            demandes.add(demandeurs.submit(() -> embaucheAsynchroneService.embaucheEmploye("Doe", "John", poste, NiveauEtude.BTS_IUT, 1.0)));
+        }
+        Set<String> matricules = new HashSet<>();
+        for (Future<CompletableFuture<Employe>> demande : demandes) {
+            matricules.add(demande.get(60, TimeUnit.SECONDS).get(60, TimeUnit.SECONDS).getMatricule());
+        }
+        demandeurs.shutdown();
+
+        //Then
+        Assertions.assertEquals(10000, matricules.size());
+        Assertions.assertEquals(10000, employeRepository.count());
+        Assertions.assertTrue(agregatPerformanceService.reconcilier().isEmpty());
+        //Plusieurs centaines d'embauches par transaction
+        Assertions.assertTrue(statistics.getTransactionCount() - nbTransactions < 200, "Transactions : " + (statistics.getTransactionCount() - nbTransactions));
+    }
+}
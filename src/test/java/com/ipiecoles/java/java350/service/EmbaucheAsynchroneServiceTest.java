@@ -0,0 +1,287 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.exception.EmployeException;
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.NiveauEtude;
+import com.ipiecoles.java.java350.model.Poste;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmbaucheAsynchroneServiceTest {
+
+    @InjectMocks
+    private EmbaucheAsynchroneService embaucheAsynchroneService;
+
+    @Mock
+    private EmployeService employeService;
+
+    @Mock
+    private MatriculeAllocator matriculeAllocator;
+
+    private final CountDownLatch premierGroupeEnCours = new CountDownLatch(1);
+
+    private final CountDownLatch liberation = new CountDownLatch(1);
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        liberation.countDown();
+        embaucheAsynchroneService.arreter();
+    }
+
+    private void demarrer(int capaciteFile, EmbaucheAsynchroneService.PolitiqueSaturation politique) {
+        ReflectionTestUtils.setField(embaucheAsynchroneService, "capaciteFile", capaciteFile);
+        ReflectionTestUtils.setField(embaucheAsynchroneService, "tailleGroupe", 10);
+        ReflectionTestUtils.setField(embaucheAsynchroneService, "politiqueSaturation", politique);
+        embaucheAsynchroneService.demarrer();
+    }
+
+    /**
+     * Le premier groupe reste en cours d'enregistrement jusqu'à la libération
+     */
+    private void bloquerPremierGroupe() throws EmployeException {
+        when(employeService.embaucheEmployes(anyList(), anyInt())).thenAnswer(invocation -> {
+            premierGroupeEnCours.countDown();
+            liberation.await();
+            return embauches(invocation.getArgument(0));
+        });
+    }
+
+    private static List<Employe> embauches(List<DemandeEmbauche> demandes) {
+        List<Employe> employes = new ArrayList<>();
+        for (DemandeEmbauche demande : demandes) {
+            Employe employe = new Employe();
+            employe.setNom(demande.getNom());
+            employes.add(employe);
+        }
+        return employes;
+    }
+
+    private CompletableFuture<Employe> embauche(String nom) {
+        return embaucheAsynchroneService.embaucheEmploye(nom, "John", Poste.COMMERCIAL, NiveauEtude.MASTER, 1.0);
+    }
+
+    @Test
+    public void testEmbaucheEmployeParGroupe() throws Exception {
+        //Given
+        demarrer(100, EmbaucheAsynchroneService.PolitiqueSaturation.BLOQUER);
+        bloquerPremierGroupe();
+        CompletableFuture<Employe> premiere = embauche("Doe0");
+        premierGroupeEnCours.await(5, TimeUnit.SECONDS);
+
+        //When
+        List<CompletableFuture<Employe>> suivantes = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            suivantes.add(embauche("Doe" + i));
+        }
+        liberation.countDown();
+
+        //Then
+        Assertions.assertEquals("Doe0", premiere.get(5, TimeUnit.SECONDS).getNom());
+        for (int i = 1; i <= 5; i++) {
+            Assertions.assertEquals("Doe" + i, suivantes.get(i - 1).get(5, TimeUnit.SECONDS).getNom());
+        }
+        //Les demandes arrivées pendant le premier enregistrement forment un seul groupe
+        verify(employeService, times(2)).embaucheEmployes(anyList(), anyInt());
+    }
+
+    @Test
+    public void testEmbaucheEmployeFilePleineRejeter() throws Exception {
+        //Given
+        demarrer(1, EmbaucheAsynchroneService.PolitiqueSaturation.REJETER);
+        bloquerPremierGroupe();
+        CompletableFuture<Employe> enCours = embauche("Doe0");
+        premierGroupeEnCours.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Employe> enAttente = embauche("Doe1");
+
+        //When
+        CompletableFuture<Employe> rejetee = embauche("Doe2");
+
+        //Then
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> rejetee.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(e.getCause() instanceof RejectedExecutionException);
+        liberation.countDown();
+        Assertions.assertEquals("Doe0", enCours.get(5, TimeUnit.SECONDS).getNom());
+        Assertions.assertEquals("Doe1", enAttente.get(5, TimeUnit.SECONDS).getNom());
+    }
+
+    @Test
+    public void testEmbaucheEmployeFilePleineDelester() throws Exception {
+        //Given
+        demarrer(1, EmbaucheAsynchroneService.PolitiqueSaturation.DELESTER);
+        bloquerPremierGroupe();
+        CompletableFuture<Employe> enCours = embauche("Doe0");
+        premierGroupeEnCours.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Employe> delestee = embauche("Doe1");
+
+        //When
+        CompletableFuture<Employe> nouvelle = embauche("Doe2");
+
+        //Then
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> delestee.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(e.getCause() instanceof RejectedExecutionException);
+        liberation.countDown();
+        Assertions.assertEquals("Doe0", enCours.get(5, TimeUnit.SECONDS).getNom());
+        Assertions.assertEquals("Doe2", nouvelle.get(5, TimeUnit.SECONDS).getNom());
+    }
+
+    @Test
+    public void testEmbaucheEmployeEchecGroupe() throws Exception {
+        //Given
+        demarrer(100, EmbaucheAsynchroneService.PolitiqueSaturation.BLOQUER);
+        doReturn(10).when(matriculeAllocator).reserverNumeros(1);
+        doReturn(11).when(matriculeAllocator).reserverNumeros(2);
+        bloquerPremierGroupe();
+        CompletableFuture<Employe> premiere = embauche("Doe0");
+        premierGroupeEnCours.await(5, TimeUnit.SECONDS);
+        //Le groupe suivant échoue à cause d'une seule de ses demandes
+        doAnswer(invocation -> {
+            List<DemandeEmbauche> demandes = invocation.getArgument(0);
+            for (DemandeEmbauche demande : demandes) {
+                if("Fautif".equals(demande.getNom())){
+                    throw new DataIntegrityViolationException("Matricule en double");
+                }
+            }
+            return embauches(demandes);
+        }).when(employeService).embaucheEmployes(anyList(), anyInt());
+        CompletableFuture<Employe> valide = embauche("Doe1");
+        CompletableFuture<Employe> fautive = embauche("Fautif");
+
+        //When
+        liberation.countDown();
+
+        //Then
+        Assertions.assertEquals("Doe0", premiere.get(5, TimeUnit.SECONDS).getNom());
+        Assertions.assertEquals("Doe1", valide.get(5, TimeUnit.SECONDS).getNom());
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> fautive.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(e.getCause() instanceof DataIntegrityViolationException);
+        //Demandes rejouées sur les matricules réservés par le groupe, aucun autre n'est réservé
+        verify(employeService).embaucheEmployes(argThat(demandes -> demandes.size() == 1 && "Doe1".equals(demandes.get(0).getNom())), eq(11));
+        verify(employeService).embaucheEmployes(argThat(demandes -> demandes.size() == 1 && "Fautif".equals(demandes.get(0).getNom())), eq(12));
+        verify(matriculeAllocator, times(1)).reserverNumeros(2);
+        verify(matriculeAllocator, times(1)).reserverNumeros(1);
+    }
+
+    @Test
+    public void testEmbaucheEmployeMatriculesInsuffisantsPourLeGroupe() throws Exception {
+        //Given : il ne reste qu'un matricule après la première embauche
+        demarrer(100, EmbaucheAsynchroneService.PolitiqueSaturation.BLOQUER);
+        doReturn(1, 99999).doThrow(new EmployeException("Limite des 100000 matricules atteinte !")).when(matriculeAllocator).reserverNumeros(1);
+        doThrow(new EmployeException("Limite des 100000 matricules atteinte !")).when(matriculeAllocator).reserverNumeros(2);
+        bloquerPremierGroupe();
+        CompletableFuture<Employe> premiere = embauche("Doe0");
+        premierGroupeEnCours.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Employe> derniere = embauche("Doe1");
+        CompletableFuture<Employe> deTrop = embauche("Doe2");
+
+        //When
+        liberation.countDown();
+
+        //Then : la première demande du groupe obtient le dernier matricule, la suivante échoue
+        Assertions.assertEquals("Doe0", premiere.get(5, TimeUnit.SECONDS).getNom());
+        Assertions.assertEquals("Doe1", derniere.get(5, TimeUnit.SECONDS).getNom());
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> deTrop.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(e.getCause() instanceof EmployeException);
+        verify(employeService).embaucheEmployes(argThat(demandes -> demandes.size() == 1 && "Doe1".equals(demandes.get(0).getNom())), eq(99999));
+        verify(employeService, times(2)).embaucheEmployes(anyList(), anyInt());
+    }
+
+    @Test
+    public void testEmbaucheEmployeApresArret() throws Exception {
+        //Given
+        demarrer(100, EmbaucheAsynchroneService.PolitiqueSaturation.BLOQUER);
+        embaucheAsynchroneService.arreter();
+
+        //When
+        CompletableFuture<Employe> embauche = embauche("Doe");
+
+        //Then
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> embauche.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(e.getCause() instanceof RejectedExecutionException);
+        verify(employeService, never()).embaucheEmployes(anyList(), anyInt());
+    }
+
+    @Test
+    public void testEmbaucheEmployeBloqueeRejeteeALArret() throws Exception {
+        //Given : file pleine, une demande attend une place
+        demarrer(1, EmbaucheAsynchroneService.PolitiqueSaturation.BLOQUER);
+        bloquerPremierGroupe();
+        CompletableFuture<Employe> enCours = embauche("Doe0");
+        premierGroupeEnCours.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Employe> enAttente = embauche("Doe1");
+        CompletableFuture<CompletableFuture<Employe>> bloquee = CompletableFuture.supplyAsync(() -> embauche("Doe2"));
+
+        //When
+        CompletableFuture<Void> arret = CompletableFuture.runAsync(() -> {
+            try {
+                embaucheAsynchroneService.arreter();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        //Then : la demande bloquée est rejetée, celles déjà en file sont enregistrées
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> bloquee.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(e.getCause() instanceof RejectedExecutionException);
+        liberation.countDown();
+        arret.get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals("Doe0", enCours.get(5, TimeUnit.SECONDS).getNom());
+        Assertions.assertEquals("Doe1", enAttente.get(5, TimeUnit.SECONDS).getNom());
+    }
+
+    @Test
+    public void testEmbaucheEmployeErreurRedacteur() throws Exception {
+        //Given : le premier groupe échoue sur une erreur inattendue
+        demarrer(100, EmbaucheAsynchroneService.PolitiqueSaturation.BLOQUER);
+        when(employeService.embaucheEmployes(anyList(), anyInt())).thenAnswer(invocation -> {
+            premierGroupeEnCours.countDown();
+            liberation.await();
+            throw new OutOfMemoryError("Java heap space");
+        });
+        CompletableFuture<Employe> enCours = embauche("Doe0");
+        premierGroupeEnCours.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Employe> enAttente = embauche("Doe1");
+
+        //When
+        liberation.countDown();
+
+        //Then : aucune demande ne reste sans réponse
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> enCours.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(e.getCause() instanceof OutOfMemoryError);
+        e = Assertions.assertThrows(ExecutionException.class, () -> enAttente.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(e.getCause() instanceof RejectedExecutionException);
+        CompletableFuture<Employe> suivante = embauche("Doe2");
+        e = Assertions.assertThrows(ExecutionException.class, () -> suivante.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(e.getCause() instanceof RejectedExecutionException);
+        verify(employeService, times(1)).embaucheEmployes(anyList(), anyInt());
+    }
+
+    @Test
+    public void testEmbaucheEmployeParametresInvalides() {
+        //Given
+        demarrer(100, EmbaucheAsynchroneService.PolitiqueSaturation.BLOQUER);
+
+        //When - Then
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                embaucheAsynchroneService.embaucheEmploye("Doe", "John", null, NiveauEtude.MASTER, 1.0));
+    }
+}
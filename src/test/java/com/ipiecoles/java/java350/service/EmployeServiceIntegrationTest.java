@@ -7,6 +7,8 @@ import com.ipiecoles.java.java350.model.Entreprise;
 import com.ipiecoles.java.java350.model.NiveauEtude;
 import com.ipiecoles.java.java350.model.Poste;
 import com.ipiecoles.java.java350.repository.EmployeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,10 +16,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 
 @ExtendWith(SpringExtension.class)
@@ -30,16 +41,27 @@ public class EmployeServiceIntegrationTest {
     @Autowired
     private EmployeRepository employeRepository;
 
+    @Autowired
+    private MatriculeAllocator matriculeAllocator;
+
+    @Autowired
+    private AgregatPerformanceService agregatPerformanceService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @BeforeEach
     @AfterEach
     public void setup(){
         employeRepository.deleteAll();
+        agregatPerformanceService.reconcilier();
     }
 
     @Test
     public void integrationEmbaucheEmploye() throws EmployeException {
         //Given
         employeRepository.save(new Employe("Doe", "John", "T12345", LocalDate.now(), Entreprise.SALAIRE_BASE, 1, 1.0));
+        matriculeAllocator.resynchroniser();
         String nom = "Doe";
         String prenom = "John";
         Poste poste = Poste.TECHNICIEN;
@@ -62,6 +84,30 @@ public class EmployeServiceIntegrationTest {
         Assertions.assertEquals(1825.46, employe.getSalaire().doubleValue());
     }
 
+    @Test
+    public void integrationEmbaucheEmployes() throws EmployeException {
+        //Given
+        matriculeAllocator.resynchroniser();
+        List<DemandeEmbauche> demandes = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            demandes.add(new DemandeEmbauche("Doe", "John" + i, Poste.COMMERCIAL, NiveauEtude.LICENCE, 1.0));
+        }
+
+        //When
+        employeService.embaucheEmployes(demandes);
+
+        //Then
+        Assertions.assertEquals(120, employeRepository.count());
+        Employe premier = employeRepository.findByMatricule("C00001");
+        Assertions.assertNotNull(premier);
+        Assertions.assertEquals("John0", premier.getPrenom());
+        Employe dernier = employeRepository.findByMatricule("C00120");
+        Assertions.assertNotNull(dernier);
+        Assertions.assertEquals("John119", dernier.getPrenom());
+        //1521.22 * 1.2 * 1.0
+        Assertions.assertEquals(1825.46, dernier.getSalaire().doubleValue());
+    }
+
     /**
      * Méthode vérifiant le calcul de la performance d'un commercial en fonction de ses objectifs CA et du CA traité dans l'année.
      *
@@ -75,6 +121,7 @@ public class EmployeServiceIntegrationTest {
     public void integrationCalculPerformanceCommercial() throws EmployeException {
         //Given
         employeRepository.save(new Employe("Doe", "John", "C00001", LocalDate.now(), Entreprise.SALAIRE_BASE, 1, 1.0));
+        agregatPerformanceService.reconcilier();
         Employe employe = employeRepository.findByMatricule("C00001");
 
         //When
@@ -84,4 +131,73 @@ public class EmployeServiceIntegrationTest {
         Assertions.assertNotNull(employe);
         Assertions.assertEquals(1.0, employe.getPerformance().doubleValue());
     }
+
+    @Test
+    public void integrationCalculPerformanceCommercialConcurrents() throws Exception {
+        //Given
+        employeRepository.save(new Employe("Doe", "John", "C00001", LocalDate.now(), Entreprise.SALAIRE_BASE, 1, 1.0));
+        agregatPerformanceService.reconcilier();
+        ExecutorService revues = Executors.newFixedThreadPool(4);
+
+        //When
+        //CA supérieur de 10% à l'objectif : +1, puis +1 car au-dessus de la moyenne (sa propre performance)
+        try {
+            List<Future<?>> calculs = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                calculs.add(revues.submit(() -> {
+                    employeService.calculPerformanceCommercial("C00001", 1100L, 1000L);
+                    return null;
+                }));
+            }
+            for (Future<?> calcul : calculs) {
+                calcul.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            revues.shutdownNow();
+            revues.awaitTermination(60, TimeUnit.SECONDS);
+        }
+
+        //Then
+        //Aucune mise à jour perdue
+        Assertions.assertEquals(1 + 2 * 40, employeRepository.findByMatricule("C00001").getPerformance().intValue());
+        Assertions.assertTrue(agregatPerformanceService.reconcilier().isEmpty());
+    }
+
+    @Test
+    public void integrationEnregistrementVersionPerimee() throws EmployeException {
+        //Given
+        employeRepository.save(new Employe("Doe", "John", "C00001", LocalDate.now(), Entreprise.SALAIRE_BASE, 1, 1.0));
+        agregatPerformanceService.reconcilier();
+        Employe perime = employeRepository.findByMatricule("C00001");
+        employeService.calculPerformanceCommercial("C00001", 1300L, 1000L);
+
+        //When
+        perime.setSalaire(3000.0);
+
+        //Then
+        Assertions.assertThrows(ObjectOptimisticLockingFailureException.class, () -> employeRepository.save(perime));
+        Assertions.assertEquals(Entreprise.SALAIRE_BASE, employeRepository.findByMatricule("C00001").getSalaire());
+    }
+
+    @Test
+    public void integrationMetriquesEmbaucheEtRequetes() throws Exception {
+        //Given
+        matriculeAllocator.resynchroniser();
+        Timer embauche = meterRegistry.get("java350.employes.embauche").tag("mode", "unitaire").tag("exception", "none").timers()
+                .stream().findFirst().orElse(null);
+        long nbEmbauches = embauche == null ? 0 : embauche.count();
+
+        //When
+        employeService.embaucheEmploye("Doe", "John", Poste.TECHNICIEN, NiveauEtude.BTS_IUT, 1.0);
+        employeRepository.findByMatricule("T00001");
+
+        //Then
+        embauche = meterRegistry.get("java350.employes.embauche").tag("mode", "unitaire").tag("exception", "none").timer();
+        Assertions.assertEquals(nbEmbauches + 1, embauche.count());
+        Assertions.assertEquals(3, embauche.takeSnapshot().percentileValues().length);
+        Timer requete = meterRegistry.get("java350.repository.requetes").tag("methode", "findByMatricule").tag("exception", "none").timer();
+        Assertions.assertTrue(requete.count() >= 1);
+        Assertions.assertEquals(3, requete.takeSnapshot().percentileValues().length);
+        Assertions.assertFalse(ManagementFactory.getPlatformMBeanServer().queryNames(new ObjectName("java350:name=java350EmployesEmbauche*,*"), null).isEmpty());
+    }
 }
@@ -1,24 +1,32 @@
 package com.ipiecoles.java.java350.service;
 
 import com.ipiecoles.java.java350.exception.EmployeException;
+import com.ipiecoles.java.java350.model.ContexteCalcul;
 import com.ipiecoles.java.java350.model.Employe;
 import com.ipiecoles.java.java350.model.Entreprise;
 import com.ipiecoles.java.java350.model.NiveauEtude;
 import com.ipiecoles.java.java350.model.Poste;
 import com.ipiecoles.java.java350.repository.EmployeRepository;
+import com.ipiecoles.java.java350.repository.FiltreEmployes;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import javax.persistence.EntityExistsException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import static org.mockito.Mockito.*;
 
@@ -31,6 +39,24 @@ public class EmployeServiceTest {
     @Mock
     EmployeRepository employeRepository;
 
+    @Mock
+    MatriculeAllocator matriculeAllocator;
+
+    @Mock
+    AgregatPerformanceService agregatPerformanceService;
+
+    @Mock
+    ReessaiConflits reessaiConflits;
+
+    @Mock
+    StatistiquesService statistiquesService;
+
+    @Mock
+    VersionDonneesService versionDonneesService;
+
+    @Spy
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     //Messages fréquemment utilisés dans les méthodes de tests
     private String MSG_ERROR_EXCEPTION = "La méthode aurait dû lancer une exception";
     private String MATRICULE_COMMERCIAL = "C00002";
@@ -45,8 +71,11 @@ public class EmployeServiceTest {
 
     //Réinitialise le jeu de données
     @BeforeEach
-    public void setup(){
+    public void setup() throws Exception {
         MockitoAnnotations.initMocks(this.getClass());
+        //Exécution directe des opérations transactionnelles, sans conflit
+        lenient().when(reessaiConflits.executer(anyString(), any())).thenAnswer(invocation ->
+                invocation.<ReessaiConflits.OperationTransactionnelle<?, ?>>getArgument(1).executer());
     }
 
     @Test
@@ -57,8 +86,7 @@ public class EmployeServiceTest {
         Poste poste = Poste.TECHNICIEN;
         NiveauEtude niveauEtude = NiveauEtude.BTS_IUT;
         Double tempsPartiel = 1.0;
-        when(employeRepository.findLastMatricule()).thenReturn("00345");
-        when(employeRepository.findByMatricule("T00346")).thenReturn(null);
+        when(matriculeAllocator.prochainNumero()).thenReturn(346);
 
         //When
         employeService.embaucheEmploye(nom, prenom, poste, niveauEtude, tempsPartiel);
@@ -74,6 +102,8 @@ public class EmployeServiceTest {
 
         //1521.22 * 1.2 * 1.0
         Assertions.assertEquals(1825.46, employeArgumentCaptor.getValue().getSalaire().doubleValue());
+        verify(agregatPerformanceService).mettreAJour("T", Entreprise.PERFORMANCE_BASE, 1L);
+        verify(versionDonneesService).signalerEcriture();
     }
 
     @Test
@@ -84,8 +114,7 @@ public class EmployeServiceTest {
         Poste poste = Poste.MANAGER;
         NiveauEtude niveauEtude = NiveauEtude.MASTER;
         Double tempsPartiel = 0.5;
-        when(employeRepository.findLastMatricule()).thenReturn("00345");
-        when(employeRepository.findByMatricule("M00346")).thenReturn(null);
+        when(matriculeAllocator.prochainNumero()).thenReturn(346);
 
         //When
         employeService.embaucheEmploye(nom, prenom, poste, niveauEtude, tempsPartiel);
@@ -104,15 +133,14 @@ public class EmployeServiceTest {
     }
 
     @Test
-    public void testEmbaucheEmployeManagerMiTempsMasterNoLastMatricule() throws EmployeException {
+    public void testEmbaucheEmployeManagerMiTempsMasterPremierMatricule() throws EmployeException {
         //Given
         String nom = "Doe";
         String prenom = "John";
         Poste poste = Poste.MANAGER;
         NiveauEtude niveauEtude = NiveauEtude.MASTER;
         Double tempsPartiel = 0.5;
-        when(employeRepository.findLastMatricule()).thenReturn(null);
-        when(employeRepository.findByMatricule("M00001")).thenReturn(null);
+        when(matriculeAllocator.prochainNumero()).thenReturn(1);
 
         //When
         employeService.embaucheEmploye(nom, prenom, poste, niveauEtude, tempsPartiel);
@@ -121,53 +149,70 @@ public class EmployeServiceTest {
         ArgumentCaptor<Employe> employeArgumentCaptor = ArgumentCaptor.forClass(Employe.class);
         verify(employeRepository, times(1)).save(employeArgumentCaptor.capture());
         Assertions.assertEquals("M00001", employeArgumentCaptor.getValue().getMatricule());
+        verify(employeRepository, never()).findLastMatricule();
+        verify(employeRepository, never()).findByMatricule(anyString());
     }
 
     @Test
-    public void testEmbaucheEmployeManagerMiTempsMasterExistingEmploye() throws EmployeException {
+    public void testEmbaucheEmployeManagerMiTempsMaster99999() throws EmployeException {
         //Given
-        when(employeRepository.findLastMatricule()).thenReturn("00000");
-        when(employeRepository.findByMatricule("M00001")).thenReturn(new Employe());
-
         String nom = "Doe";
         String prenom = "John";
         Poste poste = Poste.MANAGER;
         NiveauEtude niveauEtude = NiveauEtude.MASTER;
         Double tempsPartiel = 0.5;
+        when(matriculeAllocator.prochainNumero()).thenThrow(new EmployeException("Limite des 100000 matricules atteinte !"));
 
-        Employe employe = new Employe();
-        employe.setNom(nom);
-        employe.setPrenom(prenom);
-        employe.setMatricule("M00001");
-
-        //When
+        //When - Then
         try {
-            employeRepository.save(employe);
             employeService.embaucheEmploye(nom, prenom, poste, niveauEtude, tempsPartiel);
+            Assertions.fail(this.MSG_ERROR_EXCEPTION);
         }
-        //Then
-        catch (EntityExistsException e) {
-            Assertions.assertEquals("L'employé de matricule M00001 existe déjà en BDD", e.getMessage());
+        catch (EmployeException employeException) {
+            Assertions.assertEquals("Limite des 100000 matricules atteinte !", employeException.getMessage());
         }
+        verify(employeRepository, never()).save(any(Employe.class));
     }
 
     @Test
-    public void testEmbaucheEmployeManagerMiTempsMaster99999() throws EmployeException {
+    public void testEmbaucheEmployesPlageContigue() throws EmployeException {
         //Given
-        String nom = "Doe";
-        String prenom = "John";
-        Poste poste = Poste.MANAGER;
-        NiveauEtude niveauEtude = NiveauEtude.MASTER;
-        Double tempsPartiel = 0.5;
-        when(employeRepository.findLastMatricule()).thenReturn("99999");
+        List<DemandeEmbauche> demandes = Arrays.asList(
+                new DemandeEmbauche(NOM, PRENOM, Poste.TECHNICIEN, NiveauEtude.BTS_IUT, 1.0),
+                new DemandeEmbauche(NOM, PRENOM, Poste.MANAGER, NiveauEtude.MASTER, 0.5),
+                new DemandeEmbauche(NOM, PRENOM, Poste.COMMERCIAL, NiveauEtude.CAP, 1.0));
+        when(matriculeAllocator.reserverNumeros(3)).thenReturn(10);
+        when(employeRepository.insererParLots(anyList())).then(invocation -> invocation.getArgument(0));
 
-        //When - Then
-        try {
-            employeService.embaucheEmploye(nom, prenom, poste, niveauEtude, tempsPartiel);
-        }
-        catch (EmployeException employeException) {
-            Assertions.assertEquals("Limite des 100000 matricules atteinte !", employeException.getMessage());
-        }
+        //When
+        List<Employe> employes = employeService.embaucheEmployes(demandes);
+
+        //Then
+        verify(matriculeAllocator, never()).prochainNumero();
+        verify(employeRepository, never()).save(any(Employe.class));
+        Assertions.assertEquals(3, employes.size());
+        Assertions.assertEquals("T00010", employes.get(0).getMatricule());
+        Assertions.assertEquals("M00011", employes.get(1).getMatricule());
+        Assertions.assertEquals("C00012", employes.get(2).getMatricule());
+        //1521.22 * 1.2 * 1.0, 1521.22 * 1.4 * 0.5, 1521.22 * 1.0 * 1.0
+        Assertions.assertEquals(1825.46, employes.get(0).getSalaire().doubleValue());
+        Assertions.assertEquals(1064.85, employes.get(1).getSalaire().doubleValue());
+        Assertions.assertEquals(1521.22, employes.get(2).getSalaire().doubleValue());
+        Assertions.assertEquals(Entreprise.PERFORMANCE_BASE, employes.get(1).getPerformance());
+        verify(agregatPerformanceService).mettreAJour("T", Entreprise.PERFORMANCE_BASE, 1L);
+        verify(agregatPerformanceService).mettreAJour("M", Entreprise.PERFORMANCE_BASE, 1L);
+        verify(agregatPerformanceService).mettreAJour("C", Entreprise.PERFORMANCE_BASE, 1L);
+        verify(versionDonneesService, times(1)).signalerEcriture();
+    }
+
+    @Test
+    public void testEmbaucheEmployesListeVide() throws EmployeException {
+        //Given - When
+        List<Employe> employes = employeService.embaucheEmployes(new ArrayList<>());
+
+        //Then
+        Assertions.assertTrue(employes.isEmpty());
+        verifyZeroInteractions(matriculeAllocator, employeRepository, agregatPerformanceService, versionDonneesService);
     }
 
     /**
@@ -248,6 +293,85 @@ public class EmployeServiceTest {
         }
     }
 
+    @Test
+    public void calculPerformanceCommercialEchecsValidationParRaison() {
+        //Given - When
+        Assertions.assertThrows(EmployeException.class, () -> employeService.calculPerformanceCommercial("C00001", -1L, 0L));
+        Assertions.assertThrows(EmployeException.class, () -> employeService.calculPerformanceCommercial("M00001", 0L, 0L));
+        Assertions.assertThrows(EmployeException.class, () -> employeService.calculPerformanceCommercial("C99999", 0L, 0L));
+        Assertions.assertThrows(EmployeException.class, () -> employeService.calculPerformanceCommercial("C99999", 0L, 0L));
+
+        //Then
+        Assertions.assertEquals(1.0, meterRegistry.counter("java350.employes.echecs-validation", "raison", "ca_invalide").count());
+        Assertions.assertEquals(0.0, meterRegistry.counter("java350.employes.echecs-validation", "raison", "objectif_invalide").count());
+        Assertions.assertEquals(1.0, meterRegistry.counter("java350.employes.echecs-validation", "raison", "matricule_invalide").count());
+        Assertions.assertEquals(2.0, meterRegistry.counter("java350.employes.echecs-validation", "raison", "matricule_inconnu").count());
+    }
+
+    @Test
+    public void calculPerformanceCommercialExceptionSansPileAppels() {
+        //Given - When
+        EmployeException employeException = Assertions.assertThrows(EmployeException.class,
+                () -> employeService.calculPerformanceCommercial("C00001", null, 0L));
+
+        //Then
+        Assertions.assertEquals("Le chiffre d'affaire traité ne peut être négatif ou null !", employeException.getMessage());
+        Assertions.assertEquals(0, employeException.getStackTrace().length);
+    }
+
+    @Test
+    public void testValiderObjectifs() {
+        //Given
+        List<ObjectifCommercial> objectifs = Arrays.asList(
+                new ObjectifCommercial("C00001", 15000L, 10000L),
+                new ObjectifCommercial("C00001", -1L, 10000L),
+                new ObjectifCommercial("C00002", 15000L, null),
+                new ObjectifCommercial("M00001", 15000L, 10000L),
+                new ObjectifCommercial("C99999", 15000L, 10000L),
+                new ObjectifCommercial("C00003", 0L, 0L));
+        when(employeRepository.findMatriculesExistants(anyCollection())).thenReturn(Arrays.asList("C00001", "C00003"));
+
+        //When
+        RapportValidation rapport = employeService.validerObjectifs(objectifs);
+
+        //Then
+        Assertions.assertEquals(6, rapport.getNbObjectifs());
+        Assertions.assertEquals(2, rapport.getNbValides());
+        Assertions.assertEquals(4, rapport.getNbInvalides());
+        Assertions.assertArrayEquals(new int[]{1, 2, 3, 4}, rapport.getIndicesInvalides());
+        Assertions.assertNull(rapport.getRaison(0));
+        Assertions.assertEquals(RaisonInvalidite.CA_INVALIDE, rapport.getRaison(1));
+        Assertions.assertEquals(RaisonInvalidite.OBJECTIF_INVALIDE, rapport.getRaison(2));
+        Assertions.assertEquals(RaisonInvalidite.MATRICULE_INVALIDE, rapport.getRaison(3));
+        Assertions.assertEquals(RaisonInvalidite.MATRICULE_INCONNU, rapport.getRaison(4));
+        Assertions.assertNull(rapport.getRaison(5));
+        Assertions.assertEquals(1, rapport.getNbInvalides(RaisonInvalidite.MATRICULE_INCONNU));
+        Assertions.assertEquals(1.0, meterRegistry.counter("java350.employes.echecs-validation", "raison", "matricule_inconnu").count());
+        //Une seule requête, les matricules invalides ne sont pas recherchés
+        verify(employeRepository, times(1)).findMatriculesExistants(anyCollection());
+    }
+
+    @Test
+    public void testValiderObjectifsEnMasse() {
+        //Given : un résultat sur trois invalide, 2500 matricules distincts
+        List<ObjectifCommercial> objectifs = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            objectifs.add(new ObjectifCommercial("C" + i, i % 3 == 0 ? -1L : 1000L, 1000L));
+        }
+        when(employeRepository.findMatriculesExistants(anyCollection())).then(invocation -> new ArrayList<>(invocation.<List<String>>getArgument(0)));
+
+        //When
+        RapportValidation rapport = employeService.validerObjectifs(objectifs);
+
+        //Then
+        Assertions.assertEquals(1000, rapport.getNbInvalides(RaisonInvalidite.CA_INVALIDE));
+        Assertions.assertEquals(2000, rapport.getNbValides());
+        Assertions.assertEquals(RaisonInvalidite.CA_INVALIDE, rapport.getRaison(2997));
+        Assertions.assertNull(rapport.getRaison(2998));
+        //Tranches de 1000 matricules
+        verify(employeRepository, times(2)).findMatriculesExistants(anyCollection());
+    }
+
     /**
      * Méthode vérifiant le calcul de la performance d'un commercial en fonction de ses objectifs CA et du CA traité dans l'année.
      *
@@ -280,14 +404,14 @@ public class EmployeServiceTest {
         when(employeRepository.findByMatricule("C00001")).thenReturn(employeTest1);
         
         //Assignation de la performance moyenne à la requête
-        when(employeRepository.avgPerformanceWhereMatriculeStartsWith("C")).thenReturn(AVG_PERFORMANCE_WHICH_START_WITH_C);
+        when(agregatPerformanceService.performanceMoyenne("C")).thenReturn(AVG_PERFORMANCE_WHICH_START_WITH_C);
 
         //WHEN
         employeService.calculPerformanceCommercial("C00001", 15000L, this.OBJECTIF_CA_FOR_TEST);
 
         // THEN
         ArgumentCaptor<Employe> employeArgumentCaptor = ArgumentCaptor.forClass(Employe.class);
-        verify(employeRepository, times(1)).save(employeArgumentCaptor.capture());
+        verify(employeRepository, times(1)).saveAndFlush(employeArgumentCaptor.capture());
 
         Assertions.assertEquals(Entreprise.PERFORMANCE_BASE, employeArgumentCaptor.getValue().getPerformance());
     }
@@ -301,14 +425,14 @@ public class EmployeServiceTest {
         when(employeRepository.findByMatricule("C00002")).thenReturn(employeTest2);
 
         //Assignation de la performance moyenne à la requête
-        when(employeRepository.avgPerformanceWhereMatriculeStartsWith("C")).thenReturn(AVG_PERFORMANCE_WHICH_START_WITH_C);
+        when(agregatPerformanceService.performanceMoyenne("C")).thenReturn(AVG_PERFORMANCE_WHICH_START_WITH_C);
 
         //WHEN
         employeService.calculPerformanceCommercial("C00002", 15000L, this.OBJECTIF_CA_FOR_TEST);
 
         // THEN
         ArgumentCaptor<Employe> employeArgumentCaptor = ArgumentCaptor.forClass(Employe.class);
-        verify(employeRepository, times(1)).save(employeArgumentCaptor.capture());
+        verify(employeRepository, times(1)).saveAndFlush(employeArgumentCaptor.capture());
 
         Assertions.assertEquals(3, employeArgumentCaptor.getValue().getPerformance().intValue());
     }
@@ -322,14 +446,14 @@ public class EmployeServiceTest {
         when(employeRepository.findByMatricule("C00003")).thenReturn(employeTest3);
         
         //Assignation de la performance moyenne à la requête
-        when(employeRepository.avgPerformanceWhereMatriculeStartsWith("C")).thenReturn(AVG_PERFORMANCE_WHICH_START_WITH_C);
+        when(agregatPerformanceService.performanceMoyenne("C")).thenReturn(AVG_PERFORMANCE_WHICH_START_WITH_C);
 
         //WHEN
         employeService.calculPerformanceCommercial("C00003", 12000L, this.OBJECTIF_CA_FOR_TEST);
 
         // THEN
         ArgumentCaptor<Employe> employeArgumentCaptor = ArgumentCaptor.forClass(Employe.class);
-        verify(employeRepository, times(1)).save(employeArgumentCaptor.capture());
+        verify(employeRepository, times(1)).saveAndFlush(employeArgumentCaptor.capture());
 
         Assertions.assertEquals(3, employeArgumentCaptor.getValue().getPerformance().intValue());
     }
@@ -343,14 +467,14 @@ public class EmployeServiceTest {
         when(employeRepository.findByMatricule("C00004")).thenReturn(employeTest4);
 
         //Assignation de la performance moyenne à la requête
-        when(employeRepository.avgPerformanceWhereMatriculeStartsWith("C")).thenReturn(AVG_PERFORMANCE_WHICH_START_WITH_C);
+        when(agregatPerformanceService.performanceMoyenne("C")).thenReturn(AVG_PERFORMANCE_WHICH_START_WITH_C);
 
         //WHEN
         employeService.calculPerformanceCommercial("C00004", 16000L, this.OBJECTIF_CA_FOR_TEST);
 
         // THEN
         ArgumentCaptor<Employe> employeArgumentCaptor = ArgumentCaptor.forClass(Employe.class);
-        verify(employeRepository, times(1)).save(employeArgumentCaptor.capture());
+        verify(employeRepository, times(1)).saveAndFlush(employeArgumentCaptor.capture());
 
         Assertions.assertEquals(5, employeArgumentCaptor.getValue().getPerformance().intValue());
     }
@@ -364,14 +488,14 @@ public class EmployeServiceTest {
         when(employeRepository.findByMatricule("C00005")).thenReturn(employeTest5);
 
         //Assignation de la performance moyenne à la requête
-        when(employeRepository.avgPerformanceWhereMatriculeStartsWith("C")).thenReturn(AVG_PERFORMANCE_WHICH_START_WITH_C);
+        when(agregatPerformanceService.performanceMoyenne("C")).thenReturn(AVG_PERFORMANCE_WHICH_START_WITH_C);
 
         //WHEN
         employeService.calculPerformanceCommercial("C00005", 18001L, this.OBJECTIF_CA_FOR_TEST);
 
         // THEN
         ArgumentCaptor<Employe> employeArgumentCaptor = ArgumentCaptor.forClass(Employe.class);
-        verify(employeRepository, times(1)).save(employeArgumentCaptor.capture());
+        verify(employeRepository, times(1)).saveAndFlush(employeArgumentCaptor.capture());
 
         Assertions.assertEquals(6, employeArgumentCaptor.getValue().getPerformance().intValue());
     }
@@ -385,16 +509,17 @@ public class EmployeServiceTest {
         when(employeRepository.findByMatricule("C00006")).thenReturn(employeTest6);
 
         //Assignation de la performance moyenne à la requête
-        when(employeRepository.avgPerformanceWhereMatriculeStartsWith("C")).thenReturn(AVG_PERFORMANCE_WHICH_START_WITH_C);
+        when(agregatPerformanceService.performanceMoyenne("C")).thenReturn(AVG_PERFORMANCE_WHICH_START_WITH_C);
 
         //WHEN
         employeService.calculPerformanceCommercial("C00006", 19000L, this.OBJECTIF_CA_FOR_TEST);
 
         // THEN
         ArgumentCaptor<Employe> employeArgumentCaptor = ArgumentCaptor.forClass(Employe.class);
-        verify(employeRepository, times(1)).save(employeArgumentCaptor.capture());
+        verify(employeRepository, times(1)).saveAndFlush(employeArgumentCaptor.capture());
 
         Assertions.assertEquals(10, employeArgumentCaptor.getValue().getPerformance().intValue());
+        verify(agregatPerformanceService).changerPerformance("C", 5, 10);
 
     }
 
@@ -407,14 +532,14 @@ public class EmployeServiceTest {
         when(employeRepository.findByMatricule("C00007")).thenReturn(employeTest7);
 
         //Assignation de la performance moyenne à la requête
-        when(employeRepository.avgPerformanceWhereMatriculeStartsWith("C")).thenReturn(AVG_PERFORMANCE_WHICH_START_WITH_C);
+        when(agregatPerformanceService.performanceMoyenne("C")).thenReturn(AVG_PERFORMANCE_WHICH_START_WITH_C);
 
         //WHEN
         employeService.calculPerformanceCommercial("C00007", 10000L, this.OBJECTIF_CA_FOR_TEST);
 
         // THEN
         ArgumentCaptor<Employe> employeArgumentCaptor = ArgumentCaptor.forClass(Employe.class);
-        verify(employeRepository, times(1)).save(employeArgumentCaptor.capture());
+        verify(employeRepository, times(1)).saveAndFlush(employeArgumentCaptor.capture());
 
         Assertions.assertEquals(1, employeArgumentCaptor.getValue().getPerformance().intValue());
 
@@ -429,16 +554,69 @@ public class EmployeServiceTest {
         when(employeRepository.findByMatricule("C00008")).thenReturn(employeTest8);
 
         //Assignation de la performance moyenne à la requête
-        when(employeRepository.avgPerformanceWhereMatriculeStartsWith("C")).thenReturn(AVG_PERFORMANCE_WHICH_START_WITH_C);
+        when(agregatPerformanceService.performanceMoyenne("C")).thenReturn(AVG_PERFORMANCE_WHICH_START_WITH_C);
 
         //WHEN
         employeService.calculPerformanceCommercial("C00008", 10000L, this.OBJECTIF_CA_FOR_TEST);
 
         // THEN
         ArgumentCaptor<Employe> employeArgumentCaptor = ArgumentCaptor.forClass(Employe.class);
-        verify(employeRepository, times(1)).save(employeArgumentCaptor.capture());
+        verify(employeRepository, times(1)).saveAndFlush(employeArgumentCaptor.capture());
 
         Assertions.assertEquals(1, employeArgumentCaptor.getValue().getPerformance().intValue());
 
     }
+
+    @Test
+    public void testAugmenterSalaires() {
+        //Given
+        FiltreEmployes filtre = FiltreEmployes.tous().typeEmploye("C");
+        when(employeRepository.augmenterSalaires(eq(filtre), eq(0.05), any(ContexteCalcul.class))).thenReturn(12);
+
+        //When
+        int nbEmployes = employeService.augmenterSalaires(filtre, 5.0);
+
+        //Then
+        Assertions.assertEquals(12, nbEmployes);
+        verify(versionDonneesService).signalerEcriture();
+    }
+
+    @Test
+    public void testAugmenterSalairesMasseSalariale() {
+        //Given
+        FiltreEmployes filtre = FiltreEmployes.tous().typeEmploye("C");
+        when(employeRepository.hausseSalairesParType(eq(filtre), eq(0.05), any(ContexteCalcul.class))).thenReturn(Collections.singletonMap("C", 100d));
+        when(employeRepository.augmenterSalaires(eq(filtre), eq(0.05), any(ContexteCalcul.class))).thenReturn(1);
+
+        //When
+        employeService.augmenterSalaires(filtre, 5.0);
+
+        //Then : la hausse est calculée avant l'augmentation, seuls les postes augmentés sont modifiés
+        InOrder ordre = inOrder(employeRepository);
+        ordre.verify(employeRepository).hausseSalairesParType(eq(filtre), eq(0.05), any(ContexteCalcul.class));
+        ordre.verify(employeRepository).augmenterSalaires(eq(filtre), eq(0.05), any(ContexteCalcul.class));
+        verify(statistiquesService).modifierMasseSalariale(Poste.COMMERCIAL, 100d);
+        verify(statistiquesService, never()).modifierMasseSalariale(eq(Poste.TECHNICIEN), anyDouble());
+    }
+
+    @Test
+    public void testAugmenterSalairesPourcentageNul() {
+        //Given - When
+        int nbEmployes = employeService.augmenterSalaires(FiltreEmployes.tous(), 0.0);
+
+        //Then
+        Assertions.assertEquals(0, nbEmployes);
+        verify(employeRepository, never()).augmenterSalaires(any(), anyDouble(), any());
+        verify(versionDonneesService, never()).signalerEcriture();
+    }
+
+    @Test
+    public void testAugmenterSalairesPourcentageInvalide() {
+        //Given - When - Then
+        IllegalArgumentException negatif = Assertions.assertThrows(IllegalArgumentException.class, () -> employeService.augmenterSalaires(FiltreEmployes.tous(), -1.0));
+        Assertions.assertEquals("Le pourcentage d'augmentation du salaire est null ou négatif !", negatif.getMessage());
+        IllegalArgumentException tropGros = Assertions.assertThrows(IllegalArgumentException.class, () -> employeService.augmenterSalaires(FiltreEmployes.tous(), 50.0));
+        Assertions.assertEquals("L'employé ne peut pas avoir un trop gros salaire !!", tropGros.getMessage());
+        verify(employeRepository, never()).augmenterSalaires(any(), anyDouble(), any());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.model.ContexteCalcul;
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.Entreprise;
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+public class ExportPaieServiceIntegrationTest {
+
+    @Autowired
+    private ExportPaieService exportPaieService;
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    @BeforeEach
+    @AfterEach
+    public void setup(){
+        employeRepository.deleteAll();
+    }
+
+    @Test
+    public void integrationExporter() throws IOException {
+        //Given
+        Employe manager = new Employe("Doe", "John", "M00001", LocalDate.of(2015, 6, 1), 2500.0, 1, 0.5);
+        employeRepository.save(manager);
+        employeRepository.save(new Employe("Doe; \"Junior\"", "Jane", "T00002", null, Entreprise.SALAIRE_BASE, null, null));
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+
+        //When
+        long nbEmployes = exportPaieService.exporter(Channels.newChannel(sortie));
+
+        //Then
+        Assertions.assertEquals(2, nbEmployes);
+        String[] lignes = new String(sortie.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        Assertions.assertEquals(3, lignes.length);
+        Assertions.assertEquals(ExportPaieService.ENTETE, lignes[0]);
+        ContexteCalcul contexte = ContexteCalcul.aujourdhui();
+        int anciennete = manager.getNombreAnneeAnciennete(contexte);
+        //Prime manager : (1000 * 1.7 + anciennete * 100) * 0.5
+        Assertions.assertEquals("M00001;Doe;John;2015-06-01;2500.00;1;0.5;" + anciennete + ";" + (25 + anciennete) + ";"
+                + manager.getNbRtt(contexte) + ";" + (850 + anciennete * 50) + ".00", lignes[1]);
+        Assertions.assertEquals("T00002;\"Doe; \"\"Junior\"\"\";Jane;;1521.22;;;0;25;;", lignes[2]);
+    }
+
+    @Test
+    public void integrationExporterFichier() throws IOException {
+        //Given
+        List<Employe> employes = new ArrayList<>();
+        for (int i = 1; i <= 2000; i++) {
+            employes.add(new Employe("Doe", "Jean-Édouard", String.format("C%05d", i), LocalDate.of(2010, 1, 1), Entreprise.SALAIRE_BASE, 2, 1.0));
+        }
+        employeRepository.insererParLots(employes);
+        Path fichier = Files.createTempFile("paie", ".csv");
+
+        try {
+            //When
+            long nbEmployes = exportPaieService.exporter(fichier);
+
+            //Then
+            List<String> lignes = Files.readAllLines(fichier, StandardCharsets.UTF_8);
+            Assertions.assertEquals(2000, nbEmployes);
+            Assertions.assertEquals(2001, lignes.size());
+            Assertions.assertTrue(lignes.get(1).startsWith("C00001;Doe;Jean-Édouard;2010-01-01;1521.22;2;1.0;"));
+            Assertions.assertTrue(lignes.get(2000).startsWith("C02000;"));
+        } finally {
+            Files.delete(fichier);
+        }
+    }
+}
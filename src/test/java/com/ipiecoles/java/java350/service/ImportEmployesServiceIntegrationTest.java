@@ -0,0 +1,166 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.exception.EmployeException;
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.Entreprise;
+import com.ipiecoles.java.java350.model.NiveauEtude;
+import com.ipiecoles.java.java350.model.Poste;
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = "java350.import.taille-lot=3")
+public class ImportEmployesServiceIntegrationTest {
+
+    @Autowired
+    private ImportEmployesService importEmployesService;
+
+    @Autowired
+    private EmployeService employeService;
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    @Autowired
+    private AgregatPerformanceService agregatPerformanceService;
+
+    @Autowired
+    private MatriculeAllocator matriculeAllocator;
+
+    private Path fichier;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        employeRepository.deleteAll();
+        agregatPerformanceService.reconcilier();
+        matriculeAllocator.resynchroniser();
+        fichier = Files.createTempFile("import", ".csv");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(fichier);
+        employeRepository.deleteAll();
+        agregatPerformanceService.reconcilier();
+        matriculeAllocator.resynchroniser();
+    }
+
+    @Test
+    public void integrationImporter() throws IOException, EmployeException {
+        //Given
+        employeRepository.save(new Employe("Doe", "Jack", "T00010", LocalDate.now(), Entreprise.SALAIRE_BASE, 1, 1.0));
+        agregatPerformanceService.reconcilier();
+        Files.write(fichier, Arrays.asList(
+                ImportEmployesService.ENTETE,
+                "T00001;Doe;John;TECHNICIEN;BTS_IUT;1.0;2015-06-01;;",
+                "C00002;Doe;Jane;COMMERCIAL;MASTER;0.5;2018-01-15;2400.5;4",
+                "M00003;Doe;Jim;MANAGER;INGENIEUR;1.5;2012-03-01;;",
+                "T00004;Doe;Joe;COMMERCIAL;BAC;1.0;2012-03-01;;",
+                "X00005;Doe;Jo;TECHNICIEN;BAC;1.0;2012-03-01;;",
+                "T00006;Doe;Jo;TECHNICIEN;BAC;1.0;01/03/2012;;",
+                "T00001;Doe;John;TECHNICIEN;BTS_IUT;1.0;2015-06-01;;",
+                "T00010;Doe;Jack;TECHNICIEN;CAP;1.0;2015-06-01;;",
+                "M45678;\"Martin; Dupont\";Léa;MANAGER;DOCTORAT;0.8;2001-09-03;;2",
+                "T00007;Doe;Jo"), StandardCharsets.UTF_8);
+
+        //When
+        RapportImport rapport = importEmployesService.importer(fichier);
+
+        //Then
+        Assertions.assertEquals(10, rapport.getNbLus());
+        Assertions.assertEquals(3, rapport.getNbImportes());
+        Assertions.assertEquals(7, rapport.getNbRejetes());
+        List<Integer> lignesRejetees = new ArrayList<>();
+        for (RapportImport.Erreur erreur : rapport.getErreurs()) {
+            lignesRejetees.add(erreur.getNumeroLigne());
+        }
+        Assertions.assertEquals(Arrays.asList(4, 5, 6, 7, 8, 9, 11), lignesRejetees);
+        Assertions.assertEquals("Le temps partiel doit être compris entre 0 exclu et 1 : 1.5", rapport.getErreurs().get(0).getMessage());
+        Assertions.assertEquals("Le matricule T00004 ne correspond pas au poste COMMERCIAL", rapport.getErreurs().get(1).getMessage());
+        Assertions.assertEquals("Matricule présent plusieurs fois dans le fichier", rapport.getErreurs().get(4).getMessage());
+        Assertions.assertEquals("Le matricule T00010 existe déjà", rapport.getErreurs().get(5).getMessage());
+
+        Employe technicien = employeRepository.findByMatricule("T00001");
+        Assertions.assertEquals(1825.46, technicien.getSalaire().doubleValue());
+        Assertions.assertEquals(LocalDate.of(2015, 6, 1), technicien.getDateEmbauche());
+        Employe commercial = employeRepository.findByMatricule("C00002");
+        Assertions.assertEquals(2400.5, commercial.getSalaire().doubleValue());
+        Assertions.assertEquals(4, commercial.getPerformance().intValue());
+        Assertions.assertEquals("Martin; Dupont", employeRepository.findByMatricule("M45678").getNom());
+        Assertions.assertTrue(agregatPerformanceService.reconcilier().isEmpty());
+
+        //Les matricules importés ne sont pas réattribués
+        employeService.embaucheEmploye("Doe", "New", Poste.TECHNICIEN, NiveauEtude.BAC, 1.0);
+        Assertions.assertNotNull(employeRepository.findByMatricule("T45679"));
+    }
+
+    @Test
+    public void integrationImporterNeReattribuePasLesMatriculesReserves() throws IOException, EmployeException {
+        //Given : un numéro réservé par une embauche en cours, supérieur aux matricules importés
+        matriculeAllocator.reserverNumeros(5);
+        int numeroReserve = matriculeAllocator.prochainNumero();
+        Files.write(fichier, Arrays.asList(
+                String.format("T%05d;Doe;John;TECHNICIEN;BTS_IUT;1.0;2015-06-01;;", numeroReserve - 1)), StandardCharsets.UTF_8);
+
+        //When
+        RapportImport rapport = importEmployesService.importer(fichier);
+
+        //Then : le compteur n'a pas été abaissé au dernier matricule en base
+        Assertions.assertEquals(1, rapport.getNbImportes());
+        Assertions.assertEquals(numeroReserve + 1, matriculeAllocator.prochainNumero());
+    }
+
+    @Test
+    public void integrationImporterReserveLesMatriculesImportes() throws IOException, EmployeException {
+        //Given : un bloc loué par une embauche, qui contient les matricules à importer
+        employeService.embaucheEmploye("Doe", "Jack", Poste.TECHNICIEN, NiveauEtude.BAC, 1.0);
+        int premier = Integer.parseInt(employeRepository.findLastMatricule());
+        Files.write(fichier, Arrays.asList(
+                String.format("T%05d;Doe;John;TECHNICIEN;BTS_IUT;1.0;2015-06-01;;", premier + 1),
+                String.format("C%05d;Doe;Jane;COMMERCIAL;MASTER;1.0;2015-06-01;;", premier + 20)), StandardCharsets.UTF_8);
+
+        //When
+        RapportImport rapport = importEmployesService.importer(fichier);
+        employeService.embaucheEmploye("Doe", "Jim", Poste.TECHNICIEN, NiveauEtude.BAC, 1.0);
+
+        //Then : l'embauche suivante reprend le bloc après les matricules importés
+        Assertions.assertEquals(2, rapport.getNbImportes());
+        Assertions.assertNotNull(employeRepository.findByMatricule(String.format("T%05d", premier + 21)));
+        Assertions.assertEquals(4, employeRepository.count());
+    }
+
+    @Test
+    public void integrationImporterVolume() throws IOException {
+        //Given
+        List<String> lignes = new ArrayList<>();
+        for (int i = 1; i <= 5000; i++) {
+            lignes.add(String.format("C%05d;Doe;John%d;COMMERCIAL;LICENCE;1.0;2019-01-01;;%d", i, i, 1 + i % 4));
+        }
+        Files.write(fichier, lignes, StandardCharsets.UTF_8);
+
+        //When
+        RapportImport rapport = importEmployesService.importer(fichier);
+
+        //Then
+        Assertions.assertEquals(5000, rapport.getNbImportes());
+        Assertions.assertEquals(0, rapport.getNbRejetes());
+        Assertions.assertEquals(5000, employeRepository.count());
+        Assertions.assertTrue(agregatPerformanceService.reconcilier().isEmpty());
+    }
+}
@@ -0,0 +1,98 @@
+package com.ipiecoles.java.java350.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class JournalEvenementsTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(JournalEvenementsTest.class);
+
+    private final ListAppender<ILoggingEvent> evenements = new ListAppender<>();
+
+    private final AtomicLong horloge = new AtomicLong();
+
+    private final JournalEvenements journal = new JournalEvenements(logger, 3, 1000, horloge::get);
+
+    @BeforeEach
+    public void setup() {
+        logger.setLevel(Level.DEBUG);
+        logger.setAdditive(false);
+        evenements.start();
+        logger.addAppender(evenements);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        logger.detachAppender(evenements);
+        logger.setAdditive(true);
+        logger.setLevel(null);
+    }
+
+    @Test
+    public void testAvertissementLimiteParFenetre() {
+        //Given - When
+        for (int i = 0; i < 10; i++) {
+            journal.avertissement(JournalEvenements.ECHEC_VALIDATION, "matricule_inconnu", "Le matricule {} n'existe pas !", "C0000" + i);
+        }
+
+        //Then
+        Assertions.assertEquals(3, evenements.list.size());
+        ILoggingEvent premier = evenements.list.get(0);
+        Assertions.assertEquals(Level.WARN, premier.getLevel());
+        Assertions.assertEquals(JournalEvenements.ECHEC_VALIDATION, premier.getMarker());
+        Assertions.assertEquals("Le matricule C00000 n'existe pas !", premier.getFormattedMessage());
+    }
+
+    @Test
+    public void testAvertissementLimiteParCle() {
+        //Given - When
+        for (int i = 0; i < 5; i++) {
+            journal.avertissement(JournalEvenements.ECHEC_VALIDATION, "ca_invalide", "{}", "CA invalide");
+            journal.avertissement(JournalEvenements.ECHEC_VALIDATION, "objectif_invalide", "{}", "Objectif invalide");
+        }
+
+        //Then
+        Assertions.assertEquals(6, evenements.list.size());
+    }
+
+    @Test
+    public void testAvertissementNouvelleFenetre() {
+        //Given
+        for (int i = 0; i < 10; i++) {
+            journal.avertissement(JournalEvenements.ECHEC_VALIDATION, "ca_invalide", "{}", "CA invalide");
+        }
+
+        //When
+        horloge.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        journal.avertissement(JournalEvenements.ECHEC_VALIDATION, "ca_invalide", "{}", "CA invalide");
+
+        //Then : les avertissements supprimés sont signalés, puis l'avertissement est écrit
+        Assertions.assertEquals(5, evenements.list.size());
+        Assertions.assertEquals("7 avertissements ca_invalide supprimés", evenements.list.get(3).getFormattedMessage());
+        Assertions.assertEquals("CA invalide", evenements.list.get(4).getFormattedMessage());
+    }
+
+    @Test
+    public void testAvertissementNiveauDesactive() {
+        //Given
+        logger.setLevel(Level.ERROR);
+
+        //When
+        journal.avertissement(JournalEvenements.ECHEC_VALIDATION, "ca_invalide", "{}", "CA invalide");
+        logger.setLevel(Level.DEBUG);
+        journal.avertissement(JournalEvenements.ECHEC_VALIDATION, "ca_invalide", "{}", "CA invalide");
+
+        //Then : l'avertissement non écrit n'a pas été compté
+        Assertions.assertEquals(1, evenements.list.size());
+    }
+}
@@ -0,0 +1,50 @@
+package com.ipiecoles.java.java350.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class LecteurCsvTest {
+
+    @Test
+    public void testLireEnregistrements() throws IOException {
+        //Given
+        Path fichier = Files.createTempFile("lecteur", ".csv");
+        byte[] bom = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+        String contenu = "a;b;c\r\n\r\n\"Doe; \"\"Junior\"\"\";Jean-Édouard;\n\"sur\ndeux lignes\";x\nfin";
+        Files.write(fichier, bom);
+        Files.write(fichier, contenu.getBytes(StandardCharsets.UTF_8), java.nio.file.StandardOpenOption.APPEND);
+
+        try (LecteurCsv lecteur = new LecteurCsv(fichier)) {
+            //When - Then
+            Assertions.assertArrayEquals(new String[]{"a", "b", "c"}, lecteur.lireEnregistrement());
+            Assertions.assertEquals(1, lecteur.getNumeroLigne());
+            Assertions.assertArrayEquals(new String[]{"Doe; \"Junior\"", "Jean-Édouard", ""}, lecteur.lireEnregistrement());
+            Assertions.assertEquals(3, lecteur.getNumeroLigne());
+            Assertions.assertArrayEquals(new String[]{"sur\ndeux lignes", "x"}, lecteur.lireEnregistrement());
+            Assertions.assertEquals(4, lecteur.getNumeroLigne());
+            Assertions.assertArrayEquals(new String[]{"fin"}, lecteur.lireEnregistrement());
+            Assertions.assertEquals(6, lecteur.getNumeroLigne());
+            Assertions.assertNull(lecteur.lireEnregistrement());
+        } finally {
+            Files.delete(fichier);
+        }
+    }
+
+    @Test
+    public void testFichierVide() throws IOException {
+        //Given
+        Path fichier = Files.createTempFile("lecteur", ".csv");
+
+        try (LecteurCsv lecteur = new LecteurCsv(fichier)) {
+            //When - Then
+            Assertions.assertNull(lecteur.lireEnregistrement());
+        } finally {
+            Files.delete(fichier);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.Java350Application;
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.NiveauEtude;
+import com.ipiecoles.java.java350.model.Poste;
+import com.ipiecoles.java.java350.repository.CompteurMatriculesRepository;
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plusieurs instances de l'application partageant une même base, simulées par plusieurs contextes Spring
+ * ouverts sur une base H2 fichier
+ */
+public class MatriculeAllocatorIntegrationTest {
+
+    private static final int TAILLE_POOL = 4;
+
+    private Path repertoireBase;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        repertoireBase = Files.createTempDirectory("java350-matricules");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(repertoireBase);
+    }
+
+    private ConfigurableApplicationContext demarrerInstance() {
+        return new SpringApplicationBuilder(Java350Application.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:file:" + repertoireBase.resolve("java350").toAbsolutePath(),
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        //Un cache de second niveau par instance, comme sur des machines distinctes
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "--spring.jmx.enabled=false",
+                        //Moins de connexions que d'embauches simultanées : une location ne doit pas attendre le pool
+                        "--spring.datasource.hikari.maximum-pool-size=" + TAILLE_POOL,
+                        "--spring.datasource.hikari.connection-timeout=3000");
+    }
+
+    private static String embaucher(ConfigurableApplicationContext instance, String prenom) throws Exception {
+        instance.getBean(EmployeService.class).embaucheEmploye("Doe", prenom, Poste.TECHNICIEN, NiveauEtude.BTS_IUT, 1.0);
+        return instance.getBean(EmployeRepository.class).findAll().stream()
+                .filter(employe -> prenom.equals(employe.getPrenom()))
+                .map(Employe::getMatricule)
+                .findFirst().orElse(null);
+    }
+
+    @Test
+    public void integrationEmbauchesConcurrentesPlusNombreusesQueLesConnexions() throws Exception {
+        //Given : 6 embauches simultanées par instance pour 4 connexions
+        int nbThreads = 12;
+        try (ConfigurableApplicationContext instance1 = demarrerInstance();
+             ConfigurableApplicationContext instance2 = demarrerInstance()) {
+            ExecutorService embauches = Executors.newFixedThreadPool(nbThreads);
+
+            //When
+            String premier1 = embaucher(instance1, "Premier1");
+            String premier2 = embaucher(instance2, "Premier2");
+            List<Future<?>> resultats = new ArrayList<>();
+            for (int i = 0; i < nbThreads; i++) {
+                EmployeService employeService = (i % 2 == 0 ? instance1 : instance2).getBean(EmployeService.class);
+                resultats.add(embauches.submit(() -> {
+                    for (int j = 0; j < 40; j++) {
+                        employeService.embaucheEmploye("Doe", "John", Poste.TECHNICIEN, NiveauEtude.BTS_IUT, 1.0);
+                    }
+                    return null;
+                }));
+            }
+            try {
+                for (Future<?> resultat : resultats) {
+                    resultat.get(60, TimeUnit.SECONDS);
+                }
+            } finally {
+                embauches.shutdownNow();
+            }
+
+            //Then
+            //Chaque instance distribue son propre bloc de 100 numéros
+            Assertions.assertEquals("T00001", premier1);
+            Assertions.assertEquals("T00101", premier2);
+            List<Employe> employes = instance1.getBean(EmployeRepository.class).findAll();
+            Set<String> matricules = new HashSet<>();
+            for (Employe employe : employes) {
+                matricules.add(employe.getMatricule());
+            }
+            Assertions.assertEquals(482, employes.size());
+            Assertions.assertEquals(482, matricules.size());
+        }
+    }
+
+    @Test
+    public void integrationRestitutionALArret() throws Exception {
+        //Given
+        try (ConfigurableApplicationContext instance1 = demarrerInstance()) {
+            embaucher(instance1, "Premier1");
+            try (ConfigurableApplicationContext instance2 = demarrerInstance()) {
+                embaucher(instance2, "Premier2");
+            }
+
+            //When : l'instance 2 arrêtée a rendu les numéros 102 à 200, l'instance 1 épuise son bloc
+            for (int i = 2; i <= 100; i++) {
+                embaucher(instance1, "John" + i);
+            }
+            String suivant = embaucher(instance1, "Suivant");
+
+            //Then
+            Assertions.assertEquals("T00102", suivant);
+            Assertions.assertEquals(201, instance1.getBean(CompteurMatriculesRepository.class).lire().intValue());
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.exception.EmployeException;
+import com.ipiecoles.java.java350.model.CompteurMatricules;
+import com.ipiecoles.java.java350.repository.CompteurMatriculesRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MatriculeAllocatorTest {
+
+    @InjectMocks
+    MatriculeAllocator matriculeAllocator;
+
+    @Mock
+    CompteurMatriculesRepository compteurMatriculesRepository;
+
+    @BeforeEach
+    public void setup() {
+        ReflectionTestUtils.setField(matriculeAllocator, "tailleBloc", 100);
+    }
+
+    /**
+     * Compteur partagé, tel qu'il est en BDD
+     */
+    private CompteurMatricules compteur(int dernierNumeroLoue) {
+        CompteurMatricules compteur = new CompteurMatricules(CompteurMatricules.MATRICULES, dernierNumeroLoue);
+        when(compteurMatriculesRepository.modifier(any())).then(invocation -> modifier(invocation.getArgument(0), compteur));
+        return compteur;
+    }
+
+    private static Object modifier(Function<CompteurMatricules, ?> modification, CompteurMatricules compteur) {
+        synchronized (compteur) {
+            return modification.apply(compteur);
+        }
+    }
+
+    @Test
+    public void testProchainNumeroSansEmploye() throws EmployeException {
+        //Given : compteur créé au matricule initial
+        compteur(0);
+
+        //When
+        int numero = matriculeAllocator.prochainNumero();
+
+        //Then
+        Assertions.assertEquals(1, numero);
+    }
+
+    @Test
+    public void testProchainNumeroAUneSeuleRequete() throws EmployeException {
+        //Given
+        CompteurMatricules compteur = compteur(345);
+
+        //When
+        int premier = matriculeAllocator.prochainNumero();
+        int second = matriculeAllocator.prochainNumero();
+
+        //Then
+        Assertions.assertEquals(346, premier);
+        Assertions.assertEquals(347, second);
+        //Un bloc de 100 numéros loué en une fois
+        Assertions.assertEquals(445, compteur.getDernierNumeroLoue().intValue());
+        verify(compteurMatriculesRepository, times(1)).modifier(any());
+    }
+
+    @Test
+    public void testProchainNumeroBlocLoueParUneAutreInstance() throws EmployeException {
+        //Given
+        CompteurMatricules compteur = compteur(0);
+        int premier = matriculeAllocator.prochainNumero();
+        //Une autre instance loue le bloc suivant
+        compteur.setDernierNumeroLoue(200);
+
+        //When
+        int dernierDuBloc = matriculeAllocator.reserverNumeros(99);
+        int suivant = matriculeAllocator.prochainNumero();
+
+        //Then
+        Assertions.assertEquals(1, premier);
+        Assertions.assertEquals(2, dernierDuBloc);
+        Assertions.assertEquals(201, suivant);
+        Assertions.assertEquals(300, compteur.getDernierNumeroLoue().intValue());
+    }
+
+    @Test
+    public void testReserverNumerosPlusGrandeQueLeBloc() throws EmployeException {
+        //Given
+        CompteurMatricules compteur = compteur(0);
+        matriculeAllocator.prochainNumero();
+
+        //When
+        int premier = matriculeAllocator.reserverNumeros(250);
+
+        //Then : le bloc prolonge le précédent, resté le dernier loué, sans perdre de numéro
+        Assertions.assertEquals(2, premier);
+        Assertions.assertEquals(251, compteur.getDernierNumeroLoue().intValue());
+    }
+
+    @Test
+    public void testProchainNumero99999() {
+        //Given
+        compteur(99999);
+
+        //When - Then
+        try {
+            matriculeAllocator.prochainNumero();
+            Assertions.fail("La méthode aurait dû lancer une exception");
+        }
+        catch (EmployeException employeException) {
+            Assertions.assertEquals("Limite des 100000 matricules atteinte !", employeException.getMessage());
+        }
+    }
+
+    @Test
+    public void testReserverNumerosAuDelaDeLaLimite() throws EmployeException {
+        //Given
+        CompteurMatricules compteur = compteur(99990);
+
+        //When
+        try {
+            matriculeAllocator.reserverNumeros(10);
+            Assertions.fail("La méthode aurait dû lancer une exception");
+        }
+        catch (EmployeException employeException) {
+            Assertions.assertEquals("Limite des 100000 matricules atteinte !", employeException.getMessage());
+        }
+        int premier = matriculeAllocator.reserverNumeros(9);
+
+        //Then : la plage refusée n'a consommé aucun numéro, le bloc s'arrête à la limite
+        Assertions.assertEquals(99991, premier);
+        Assertions.assertEquals(99999, compteur.getDernierNumeroLoue().intValue());
+    }
+
+    @Test
+    public void testRestituer() throws EmployeException {
+        //Given
+        compteur(0);
+        matriculeAllocator.reserverNumeros(30);
+        when(compteurMatriculesRepository.restituer(100, 30)).thenReturn(1);
+
+        //When
+        matriculeAllocator.restituer();
+
+        //Then
+        verify(compteurMatriculesRepository, times(1)).restituer(100, 30);
+    }
+
+    @Test
+    public void testRattraperDernierMatricule() throws EmployeException {
+        //Given
+        CompteurMatricules compteur = compteur(0);
+        matriculeAllocator.prochainNumero();
+        //Matricules importés au-delà du bloc loué
+        when(compteurMatriculesRepository.dernierMatriculeEnBase()).thenReturn(150);
+
+        //When
+        matriculeAllocator.rattraperDernierMatricule();
+        int numero = matriculeAllocator.prochainNumero();
+
+        //Then
+        Assertions.assertEquals(151, numero);
+        Assertions.assertEquals(250, compteur.getDernierNumeroLoue().intValue());
+    }
+
+    @Test
+    public void testReserverJusquaDansLeBloc() throws EmployeException {
+        //Given
+        CompteurMatricules compteur = compteur(0);
+        matriculeAllocator.prochainNumero();
+
+        //When : numéros 2 à 50 importés
+        matriculeAllocator.reserverJusqua(50);
+        int numero = matriculeAllocator.prochainNumero();
+
+        //Then : la fin du bloc reste distribuée, sans nouvelle location
+        Assertions.assertEquals(51, numero);
+        Assertions.assertEquals(100, compteur.getDernierNumeroLoue().intValue());
+        verify(compteurMatriculesRepository, times(2)).modifier(any());
+    }
+
+    @Test
+    public void testReserverJusquaAuDelaDuBloc() throws EmployeException {
+        //Given
+        CompteurMatricules compteur = compteur(0);
+        matriculeAllocator.prochainNumero();
+
+        //When
+        matriculeAllocator.reserverJusqua(150);
+        int numero = matriculeAllocator.prochainNumero();
+
+        //Then
+        Assertions.assertEquals(151, numero);
+        Assertions.assertEquals(250, compteur.getDernierNumeroLoue().intValue());
+    }
+
+    @Test
+    public void testRattraperDernierMatriculeNAbaissePasLeCompteur() {
+        //Given
+        CompteurMatricules compteur = compteur(300);
+        when(compteurMatriculesRepository.dernierMatriculeEnBase()).thenReturn(150);
+
+        //When
+        matriculeAllocator.rattraperDernierMatricule();
+
+        //Then
+        Assertions.assertEquals(300, compteur.getDernierNumeroLoue().intValue());
+    }
+
+    /**
+     * Des embauches concurrentes ne doivent jamais obtenir deux fois le même numéro
+     */
+    @Test
+    public void testProchainNumeroConcurrent() throws Exception {
+        //Given
+        compteur(0);
+        int nbThreads = 8;
+        int nbParThread = 1000;
+        ExecutorService executorService = Executors.newFixedThreadPool(nbThreads);
+        List<Future<List<Integer>>> resultats = new ArrayList<>();
+
+        //When
+        for (int i = 0; i < nbThreads; i++) {
+            resultats.add(executorService.submit(() -> {
+                List<Integer> numeros = new ArrayList<>();
+                for (int j = 0; j < nbParThread; j++) {
+                    numeros.add(matriculeAllocator.prochainNumero());
+                }
+                return numeros;
+            }));
+        }
+        Set<Integer> numeros = ConcurrentHashMap.newKeySet();
+        for (Future<List<Integer>> resultat : resultats) {
+            numeros.addAll(resultat.get());
+        }
+        executorService.shutdown();
+
+        //Then
+        Assertions.assertEquals(nbThreads * nbParThread, numeros.size());
+        Assertions.assertTrue(numeros.contains(1));
+        Assertions.assertTrue(numeros.contains(nbThreads * nbParThread));
+        verify(compteurMatriculesRepository, times(nbThreads * nbParThread / 100)).modifier(any());
+    }
+
+    /**
+     * Le bloc courant reste distribué pendant qu'une location attend la base
+     */
+    @Test
+    public void testDistributionPendantUneLocation() throws Exception {
+        //Given
+        CompteurMatricules compteur = new CompteurMatricules(CompteurMatricules.MATRICULES, 0);
+        CountDownLatch locationEnCours = new CountDownLatch(1);
+        CountDownLatch finLocation = new CountDownLatch(1);
+        when(compteurMatriculesRepository.modifier(any())).then(invocation -> {
+            if(compteur.getDernierNumeroLoue() > 0){
+                locationEnCours.countDown();
+                finLocation.await(5, TimeUnit.SECONDS);
+            }
+            return modifier(invocation.getArgument(0), compteur);
+        });
+        matriculeAllocator.prochainNumero();
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+        //When : une réservation plus grande que le reste du bloc loue un nouveau bloc
+        Future<Integer> plage = executorService.submit(() -> matriculeAllocator.reserverNumeros(150));
+        Assertions.assertTrue(locationEnCours.await(5, TimeUnit.SECONDS));
+        int pendantLaLocation = matriculeAllocator.prochainNumero();
+        finLocation.countDown();
+        int premierDeLaPlage = plage.get(5, TimeUnit.SECONDS);
+        executorService.shutdown();
+
+        //Then : le nouveau bloc prolonge le bloc courant, entamé pendant la location
+        Assertions.assertEquals(2, pendantLaLocation);
+        Assertions.assertEquals(3, premierDeLaPlage);
+        Assertions.assertEquals(200, compteur.getDernierNumeroLoue().intValue());
+        Assertions.assertEquals(153, matriculeAllocator.prochainNumero());
+    }
+}
@@ -0,0 +1,127 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.model.ContexteCalcul;
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.Entreprise;
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import com.ipiecoles.java.java350.repository.EmployeResume;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MoteurPaieTest {
+
+    @InjectMocks
+    MoteurPaie moteurPaie;
+
+    @Mock
+    EmployeRepository employeRepository;
+
+    private List<Employe> effectif(int taille) {
+        Random random = new Random(350);
+        String[] types = {"T", "M", "C"};
+        Double[] tempsPartiels = {1.0, 0.5, 0.8, 0.33};
+        List<Employe> employes = new ArrayList<>(taille);
+        for (int i = 0; i < taille; i++) {
+            LocalDate dateEmbauche = LocalDate.now().minusDays(random.nextInt(15000) - 100L);
+            Integer performance = random.nextInt(10) == 0 ? null : 1 + random.nextInt(8);
+            employes.add(new Employe("Doe", "John", types[i % 3] + String.format("%05d", i), dateEmbauche,
+                    Entreprise.SALAIRE_BASE, performance, tempsPartiels[random.nextInt(tempsPartiels.length)]));
+        }
+        //Cas limites : date d'embauche et matricule non renseignés
+        employes.add(new Employe("Doe", "Jane", null, null, Entreprise.SALAIRE_BASE, 3, 1.0));
+        return employes;
+    }
+
+    private static Stream<EmployeResume> resumes(List<Employe> employes) {
+        ProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+        return employes.stream().map(employe -> projections.createProjection(EmployeResume.class, employe));
+    }
+
+    @Test
+    public void testCalculsIdentiquesAEmploye() {
+        //Given
+        List<Employe> employes = effectif(3 * MoteurPaie.TAILLE_BLOC + 17);
+        ColonnesEmployes colonnes = ColonnesEmployes.charger(employes, ContexteCalcul.aujourdhui());
+        ColonnesEmployes colonnesLues = ColonnesEmployes.charger(resumes(employes), ContexteCalcul.aujourdhui());
+        LocalDate dateCalcul = LocalDate.of(2021, 1, 1);
+
+        //When
+        double[] primes = moteurPaie.calculerPrimesAnnuelles(colonnes);
+        int[] nbConges = moteurPaie.calculerNbConges(colonnes);
+        double[] nbRtt = moteurPaie.calculerNbRtt(colonnes, dateCalcul);
+
+        //Then
+        Assertions.assertEquals(employes.size(), colonnes.getTaille());
+        Assertions.assertEquals(employes.size(), colonnesLues.getTaille());
+        Assertions.assertArrayEquals(primes, moteurPaie.calculerPrimesAnnuelles(colonnesLues));
+        Assertions.assertArrayEquals(nbConges, moteurPaie.calculerNbConges(colonnesLues));
+        Assertions.assertArrayEquals(nbRtt, moteurPaie.calculerNbRtt(colonnesLues, dateCalcul));
+        for (int i = 0; i < employes.size(); i++) {
+            Employe employe = employes.get(i);
+            Assertions.assertEquals(employe.getMatricule(), colonnes.getMatricule(i));
+            Assertions.assertEquals(Double.doubleToLongBits(employe.getPrimeAnnuelle()), Double.doubleToLongBits(primes[i]), employe.getMatricule());
+            Assertions.assertEquals(employe.getNbConges().intValue(), nbConges[i], employe.getMatricule());
+            Assertions.assertEquals(Double.doubleToLongBits(employe.getNbRtt(dateCalcul)), Double.doubleToLongBits(nbRtt[i]), employe.getMatricule());
+        }
+    }
+
+    @Test
+    public void testChargerEffectif() {
+        //Given
+        when(employeRepository.findAllByOrderByIdAsc()).thenReturn(resumes(Arrays.asList(
+                new Employe("Doe", "John", "M00001", LocalDate.now().minusYears(2), Entreprise.SALAIRE_BASE, 1, 1.0))));
+
+        //When
+        ColonnesEmployes colonnes = moteurPaie.chargerEffectif();
+
+        //Then
+        Assertions.assertEquals(1, colonnes.getTaille());
+        //1000 * 1.7 + 2 * 100
+        Assertions.assertEquals(1900.0, moteurPaie.calculerPrimesAnnuelles(colonnes)[0]);
+        Assertions.assertEquals(27, moteurPaie.calculerNbConges(colonnes)[0]);
+    }
+
+    @Test
+    public void testEffectifVide() {
+        //Given
+        ColonnesEmployes colonnes = ColonnesEmployes.charger(new ArrayList<>(), ContexteCalcul.aujourdhui());
+
+        //When - Then
+        Assertions.assertEquals(0, moteurPaie.calculerPrimesAnnuelles(colonnes).length);
+        Assertions.assertEquals(0, moteurPaie.calculerNbRtt(colonnes, LocalDate.now()).length);
+    }
+
+    @Test
+    public void testChargerEffectifAvecContexte() {
+        //Given
+        when(employeRepository.findAllByOrderByIdAsc()).thenReturn(resumes(Arrays.asList(
+                new Employe("Doe", "John", "T00001", LocalDate.of(2015, 6, 1), Entreprise.SALAIRE_BASE, 1, 0.5))));
+
+        //When
+        ColonnesEmployes colonnes = moteurPaie.chargerEffectif(ContexteCalcul.au(LocalDate.of(2019, 12, 31)));
+
+        //Then
+        Assertions.assertEquals(LocalDate.of(2019, 12, 31), colonnes.getContexte().getDateReference());
+        Assertions.assertEquals(29, moteurPaie.calculerNbConges(colonnes)[0]);
+        //(1000 + 4 * 100) * 0.5
+        Assertions.assertEquals(700.0, moteurPaie.calculerPrimesAnnuelles(colonnes)[0]);
+        //8 jours en 2019 à temps plein
+        Assertions.assertEquals(4.0, moteurPaie.calculerNbRtt(colonnes)[0]);
+    }
+}
@@ -0,0 +1,139 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.model.ContexteCalcul;
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.Entreprise;
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+@ExtendWith(MockitoExtension.class)
+public class MoteurProjectionTest {
+
+    @InjectMocks
+    MoteurProjection moteurProjection;
+
+    @Mock
+    EmployeRepository employeRepository;
+
+    private final ContexteCalcul contexte = ContexteCalcul.au(LocalDate.of(2019, 6, 15));
+
+    private List<Employe> effectif(int taille) {
+        Random random = new Random(350);
+        String[] types = {"T", "M", "C"};
+        Double[] tempsPartiels = {1.0, 0.5, 0.8, 0.33};
+        List<Employe> employes = new ArrayList<>(taille);
+        for (int i = 0; i < taille; i++) {
+            LocalDate dateEmbauche = LocalDate.of(2019, 6, 15).minusDays(random.nextInt(15000) - 100L);
+            employes.add(new Employe("Doe", "John", types[i % 3] + String.format("%05d", i), dateEmbauche,
+                    Entreprise.SALAIRE_BASE + random.nextInt(1500), 1 + random.nextInt(8), tempsPartiels[random.nextInt(tempsPartiels.length)]));
+        }
+        return employes;
+    }
+
+    @Test
+    public void testProjectionIdentiqueAuxReglesDEmploye() {
+        //Given : résultats des commerciaux sans tirage, 10% au-dessus de l'objectif
+        List<Employe> employes = effectif(300);
+        ScenarioProjection scenario = new ScenarioProjection("Objectif dépassé", 4.5, 1.1, 0);
+
+        //When
+        ResultatProjection resultat = moteurProjection.projeter(employes, contexte, Collections.singletonList(scenario), 3, 1, 350L).get(0);
+
+        //Then : mêmes calculs employé par employé avec les méthodes métier
+        double[] performancesCommerciaux = employes.stream().filter(e -> e.getMatricule().startsWith("C")).mapToDouble(Employe::getPerformance).toArray();
+        Double performanceMoyenne = Arrays.stream(performancesCommerciaux).average().getAsDouble();
+        for (int k = 0; k < 3; k++) {
+            ContexteCalcul contexteAnnee = ContexteCalcul.au(contexte.getDateReference().plusYears(k + 1L));
+            double masse = 0;
+            double primes = 0;
+            long sommePerformances = 0;
+            int nbCommerciaux = 0;
+            for (Employe employe : employes) {
+                employe.augmenterSalaire(4.5);
+                if(employe.getMatricule().startsWith("C")){
+                    employe.setPerformance(EmployeService.calculPerformance(employe.getPerformance(), 110000L, MoteurProjection.OBJECTIF_CA, performanceMoyenne));
+                    sommePerformances += employe.getPerformance();
+                    nbCommerciaux++;
+                }
+                masse += employe.getSalaire();
+                primes += employe.getPrimeAnnuelle(contexteAnnee);
+            }
+            performanceMoyenne = (double) sommePerformances / nbCommerciaux;
+            Assertions.assertEquals(2020 + k, resultat.getAnnee(k));
+            Assertions.assertEquals(masse, resultat.getMasseSalariale(k, 50));
+            Assertions.assertEquals(primes, resultat.getBudgetPrimes(k, 50));
+        }
+    }
+
+    @Test
+    public void testPlafondSalaireMax() {
+        //Given
+        List<Employe> employes = Collections.singletonList(new Employe("Doe", "John", "T00001", LocalDate.of(2010, 1, 4), 2900d, 1, 1.0));
+        ScenarioProjection scenario = new ScenarioProjection("Augmentation", 10.0, 1.0, 0);
+
+        //When
+        ResultatProjection resultat = moteurProjection.projeter(employes, contexte, Collections.singletonList(scenario), 2, 1, 350L).get(0);
+
+        //Then
+        Assertions.assertEquals(Entreprise.SALAIRE_MAX.doubleValue(), resultat.getMasseSalariale(0, 100));
+        Assertions.assertEquals(Entreprise.SALAIRE_MAX.doubleValue(), resultat.getMasseSalariale(1, 100));
+        //Ancienneté de 10 puis 11 ans
+        Assertions.assertEquals(Entreprise.primeAnnuelleBase() + 1000d, resultat.getBudgetPrimes(0, 100));
+        Assertions.assertEquals(Entreprise.primeAnnuelleBase() + 1100d, resultat.getBudgetPrimes(1, 100));
+    }
+
+    @Test
+    public void testTiragesReproductiblesEtCentilesOrdonnes() {
+        //Given
+        List<Employe> employes = effectif(600);
+        List<ScenarioProjection> scenarios = Arrays.asList(
+                new ScenarioProjection("Prudent", 2.0, 1.0, 0.2),
+                new ScenarioProjection("Généreux", 4.0, 1.0, 0.2));
+
+        //When
+        List<ResultatProjection> resultats = moteurProjection.projeter(employes, contexte, scenarios, 5, 200, 350L);
+        List<ResultatProjection> memeGraine = moteurProjection.projeter(employes, contexte, scenarios, 5, 200, 350L);
+        List<ResultatProjection> autreGraine = moteurProjection.projeter(employes, contexte, scenarios, 5, 200, 351L);
+
+        //Then
+        for (int k = 0; k < 5; k++) {
+            ResultatProjection prudent = resultats.get(0);
+            double p5 = prudent.getBudgetPrimes(k, 5);
+            double p50 = prudent.getBudgetPrimes(k, 50);
+            double p95 = prudent.getBudgetPrimes(k, 95);
+            Assertions.assertTrue(p5 < p50 && p50 < p95, "Année " + k + " : " + p5 + " " + p50 + " " + p95);
+            Assertions.assertEquals(p50, memeGraine.get(0).getBudgetPrimes(k, 50));
+            Assertions.assertNotEquals(p50, autreGraine.get(0).getBudgetPrimes(k, 50));
+            //Mêmes tirages des résultats pour les deux scénarios : seule l'augmentation les distingue
+            Assertions.assertEquals(p50, resultats.get(1).getBudgetPrimes(k, 50));
+            Assertions.assertTrue(resultats.get(1).getMasseSalariale(k, 50) > prudent.getMasseSalariale(k, 50));
+        }
+        Assertions.assertEquals(200, resultats.get(0).getNbTirages());
+    }
+
+    @Test
+    public void testParametresInvalides() {
+        //Given
+        List<Employe> employes = effectif(3);
+        List<ScenarioProjection> scenarios = Collections.singletonList(new ScenarioProjection("Base", 3.0, 1.0, 0.1));
+
+        //When - Then
+        Assertions.assertThrows(IllegalArgumentException.class, () -> moteurProjection.projeter(employes, contexte, scenarios, 0, 10, 1L));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ScenarioProjection("Trop", 50.0, 1.0, 0.1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ScenarioProjection("Négatif", 3.0, 1.0, -0.1));
+        ResultatProjection resultat = moteurProjection.projeter(employes, contexte, scenarios, 1, 10, 1L).get(0);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> resultat.getBudgetPrimes(0, 0));
+    }
+}
@@ -0,0 +1,100 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.Entreprise;
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = "java350.revue.taille-lot=2")
+public class RevuePerformanceServiceIntegrationTest {
+
+    @Autowired
+    private RevuePerformanceService revuePerformanceService;
+
+    @Autowired
+    private AgregatPerformanceService agregatPerformanceService;
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    private final List<ObjectifCommercial> objectifs = Arrays.asList(
+            new ObjectifCommercial("C00001", 15000L, 10000L),
+            new ObjectifCommercial("C00002", 10000L, 10000L),
+            new ObjectifCommercial("C00003", 9000L, 10000L),
+            new ObjectifCommercial("C00004", 11000L, 10000L),
+            new ObjectifCommercial("C99999", 10000L, 10000L),
+            new ObjectifCommercial("M00001", 10000L, 10000L),
+            new ObjectifCommercial("C00002", -1L, 10000L),
+            new ObjectifCommercial("C00001", 0L, 10000L));
+
+    @BeforeEach
+    public void setup(){
+        employeRepository.deleteAll();
+        //Performance moyenne des commerciaux : 3
+        employeRepository.save(new Employe("Doe", "John", "C00001", LocalDate.now(), Entreprise.SALAIRE_BASE, 1, 1.0));
+        employeRepository.save(new Employe("Doe", "Jane", "C00002", LocalDate.now(), Entreprise.SALAIRE_BASE, 2, 1.0));
+        employeRepository.save(new Employe("Doe", "Jim", "C00003", LocalDate.now(), Entreprise.SALAIRE_BASE, 4, 1.0));
+        employeRepository.save(new Employe("Doe", "Joe", "C00004", LocalDate.now(), Entreprise.SALAIRE_BASE, 5, 1.0));
+        employeRepository.save(new Employe("Doe", "Jack", "M00001", LocalDate.now(), Entreprise.SALAIRE_BASE, 1, 1.0));
+        agregatPerformanceService.reconcilier();
+    }
+
+    @AfterEach
+    public void tearDown(){
+        employeRepository.deleteAll();
+        agregatPerformanceService.reconcilier();
+    }
+
+    @Test
+    public void integrationRevueAnnuelle() {
+        //Given - When
+        ResultatRevuePerformance resultat = revuePerformanceService.revueAnnuelle(objectifs.stream());
+
+        //Then
+        Assertions.assertEquals(3.0, resultat.getPerformanceMoyenne().doubleValue());
+        Assertions.assertEquals(4, resultat.getNbMisesAJour());
+        Assertions.assertEquals(1, resultat.getNbIntrouvables());
+        Assertions.assertEquals(2, resultat.getNbInvalides());
+        Assertions.assertEquals(1, resultat.getNbDoublons());
+        //Cas 5 : 1 + 4, + 1 car au-dessus de la moyenne
+        Assertions.assertEquals(6, employeRepository.findByMatricule("C00001").getPerformance().intValue());
+        //Cas 3
+        Assertions.assertEquals(2, employeRepository.findByMatricule("C00002").getPerformance().intValue());
+        //Cas 2 : 4 - 2
+        Assertions.assertEquals(2, employeRepository.findByMatricule("C00003").getPerformance().intValue());
+        //Cas 4 : 5 + 1, + 1 car au-dessus de la moyenne
+        Assertions.assertEquals(7, employeRepository.findByMatricule("C00004").getPerformance().intValue());
+        Assertions.assertEquals(1, employeRepository.findByMatricule("M00001").getPerformance().intValue());
+        Assertions.assertTrue(agregatPerformanceService.reconcilier().isEmpty());
+    }
+
+    @Test
+    public void integrationRevueAnnuelleIndependanteDeLOrdre() {
+        //Given
+        List<ObjectifCommercial> objectifsInverses = new ArrayList<>(objectifs.subList(0, 4));
+        Collections.reverse(objectifsInverses);
+
+        //When
+        revuePerformanceService.revueAnnuelle(objectifsInverses.stream());
+
+        //Then
+        Assertions.assertEquals(6, employeRepository.findByMatricule("C00001").getPerformance().intValue());
+        Assertions.assertEquals(2, employeRepository.findByMatricule("C00002").getPerformance().intValue());
+        Assertions.assertEquals(2, employeRepository.findByMatricule("C00003").getPerformance().intValue());
+        Assertions.assertEquals(7, employeRepository.findByMatricule("C00004").getPerformance().intValue());
+    }
+}
@@ -0,0 +1,98 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.model.ContexteCalcul;
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.Poste;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+public class StatistiquesPosteTest {
+
+    private static StatistiquesPoste statistiques(Poste poste, List<Employe> employes) {
+        StatistiquesPoste statistiques = StatistiquesPoste.vide(poste);
+        for (Employe employe : employes) {
+            StatistiquesPoste contribution = StatistiquesPoste.de(employe);
+            if(contribution != null && contribution.getPoste() == poste){
+                statistiques = statistiques.plus(contribution);
+            }
+        }
+        return statistiques;
+    }
+
+    @Test
+    public void testBudgetPrimesEgalSommeDesPrimesAnnuelles() {
+        //Given
+        List<Employe> employes = Arrays.asList(
+                new Employe("Doe", "John", "C00001", LocalDate.of(2012, 3, 1), 2000d, 4, 1.0),
+                new Employe("Doe", "Jane", "C00002", LocalDate.of(2018, 9, 15), 1800d, 1, 0.5),
+                new Employe("Doe", "Jim", "C00003", LocalDate.of(2019, 1, 2), 1700d, null, 0.8),
+                new Employe("Doe", "Joe", "C00004", null, 1600d, 2, 1.0),
+                new Employe("Doe", "Ann", "M00005", LocalDate.of(2010, 5, 1), 2900d, 3, 1.0),
+                new Employe("Doe", "Bob", "M00006", LocalDate.of(2016, 5, 1), 2500d, 1, 0.6),
+                new Employe("Doe", "Tom", "T00007", LocalDate.of(2015, 7, 1), 1521.22, 1, 1.0));
+        ContexteCalcul contexte = ContexteCalcul.au(LocalDate.of(2019, 12, 31));
+
+        for (Poste poste : Poste.values()) {
+            //When
+            double budget = statistiques(poste, employes).getBudgetPrimes(2019);
+
+            //Then
+            double sommePrimes = employes.stream()
+                    .filter(employe -> employe.getMatricule().charAt(0) == poste.name().charAt(0))
+                    .mapToDouble(employe -> employe.getPrimeAnnuelle(contexte))
+                    .sum();
+            Assertions.assertEquals(sommePrimes, budget, 1e-6, poste.name());
+        }
+    }
+
+    @Test
+    public void testMoyennes() {
+        //Given
+        List<Employe> employes = Arrays.asList(
+                new Employe("Doe", "John", "C00001", LocalDate.of(2012, 3, 1), 2000d, 4, 1.0),
+                new Employe("Doe", "Jane", "C00002", LocalDate.of(2018, 9, 15), 1800d, 1, 0.5),
+                new Employe("Doe", "Jim", "C00003", LocalDate.of(2019, 1, 2), 1700d, null, 0.8));
+
+        //When
+        StatistiquesPoste commerciaux = statistiques(Poste.COMMERCIAL, employes);
+        StatistiquesPoste techniciens = statistiques(Poste.TECHNICIEN, employes);
+
+        //Then
+        Assertions.assertEquals(3L, commerciaux.getNbEmployes());
+        Assertions.assertEquals(5500d, commerciaux.getMasseSalariale(), 1e-9);
+        Assertions.assertEquals(5500d / 3, commerciaux.getSalaireMoyen(), 1e-9);
+        Assertions.assertEquals(2.5, commerciaux.getPerformanceMoyenne(), 1e-9);
+        Assertions.assertEquals(0L, techniciens.getNbEmployes());
+        Assertions.assertNull(techniciens.getSalaireMoyen());
+        Assertions.assertNull(techniciens.getPerformanceMoyenne());
+    }
+
+    @Test
+    public void testModificationParDifference() {
+        //Given
+        Employe employe = new Employe("Doe", "John", "C00001", LocalDate.of(2012, 3, 1), 2000d, 4, 1.0);
+        Employe autre = new Employe("Doe", "Jane", "C00002", LocalDate.of(2018, 9, 15), 1800d, 1, 0.5);
+        StatistiquesPoste statistiques = statistiques(Poste.COMMERCIAL, Arrays.asList(employe, autre));
+        StatistiquesPoste avant = StatistiquesPoste.de(employe);
+
+        //When
+        employe.setPerformance(9);
+        employe.setSalaire(2200d);
+        StatistiquesPoste modifiees = statistiques.moins(avant).plus(StatistiquesPoste.de(employe));
+
+        //Then
+        Assertions.assertTrue(modifiees.egales(statistiques(Poste.COMMERCIAL, Arrays.asList(employe, autre))));
+        Assertions.assertFalse(modifiees.egales(statistiques));
+    }
+
+    @Test
+    public void testMatriculeSansPoste() {
+        //Given - When - Then
+        Assertions.assertNull(StatistiquesPoste.de(new Employe("Doe", "John", "X00001", LocalDate.now(), 2000d, 1, 1.0)));
+        Assertions.assertNull(StatistiquesPoste.de(new Employe()));
+    }
+}
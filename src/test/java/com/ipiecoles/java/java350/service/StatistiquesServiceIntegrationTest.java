@@ -0,0 +1,113 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.exception.EmployeException;
+import com.ipiecoles.java.java350.model.Employe;
+import com.ipiecoles.java.java350.model.Entreprise;
+import com.ipiecoles.java.java350.model.NiveauEtude;
+import com.ipiecoles.java.java350.model.Poste;
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import com.ipiecoles.java.java350.repository.FiltreEmployes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+public class StatistiquesServiceIntegrationTest {
+
+    @Autowired
+    private StatistiquesService statistiquesService;
+
+    @Autowired
+    private EmployeService employeService;
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    @Autowired
+    private AgregatPerformanceService agregatPerformanceService;
+
+    @Autowired
+    private MatriculeAllocator matriculeAllocator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    @AfterEach
+    public void setup(){
+        employeRepository.deleteAll();
+        agregatPerformanceService.reconcilier();
+        matriculeAllocator.resynchroniser();
+        statistiquesService.verifier();
+    }
+
+    @Test
+    public void integrationStatistiquesTenuesAJourParEmployeService() throws EmployeException {
+        //Given
+        employeService.embaucheEmploye("Doe", "John", Poste.COMMERCIAL, NiveauEtude.BAC, 1.0);
+        employeService.embaucheEmploye("Doe", "Jane", Poste.COMMERCIAL, NiveauEtude.MASTER, 0.5);
+        employeService.embaucheEmploye("Doe", "Jim", Poste.MANAGER, NiveauEtude.INGENIEUR, 1.0);
+
+        //When
+        employeService.calculPerformanceCommercial("C00001", 20000L, 10000L);
+        employeService.augmenterSalaires(FiltreEmployes.tous().typeEmploye("C"), 10.0);
+
+        //Then
+        StatistiquesPoste commerciaux = statistiquesService.statistiques(Poste.COMMERCIAL);
+        Assertions.assertEquals(2L, commerciaux.getNbEmployes());
+        Assertions.assertEquals(employeRepository.findByMatricule("C00001").getSalaire() + employeRepository.findByMatricule("C00002").getSalaire(),
+                commerciaux.getMasseSalariale(), 0.01);
+        Assertions.assertEquals(3.5, commerciaux.getPerformanceMoyenne(), 1e-9);
+        Assertions.assertEquals(1L, statistiquesService.statistiques(Poste.MANAGER).getNbEmployes());
+        Assertions.assertEquals(0L, statistiquesService.statistiques(Poste.TECHNICIEN).getNbEmployes());
+        Assertions.assertTrue(statistiquesService.verifier().isEmpty());
+    }
+
+    @Test
+    public void integrationStatistiquesInchangeesSiTransactionAnnulee() {
+        //Given
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        //When
+        transactionTemplate.execute(status -> {
+            try {
+                employeService.embaucheEmployes(Collections.singletonList(new DemandeEmbauche("Doe", "John", Poste.TECHNICIEN, NiveauEtude.BAC, 1.0)));
+            } catch (EmployeException e) {
+                throw new IllegalStateException(e);
+            }
+            status.setRollbackOnly();
+            return null;
+        });
+
+        //Then
+        Assertions.assertEquals(0L, employeRepository.count());
+        Assertions.assertEquals(0L, statistiquesService.statistiques(Poste.TECHNICIEN).getNbEmployes());
+        Assertions.assertTrue(statistiquesService.verifier().isEmpty());
+    }
+
+    @Test
+    public void integrationVerificationCorrigeLesEcarts() {
+        //Given : écriture directe sans passer par EmployeService
+        employeRepository.save(new Employe("Doe", "John", "M00001", LocalDate.now(), Entreprise.SALAIRE_BASE, 3, 1.0));
+
+        //When
+        List<Poste> postesEnEcart = statistiquesService.verifier();
+
+        //Then
+        Assertions.assertEquals(Collections.singletonList(Poste.MANAGER), postesEnEcart);
+        Assertions.assertEquals(Entreprise.SALAIRE_BASE, statistiquesService.statistiques(Poste.MANAGER).getSalaireMoyen(), 1e-9);
+        Assertions.assertTrue(statistiquesService.verifier().isEmpty());
+    }
+}
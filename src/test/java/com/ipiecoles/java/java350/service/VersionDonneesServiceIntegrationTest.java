@@ -0,0 +1,108 @@
+package com.ipiecoles.java.java350.service;
+
+import com.ipiecoles.java.java350.exception.EmployeException;
+import com.ipiecoles.java.java350.model.NiveauEtude;
+import com.ipiecoles.java.java350.model.Poste;
+import com.ipiecoles.java.java350.repository.EmployeRepository;
+import com.ipiecoles.java.java350.repository.FiltreEmployes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+public class VersionDonneesServiceIntegrationTest {
+
+    @Autowired
+    private VersionDonneesService versionDonneesService;
+
+    @Autowired
+    private EmployeService employeService;
+
+    @Autowired
+    private ImportEmployesService importEmployesService;
+
+    @Autowired
+    private RevuePerformanceService revuePerformanceService;
+
+    @Autowired
+    private EmployeRepository employeRepository;
+
+    @Autowired
+    private AgregatPerformanceService agregatPerformanceService;
+
+    @Autowired
+    private MatriculeAllocator matriculeAllocator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    @AfterEach
+    public void setup() {
+        employeRepository.deleteAll();
+        agregatPerformanceService.reconcilier();
+        matriculeAllocator.resynchroniser();
+    }
+
+    @Test
+    public void integrationVersionAChaqueEcriture() throws EmployeException, IOException {
+        //Given
+        long version = versionDonneesService.version();
+
+        //When - Then : une seule augmentation par transaction
+        employeService.embaucheEmploye("Doe", "John", Poste.COMMERCIAL, NiveauEtude.BAC, 1.0);
+        Assertions.assertEquals(version + 1, versionDonneesService.version());
+        String commercial = "C" + employeRepository.findLastMatricule();
+        employeService.embaucheEmployes(Arrays.asList(
+                new DemandeEmbauche("Doe", "Jane", Poste.COMMERCIAL, NiveauEtude.BAC, 1.0),
+                new DemandeEmbauche("Doe", "Jim", Poste.TECHNICIEN, NiveauEtude.BAC, 1.0)));
+        Assertions.assertEquals(version + 2, versionDonneesService.version());
+        employeService.augmenterSalaires(FiltreEmployes.tous(), 5.0);
+        Assertions.assertEquals(version + 3, versionDonneesService.version());
+        employeService.calculPerformanceCommercial(commercial, 15000L, 10000L);
+        Assertions.assertEquals(version + 4, versionDonneesService.version());
+        revuePerformanceService.revueAnnuelle(Stream.of(new ObjectifCommercial(commercial, 15000L, 10000L)));
+        Assertions.assertEquals(version + 5, versionDonneesService.version());
+        Path fichier = Files.createTempFile("import", ".csv");
+        try {
+            Files.write(fichier, Collections.singletonList("T90001;Doe;Jo;TECHNICIEN;BAC;1.0;2015-06-01;;"), StandardCharsets.UTF_8);
+            importEmployesService.importer(fichier);
+        } finally {
+            Files.deleteIfExists(fichier);
+        }
+        Assertions.assertEquals(version + 6, versionDonneesService.version());
+    }
+
+    @Test
+    public void integrationVersionInchangeeSiTransactionAnnulee() {
+        //Given
+        long version = versionDonneesService.version();
+
+        //When
+        new TransactionTemplate(transactionManager).execute(status -> {
+            versionDonneesService.signalerEcriture();
+            versionDonneesService.signalerEcriture();
+            status.setRollbackOnly();
+            return null;
+        });
+
+        //Then
+        Assertions.assertEquals(version, versionDonneesService.version());
+    }
+}